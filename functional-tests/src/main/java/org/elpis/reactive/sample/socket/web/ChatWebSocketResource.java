@@ -1,6 +1,8 @@
 package org.elpis.reactive.sample.socket.web;
 
 import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.web.annotation.Replay;
+import org.elpis.reactive.websockets.web.annotation.SharedPublisher;
 import org.elpis.reactive.websockets.web.annotation.SocketMapping;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
@@ -8,7 +10,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
-import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import reactor.core.publisher.Flux;
@@ -23,13 +24,12 @@ public class ChatWebSocketResource {
     private static final Logger log = LoggerFactory.getLogger(ChatWebSocketResource.class);
 
 
-    @SocketMapping(value = "/listen/{chatId}", mode = Mode.SHARED)
+    // late joiners ask for history with ?replayLast=N instead of re-querying it
+    @SocketMapping(value = "/listen/{chatId}", mode = Mode.SHARED,
+            sharedPublisher = @SharedPublisher(pathVariables = "chatId", headers = "userName"), replay = @Replay(size = 100))
     public Publisher<Map<String, Object>> handleOutbound(@RequestHeader("userName") final String userName,
-                                                         @PathVariable(value = "chatId", required = false) final Long chatId,
-                                                         @RequestParam("last") final Integer lastMessages) {
+                                                         @PathVariable(value = "chatId", required = false) final Long chatId) {
         return Flux.interval(Duration.ofSeconds(5))
-                .share()
-                .takeLast(lastMessages)
                 .map(i -> Map.of("chatId", chatId, "message", i, "userName", userName));
     }
 
@@ -0,0 +1,29 @@
+package org.elpis.reactive.websockets.context.resource.buffer;
+
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.config.SlowConsumerPolicy;
+import org.elpis.reactive.websockets.web.annotation.Conflation;
+import org.elpis.reactive.websockets.web.annotation.OutboundBuffer;
+import org.elpis.reactive.websockets.web.annotation.SocketController;
+import org.elpis.reactive.websockets.web.annotation.SocketMapping;
+import reactor.core.publisher.Flux;
+
+@SocketController("/buffer")
+public class OutboundBufferResource {
+
+    @SocketMapping(value = "/ticks", mode = Mode.SHARED,
+            outboundBuffer = @OutboundBuffer(size = 16, policy = SlowConsumerPolicy.DISCONNECT))
+    public Flux<String> ticks() {
+        return Flux.range(0, 5)
+                .map(tick -> "tick " + tick);
+    }
+
+    @SocketMapping(value = "/prices", mode = Mode.SESSION, conflation = @Conflation(key = "symbol"))
+    public Flux<Price> prices() {
+        return Flux.range(0, 100)
+                .map(tick -> new Price(tick % 2 == 0 ? "ACME" : "INIT", tick));
+    }
+
+    public record Price(String symbol, int value) {
+    }
+}
@@ -0,0 +1,44 @@
+package org.elpis.reactive.websockets.context.resource.codec;
+
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.web.annotation.SocketController;
+import org.elpis.reactive.websockets.web.annotation.SocketMapping;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+@SocketController("/codec")
+public class CodecResource {
+
+    @SocketMapping(value = "/payload", mode = Mode.SESSION)
+    public Flux<Map<String, Object>> payload() {
+        return Flux.just(Map.of("value", 42));
+    }
+
+    @SocketMapping(value = "/echo", mode = Mode.SESSION)
+    public Flux<Map<String, Object>> echo(@RequestBody final Flux<Map<String, Object>> payloads) {
+        return payloads;
+    }
+
+    @SocketMapping(value = "/generated", mode = Mode.SESSION, generateSerializer = true)
+    public Flux<Quote> generated() {
+        return Flux.just(new Quote("\"ACME\"\n\u00e9\u20ac\ud83d\ude00", 12.5, null, Side.BUY, new Venue("XNAS"),
+                List.of("a", "b"), 1_700_000_000_000L, "secret"));
+    }
+
+    public enum Side {
+        BUY, SELL
+    }
+
+    public record Venue(String name) {
+    }
+
+    public record Quote(String symbol, double price, Integer volume, Side side, Venue venue, List<String> tags,
+                        @JsonProperty("ts") long timestamp, @JsonIgnore String internal) {
+    }
+
+}
@@ -11,4 +11,9 @@ public class PingResource {
     public void ping() {
         //Empty for test the Ping-Pong
     }
+
+    @SocketMapping(value = "/ping/fast", mode = Mode.SESSION, ping = @Ping(200L))
+    public void fastPing() {
+        //Empty for test the dead peer eviction
+    }
 }
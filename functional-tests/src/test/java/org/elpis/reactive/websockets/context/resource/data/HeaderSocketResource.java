@@ -8,6 +8,7 @@ import org.reactivestreams.Publisher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -147,6 +148,15 @@ public class HeaderSocketResource {
         return Flux.just(Map.of("header", id + "_" + version));
     }
 
+    @SocketMapping(value = "/clashing/get/header", mode = Mode.SHARED)
+    public Publisher<?> getWithClashingNames(@RequestParam("id") final String id,
+                                             @RequestHeader("id") final String idRaw,
+                                             @RequestHeader("ids") final List<String> ids,
+                                             @RequestParam("value") final String idsValue) {
+
+        return Flux.just(Map.of("header", id + "_" + idRaw + "_" + String.join("_", ids) + "_" + idsValue));
+    }
+
     @SocketMapping(value = "/http", mode = Mode.SHARED)
     public Publisher<?> getHttpHeaders(@RequestHeader final HttpHeaders headers) {
         return Mono.justOrEmpty(Optional.ofNullable(headers.getFirst("id")).map(header -> Map.of("header", header)));
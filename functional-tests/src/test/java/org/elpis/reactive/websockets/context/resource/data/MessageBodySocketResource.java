@@ -12,6 +12,7 @@ import reactor.core.publisher.Mono;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.List;
 
 @SocketController("/body")
 public class MessageBodySocketResource {
@@ -32,4 +33,17 @@ public class MessageBodySocketResource {
         return Mono.just(new ByteArrayInputStream("Stream".getBytes()));
     }
 
+    @SocketMapping(value = "/post/typed", mode = Mode.SESSION)
+    public Flux<String> receiveTypedMessage(@RequestBody final Flux<Greeting> greetings) {
+        return greetings.map(greeting -> "Hello, " + greeting.name());
+    }
+
+    @SocketMapping(value = "/post/typed/list", mode = Mode.SESSION)
+    public Flux<Integer> receiveTypedListMessage(@RequestBody final Flux<List<Greeting>> greetings) {
+        return greetings.map(List::size);
+    }
+
+    public record Greeting(String name) {
+    }
+
 }
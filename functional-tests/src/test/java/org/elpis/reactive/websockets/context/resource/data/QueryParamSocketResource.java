@@ -136,4 +136,19 @@ public class QueryParamSocketResource {
         return Flux.just(Map.of("query", ids.toString()));
     }
 
+    @SocketMapping(value = "/single/get/default/numeric", mode = Mode.SHARED)
+    public Publisher<?> getDefaultNumericQuery(@RequestParam(value = "no", defaultValue = "42") final long id) {
+        return Flux.just(Map.of("query", id));
+    }
+
+    @SocketMapping(value = "/single/get/default/enum", mode = Mode.SHARED)
+    public Publisher<?> getDefaultEnumQuery(@RequestParam(value = "no", defaultValue = "VOID") final BootStarter.Example id) {
+        return Flux.just(Map.of("query", id));
+    }
+
+    @SocketMapping(value = "/single/get/list/numeric", mode = Mode.SHARED)
+    public Publisher<?> getNumericListQuery(@RequestParam("ids") final List<Integer> ids) {
+        return Flux.just(Map.of("query", ids.stream().mapToInt(Integer::intValue).sum()));
+    }
+
 }
@@ -0,0 +1,27 @@
+package org.elpis.reactive.websockets.context.resource.mode;
+
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.web.annotation.SocketController;
+import org.elpis.reactive.websockets.web.annotation.SocketMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+@SocketController("/mode/session")
+public class SessionModeResource {
+
+    @SocketMapping(value = "/echo", mode = Mode.SESSION)
+    public Flux<String> echo(@RequestBody final Flux<WebSocketMessage> webSocketMessages) {
+        return webSocketMessages.map(WebSocketMessage::getPayloadAsText);
+    }
+
+    @SocketMapping(value = "/echo/late", mode = Mode.SESSION)
+    public Flux<String> lateEcho(@RequestBody final Flux<WebSocketMessage> webSocketMessages) {
+        return webSocketMessages.publishOn(Schedulers.boundedElastic())
+                .delayElements(Duration.ofMillis(20))
+                .map(WebSocketMessage::getPayloadAsText);
+    }
+}
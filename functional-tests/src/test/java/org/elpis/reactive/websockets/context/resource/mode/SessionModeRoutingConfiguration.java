@@ -0,0 +1,20 @@
+package org.elpis.reactive.websockets.context.resource.mode;
+
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import static org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunctions.handle;
+
+@Configuration
+public class SessionModeRoutingConfiguration {
+
+    @Bean
+    public WebSocketHandlerFunction sessionModeRouting() {
+        return handle("/mode/session/routing/echo", Mode.SESSION, (context, messages) -> {
+            return messages.map(WebSocketMessage::getPayloadAsText);
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package org.elpis.reactive.websockets.context.resource.resume;
+
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.web.annotation.Resumption;
+import org.elpis.reactive.websockets.web.annotation.SocketController;
+import org.elpis.reactive.websockets.web.annotation.SocketMapping;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SocketController("/resume")
+public class ResumableResource {
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @SocketMapping(value = "/counter", mode = Mode.SESSION, resumption = @Resumption(ttl = 5000L, outboxSize = 128))
+    public Flux<String> counter() {
+        this.invocations.incrementAndGet();
+
+        return Flux.interval(Duration.ofMillis(20))
+                .map(String::valueOf);
+    }
+
+    public int getInvocations() {
+        return this.invocations.get();
+    }
+}
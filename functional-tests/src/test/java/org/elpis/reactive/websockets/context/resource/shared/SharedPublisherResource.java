@@ -0,0 +1,54 @@
+package org.elpis.reactive.websockets.context.resource.shared;
+
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.web.annotation.Replay;
+import org.elpis.reactive.websockets.web.annotation.SharedPublisher;
+import org.elpis.reactive.websockets.web.annotation.SocketController;
+import org.elpis.reactive.websockets.web.annotation.SocketMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SocketController("/shared/publisher")
+public class SharedPublisherResource {
+    private final Map<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+    private final Map<String, Sinks.Many<String>> history = new ConcurrentHashMap<>();
+
+    @SocketMapping(value = "/{room}", mode = Mode.SHARED, sharedPublisher = @SharedPublisher(pathVariables = "room"))
+    public Flux<String> ticks(@PathVariable("room") final String room) {
+        this.invocations.computeIfAbsent(room, key -> new AtomicInteger()).incrementAndGet();
+
+        return Flux.interval(Duration.ofMillis(100))
+                .map(tick -> room + " " + tick);
+    }
+
+    @SocketMapping(value = "/encoded/{room}", mode = Mode.SHARED,
+            sharedPublisher = @SharedPublisher(pathVariables = "room", encodeOnce = true))
+    public Flux<Map<String, Object>> encoded(@PathVariable("room") final String room) {
+        return Flux.interval(Duration.ofMillis(100))
+                .map(tick -> Map.of("room", room, "tick", tick));
+    }
+
+    @SocketMapping(value = "/history/{room}", mode = Mode.SHARED, sharedPublisher = @SharedPublisher(pathVariables = "room"),
+            replay = @Replay(size = 8))
+    public Flux<String> history(@PathVariable("room") final String room) {
+        return this.getHistory(room).asFlux();
+    }
+
+    public Sinks.EmitResult publish(final String room, final String message) {
+        return this.getHistory(room).tryEmitNext(message);
+    }
+
+    private Sinks.Many<String> getHistory(final String room) {
+        return this.history.computeIfAbsent(room, key -> Sinks.many().multicast().directBestEffort());
+    }
+
+    public int getInvocations(final String room) {
+        return this.invocations.getOrDefault(room, new AtomicInteger()).get();
+    }
+}
@@ -0,0 +1,160 @@
+package org.elpis.reactive.websockets.impl.buffer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.buffer.OutboundBufferResource;
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
+import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.handler.KeyedConflation;
+import org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunction;
+import org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunctions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, OutboundBufferResource.class})
+class ConflationTest extends BaseWebSocketTest {
+
+    @Autowired
+    private List<BaseWebSocketHandler> handlers;
+
+    @Test
+    void conflatedMappingEndsWithLatestValuePerKey() throws Exception {
+        //given
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final Map<String, Integer> latest = new ConcurrentHashMap<>();
+
+        //test
+        StepVerifier.create(this.withClient("/buffer/prices", session -> session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .map(payload -> {
+                            try {
+                                return objectMapper.readValue(payload, OutboundBufferResource.Price.class);
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        })
+                        .doOnNext(price -> latest.put(price.symbol(), price.value()))
+                        .takeUntil(price -> latest.getOrDefault("ACME", -1) == 98 && latest.getOrDefault("INIT", -1) == 99)
+                        .then()))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(latest).containsEntry("ACME", 98).containsEntry("INIT", 99);
+        assertThat(this.handlers.stream()
+                .filter(handler -> handler.getPathTemplate().equals("/buffer/prices"))
+                .findFirst()
+                .flatMap(BaseWebSocketHandler::getConflation))
+                .isPresent();
+    }
+
+    @Test
+    void pendingKeysKeepOrderAndNewestValue() {
+        //given
+        final KeyedConflation conflation = new KeyedConflation(payload -> ((String) payload).substring(0, 1));
+        final Sinks.Many<String> upstream = Sinks.many().multicast().directBestEffort();
+
+        //test
+        StepVerifier.create(conflation.apply(upstream.asFlux()), 0)
+                .then(() -> Flux.just("a1", "b1", "a2", "c1", "b2", "a3").subscribe(upstream::tryEmitNext))
+                .thenRequest(2)
+                .expectNext("a3", "b2")
+                .then(() -> {
+                    upstream.tryEmitNext("a4");
+                    upstream.tryEmitComplete();
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .expectNext("c1", "a4")
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(conflation.getConflated()).isEqualTo(3);
+    }
+
+    @Test
+    void expressionKeySupportsRecordsAndMaps() {
+        //given
+        final KeyedConflation records = KeyedConflation.byExpression("symbol");
+        final KeyedConflation maps = KeyedConflation.byExpression("['symbol']");
+
+        final Sinks.Many<OutboundBufferResource.Price> prices = Sinks.many().multicast().directBestEffort();
+        final Sinks.Many<Map<String, Object>> quotes = Sinks.many().multicast().directBestEffort();
+
+        //test
+        StepVerifier.create(records.apply(prices.asFlux()), 0)
+                .then(() -> {
+                    prices.tryEmitNext(new OutboundBufferResource.Price("ACME", 1));
+                    prices.tryEmitNext(new OutboundBufferResource.Price("ACME", 2));
+                    prices.tryEmitComplete();
+                })
+                .thenRequest(1)
+                .expectNext(new OutboundBufferResource.Price("ACME", 2))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        StepVerifier.create(maps.apply(quotes.asFlux()), 0)
+                .then(() -> {
+                    quotes.tryEmitNext(Map.of("symbol", "ACME", "value", 1));
+                    quotes.tryEmitNext(Map.of("symbol", "INIT", "value", 1));
+                    quotes.tryEmitNext(Map.of("symbol", "ACME", "value", 2));
+                    quotes.tryEmitComplete();
+                })
+                .thenRequest(2)
+                .expectNext(Map.of("symbol", "ACME", "value", 2), Map.of("symbol", "INIT", "value", 1))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(records.getConflated()).isEqualTo(1);
+        assertThat(maps.getConflated()).isEqualTo(1);
+    }
+
+    @Test
+    void routingDslEnablesConflation() {
+        //given
+        final WebSocketHandlerFunctions.WebSocketMessageHandlerFunction<String> function = (context, messages) ->
+                Flux.just("value");
+
+        //test
+        final BaseWebSocketHandler handler = WebSocketHandlerFunctions.handle("/conflated", Mode.SESSION, function)
+                .conflate(payload -> payload)
+                .register(null, null, null, null);
+
+        //verify
+        assertThat(handler.getConflation()).isPresent();
+    }
+
+    @Test
+    void routingDslRejectsConflationOfVoidRoute() {
+        //given
+        final WebSocketHandlerFunctions.WebSocketVoidHandlerFunction function = (context, messages) -> {
+        };
+
+        //test
+        final WebSocketHandlerFunction route = WebSocketHandlerFunctions.handle("/void", Mode.SESSION, function);
+
+        //verify
+        assertThatThrownBy(() -> route.conflate(payload -> payload))
+                .isInstanceOf(WebSocketMappingException.class)
+                .hasMessageContaining("/void");
+    }
+}
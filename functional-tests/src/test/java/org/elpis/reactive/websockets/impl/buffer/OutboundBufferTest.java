@@ -0,0 +1,122 @@
+package org.elpis.reactive.websockets.impl.buffer;
+
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.config.SlowConsumerPolicy;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.buffer.OutboundBufferResource;
+import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.handler.SessionOutboundBuffers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, OutboundBufferResource.class})
+class OutboundBufferTest extends BaseWebSocketTest {
+
+    @Autowired
+    private List<BaseWebSocketHandler> handlers;
+
+    @Test
+    void bufferedMappingDeliversMessages() throws Exception {
+        //given
+        final SessionOutboundBuffers outboundBuffers = this.handlers.stream()
+                .filter(handler -> handler.getPathTemplate().equals("/buffer/ticks"))
+                .findFirst()
+                .flatMap(BaseWebSocketHandler::getOutboundBuffers)
+                .orElseThrow();
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        //test
+        StepVerifier.create(this.withClient("/buffer/ticks", session -> session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .doOnNext(received::add)
+                        .take(5)
+                        .then()))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(received).containsExactly("tick 0", "tick 1", "tick 2", "tick 3", "tick 4");
+        assertThat(outboundBuffers.getPolicy()).isEqualTo(SlowConsumerPolicy.DISCONNECT);
+        assertThat(outboundBuffers.getSize()).isEqualTo(16);
+        assertThat(outboundBuffers.getDisconnected()).isZero();
+    }
+
+    @Test
+    void dropOldestKeepsNewestMessages() {
+        //given
+        final SessionOutboundBuffers outboundBuffers = new SessionOutboundBuffers(SlowConsumerPolicy.DROP_OLDEST, 2);
+        final Sinks.Many<Integer> upstream = Sinks.many().multicast().directBestEffort();
+
+        //test
+        StepVerifier.create(outboundBuffers.apply("1", upstream.asFlux(), closeStatus -> Mono.empty()), 0)
+                .then(() -> {
+                    Flux.range(0, 5).subscribe(upstream::tryEmitNext);
+
+                    assertThat(outboundBuffers.getQueueDepth("1")).isEqualTo(2);
+                })
+                .thenRequest(2)
+                .expectNext(3, 4)
+                .then(() -> assertThat(outboundBuffers.getQueueDepth("1")).isZero())
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(outboundBuffers.getDropped()).isEqualTo(3);
+        assertThat(outboundBuffers.getQueueDepths()).isEmpty();
+    }
+
+    @Test
+    void conflateLatestKeepsLastMessage() {
+        //given
+        final SessionOutboundBuffers outboundBuffers = new SessionOutboundBuffers(SlowConsumerPolicy.CONFLATE_LATEST, 1);
+        final Sinks.Many<Integer> upstream = Sinks.many().multicast().directBestEffort();
+
+        //test
+        StepVerifier.create(outboundBuffers.apply("1", upstream.asFlux(), closeStatus -> Mono.empty()), 0)
+                .then(() -> Flux.range(0, 5).subscribe(upstream::tryEmitNext))
+                .thenRequest(1)
+                .expectNext(4)
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(outboundBuffers.getDropped()).isEqualTo(4);
+    }
+
+    @Test
+    void disconnectClosesSlowSession() {
+        //given
+        final SessionOutboundBuffers outboundBuffers = new SessionOutboundBuffers(SlowConsumerPolicy.DISCONNECT, 2);
+        final Sinks.Many<Integer> upstream = Sinks.many().multicast().directBestEffort();
+        final AtomicReference<CloseStatus> closeStatus = new AtomicReference<>();
+
+        //test
+        StepVerifier.create(outboundBuffers.apply("1", upstream.asFlux(), status -> Mono.fromRunnable(() ->
+                        closeStatus.set(status))), 0)
+                .then(() -> Flux.range(0, 3).subscribe(upstream::tryEmitNext))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(closeStatus.get()).isEqualTo(CloseStatus.POLICY_VIOLATION);
+        assertThat(outboundBuffers.getDisconnected()).isOne();
+        assertThat(outboundBuffers.getQueueDepths()).isEmpty();
+    }
+}
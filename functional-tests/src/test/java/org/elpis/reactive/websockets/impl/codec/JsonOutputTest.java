@@ -0,0 +1,48 @@
+package org.elpis.reactive.websockets.impl.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elpis.reactive.websockets.codec.JsonOutput;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonOutputTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void stringsAreEscapedLikeJackson() throws Exception {
+        //given
+        final String value = "\"quoted\" \\ \n\r\t\b\f \u0001 é € 😀";
+
+        //test
+        final String result = this.write(output -> output.string(value));
+
+        //verify
+        assertThat(this.objectMapper.readValue(result, String.class)).isEqualTo(value);
+        assertThat(result).isEqualTo(this.objectMapper.writeValueAsString(value));
+    }
+
+    @Test
+    void numbersAreWrittenLikeJackson() throws Exception {
+        //verify
+        assertThat(this.write(output -> output.number(42L))).isEqualTo(this.objectMapper.writeValueAsString(42L));
+        assertThat(this.write(output -> output.number(0.1d))).isEqualTo(this.objectMapper.writeValueAsString(0.1d));
+        assertThat(this.write(output -> output.number(new BigDecimal("1.10"))))
+                .isEqualTo(this.objectMapper.writeValueAsString(new BigDecimal("1.10")));
+        assertThat(this.write(output -> output.number(Double.NaN)))
+                .isEqualTo(this.objectMapper.writeValueAsString(Double.NaN));
+        assertThat(this.write(output -> output.number((Number) null))).isEqualTo("null");
+    }
+
+    private String write(final java.util.function.Consumer<JsonOutput> writer) {
+        final DataBuffer dataBuffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(16);
+        writer.accept(new JsonOutput(dataBuffer));
+
+        return dataBuffer.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,217 @@
+package org.elpis.reactive.websockets.impl.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.codec.JsonWebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.codec.CodecResource;
+import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, CodecResource.class})
+class WebSocketCodecTest extends BaseWebSocketTest {
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private WebSocketCodecRegistry codecRegistry;
+
+    @Test
+    void jsonIsUsedByDefault() throws Exception {
+        //test
+        final Received received = this.receive(List.of());
+
+        //verify
+        assertThat(received.subProtocol()).isNull();
+        assertThat(received.type()).isEqualTo(WebSocketMessage.Type.TEXT);
+        assertThat(new ObjectMapper().readValue(received.payload(), MAP_TYPE)).containsEntry("value", 42);
+    }
+
+    @Test
+    void unknownSubProtocolFallsBackToDefaultCodec() {
+        //given
+        final WebSocketCodecRegistry codecRegistry = new WebSocketCodecRegistry();
+
+        //verify
+        assertThat(codecRegistry.getCodec("xml")).isSameAs(codecRegistry.getDefaultCodec());
+        assertThat(codecRegistry.getCodec(null)).isSameAs(codecRegistry.getDefaultCodec());
+        assertThat(codecRegistry.getDefaultCodec().getMessageType()).isEqualTo(WebSocketMessage.Type.TEXT);
+    }
+
+    @Test
+    void cborSubProtocolProducesBinaryFrames() throws Exception {
+        //test
+        final Received received = this.receive(List.of("cbor", "json"));
+
+        //verify
+        assertThat(received.subProtocol()).isEqualTo("cbor");
+        assertThat(received.type()).isEqualTo(WebSocketMessage.Type.BINARY);
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(received.payload(), MAP_TYPE))
+                .containsEntry("value", 42);
+    }
+
+    @Test
+    void messagePackSubProtocolProducesBinaryFrames() throws Exception {
+        //test
+        final Received received = this.receive(List.of("msgpack"));
+
+        //verify
+        assertThat(received.subProtocol()).isEqualTo("msgpack");
+        assertThat(received.type()).isEqualTo(WebSocketMessage.Type.BINARY);
+        assertThat(new ObjectMapper(new MessagePackFactory()).readValue(received.payload(), MAP_TYPE))
+                .containsEntry("value", 42);
+    }
+
+    @Test
+    void cborMessagesAreDecoded() throws Exception {
+        //given
+        final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        final byte[] payload = cborMapper.writeValueAsBytes(Map.of("value", 7));
+
+        //test
+        final Received received = this.receive("/codec/echo", List.of("cbor"), payload);
+
+        //verify
+        assertThat(received.type()).isEqualTo(WebSocketMessage.Type.BINARY);
+        assertThat(cborMapper.readValue(received.payload(), MAP_TYPE)).containsEntry("value", 7);
+    }
+
+    @Test
+    void jsonCodecUsesApplicationObjectMapper() {
+        //given
+        final Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        //test
+        final DataBuffer encoded = this.codecRegistry.getDefaultCodec()
+                .encode(Map.of("instant", instant), DefaultDataBufferFactory.sharedInstance);
+
+        //verify
+        assertThat(encoded.toString(StandardCharsets.UTF_8)).isEqualTo("{\"instant\":\"2024-01-01T00:00:00Z\"}");
+    }
+
+    @Test
+    void jsonCodecsDoNotShareMappers() {
+        //given
+        final JsonWebSocketCodec defaultCodec = new JsonWebSocketCodec();
+        final JsonWebSocketCodec sortedCodec = new JsonWebSocketCodec(new ObjectMapper()
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true));
+        final Map<String, Integer> payload = new LinkedHashMap<>();
+        payload.put("b", 2);
+        payload.put("a", 1);
+
+        //test
+        final String sorted = sortedCodec.encode(payload, DefaultDataBufferFactory.sharedInstance)
+                .toString(StandardCharsets.UTF_8);
+        final String unsorted = defaultCodec.encode(payload, DefaultDataBufferFactory.sharedInstance)
+                .toString(StandardCharsets.UTF_8);
+
+        //verify
+        assertThat(sorted).isEqualTo("{\"a\":1,\"b\":2}");
+        assertThat(unsorted).isEqualTo("{\"b\":2,\"a\":1}");
+    }
+
+    @Test
+    void binaryCodecsFollowApplicationJacksonConfiguration() {
+        //given
+        final WebSocketCodec cborCodec = this.codecRegistry.getCodec("cbor");
+        final Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        //test
+        final DataBuffer encoded = cborCodec.encode(Map.of("instant", instant), DefaultDataBufferFactory.sharedInstance);
+        final Map<String, Object> decoded = cborCodec.decode(encoded, MAP_TYPE.getType());
+
+        //verify
+        assertThat(cborCodec.getSubProtocol()).isEqualTo("cbor");
+        assertThat(decoded).containsEntry("instant", "2024-01-01T00:00:00Z");
+    }
+
+    @Test
+    void generatedSerializerMatchesJackson() throws Exception {
+        //given
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final CodecResource.Quote quote = Flux.from(new CodecResource().generated()).blockFirst();
+
+        //test
+        final Received received = this.receive("/codec/generated", List.of(), null);
+
+        //verify
+        assertThat(received.type()).isEqualTo(WebSocketMessage.Type.TEXT);
+        assertThat(objectMapper.readTree(received.payload()))
+                .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(quote)));
+    }
+
+    private Received receive(final List<String> subProtocols) throws Exception {
+        return this.receive("/codec/payload", subProtocols, null);
+    }
+
+    private Received receive(final String path, final List<String> subProtocols, final byte[] payload) throws Exception {
+        final URI uri = this.getUrl(path);
+        final AtomicReference<Received> received = new AtomicReference<>();
+
+        final WebSocketHandler handler = new WebSocketHandler() {
+            @Override
+            public List<String> getSubProtocols() {
+                return subProtocols;
+            }
+
+            @Override
+            public Mono<Void> handle(final WebSocketSession session) {
+                final Mono<Void> send = payload != null
+                        ? session.send(Mono.just(session.binaryMessage(factory -> factory.wrap(payload))))
+                        : Mono.empty();
+
+                return send.then(session.receive()
+                        .next()
+                        .doOnNext(message -> received.set(new Received(session.getHandshakeInfo().getSubProtocol(),
+                                message.getType(), this.toBytes(message.getPayload())))))
+                        .then();
+            }
+
+            private byte[] toBytes(final DataBuffer dataBuffer) {
+                final byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                dataBuffer.read(bytes);
+
+                return bytes;
+            }
+        };
+
+        StepVerifier.create(new ReactorNettyWebSocketClient().execute(uri, handler))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        return received.get();
+    }
+
+    private record Received(String subProtocol, WebSocketMessage.Type type, byte[] payload) {
+    }
+}
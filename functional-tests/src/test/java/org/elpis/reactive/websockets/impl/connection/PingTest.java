@@ -4,26 +4,37 @@ import org.elpis.reactive.websockets.BaseWebSocketTest;
 import org.elpis.reactive.websockets.context.BootStarter;
 import org.elpis.reactive.websockets.context.resource.connection.PingResource;
 import org.elpis.reactive.websockets.context.resource.connection.PingRoutingConfiguration;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.WebsocketClientSpec;
 import reactor.test.StepVerifier;
 
+import java.net.URI;
 import java.time.Duration;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
 @ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
 @Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, PingResource.class, PingRoutingConfiguration.class})
 public class PingTest extends BaseWebSocketTest {
 
+    @Autowired
+    private WebSocketHeartbeatScheduler heartbeatScheduler;
+
     @Test
     void ping() throws Exception {
         //given
@@ -54,4 +65,68 @@ public class PingTest extends BaseWebSocketTest {
         assertThat(pongs)
                 .hasPositiveValue();
     }
+
+    @Test
+    void serverPingsAreScheduledPerSession() throws Exception {
+        //given
+        final String path = "/connection/ping";
+        final long sentBefore = this.heartbeatScheduler.getSentPings();
+
+        //test
+        final Mono<Void> chain = this.withClient(path, session -> session.receive()
+                        .take(Duration.ofMillis(2500L))
+                        .then())
+                .timeout(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        //verify
+        StepVerifier.create(chain)
+                .verifyComplete();
+
+        assertThat(this.heartbeatScheduler.getSentPings())
+                .isGreaterThan(sentBefore);
+
+        await().atMost(DEFAULT_FAST_TEST_FALLBACK)
+                .until(() -> this.heartbeatScheduler.getPendingPings() == 0);
+    }
+
+    @Test
+    void pongsAreCorrelatedWithPings() throws Exception {
+        //given
+        final long samplesBefore = this.heartbeatScheduler.getRoundTripTimes().getCount();
+
+        //test
+        final Mono<Void> chain = this.withClient("/connection/ping/fast", session -> session.receive()
+                        .take(Duration.ofMillis(1000L))
+                        .then())
+                .timeout(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        //verify
+        StepVerifier.create(chain)
+                .verifyComplete();
+
+        assertThat(this.heartbeatScheduler.getRoundTripTimes().getCount())
+                .isGreaterThan(samplesBefore);
+    }
+
+    @Test
+    void silentPeerIsClosed() throws Exception {
+        //given
+        final ReactorNettyWebSocketClient client = new ReactorNettyWebSocketClient(HttpClient.create(),
+                () -> WebsocketClientSpec.builder().handlePing(true));
+
+        final URI url = this.getUrl("/connection/ping/fast");
+
+        //test
+        final Mono<CloseStatus> closeStatus = Mono.create(sink -> client.execute(url,
+                        session -> session.receive()
+                                .then(session.closeStatus())
+                                .doOnNext(sink::success)
+                                .then())
+                .subscribe());
+
+        //verify
+        StepVerifier.create(closeStatus.timeout(DEFAULT_GENERIC_TEST_FALLBACK))
+                .expectNextMatches(status -> status.getCode() == CloseStatus.GOING_AWAY.getCode())
+                .verifyComplete();
+    }
 }
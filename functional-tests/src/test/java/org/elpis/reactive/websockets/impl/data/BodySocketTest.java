@@ -137,4 +137,50 @@ class BodySocketTest extends BaseWebSocketTest {
         assertThat(logCaptor.getInfoLogs())
                 .isEmpty();
     }
+
+    @Test
+    void receiveTypedMessage() throws Exception {
+        //given
+        final String path = "/body/post/typed";
+        final Flux<String> data = Flux.just("{\"name\":\"first\"}", "not a greeting", "{\"name\":\"second\"}");
+
+        final Sinks.Many<String> sink = Sinks.many().replay().all();
+
+        //test
+        this.withClient(path, session -> session.send(data.map(session::textMessage))
+                        .thenMany(session.receive()
+                                .map(WebSocketMessage::getPayloadAsText)
+                                .doOnNext(sink::tryEmitNext)
+                                .take(2))
+                        .then())
+                .subscribe();
+
+        //verify
+        StepVerifier.create(sink.asFlux().take(2))
+                .expectNext("Hello, first", "Hello, second")
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
+
+    @Test
+    void receiveTypedListMessage() throws Exception {
+        //given
+        final String path = "/body/post/typed/list";
+        final String data = "[{\"name\":\"first\"},{\"name\":\"second\"}]";
+        final Sinks.One<String> sink = Sinks.one();
+
+        //test
+        this.withClient(path, session -> session.send(Mono.just(session.textMessage(data)))
+                        .thenMany(session.receive()
+                                .doOnNext(webSocketMessage -> sink.tryEmitValue(webSocketMessage.getPayloadAsText()))
+                                .take(1))
+                        .then())
+                .subscribe();
+
+        //verify
+        StepVerifier.create(sink.asMono())
+                .expectNext("2")
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
 }
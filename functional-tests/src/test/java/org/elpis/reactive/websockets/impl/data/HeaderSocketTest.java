@@ -753,4 +753,30 @@ class HeaderSocketTest extends BaseWebSocketTest {
                 .log()
                 .verify(DEFAULT_GENERIC_TEST_FALLBACK);
     }
+
+    @Test
+    void getWithClashingNamesTest() throws Exception {
+        //given
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add("id", "header");
+        headers.add("ids", "first");
+        headers.add("ids", "second");
+
+        final String path = "/header/clashing/get/header?id=param&value=value";
+        final Sinks.One<String> sink = Sinks.one();
+
+        //expected
+        final String expected = "{\"header\":\"param_header_first_second_value\"}";
+
+        //test
+        this.withClient(path, headers, (session) -> session.receive().map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(value -> sink.tryEmitValue(value.replaceAll(" ", "")))
+                .then()).subscribe();
+
+        //verify
+        StepVerifier.create(sink.asMono())
+                .expectNext(expected)
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
 }
@@ -595,4 +595,67 @@ class QueryParameterSocketTest extends BaseWebSocketTest {
                 .log()
                 .verify(DEFAULT_GENERIC_TEST_FALLBACK);
     }
+
+    @Test
+    void getDefaultNumericQueryTest() throws Exception {
+        //given
+        final String path = "/query/single/get/default/numeric";
+        final Sinks.One<String> sink = Sinks.one();
+
+        //expected
+        final String expected = "{\"query\":42}";
+
+        //test
+        this.withClient(path, (session) -> session.receive().map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(value -> sink.tryEmitValue(value.replaceAll(" ", "")))
+                .then()).subscribe();
+
+        //verify
+        StepVerifier.create(sink.asMono())
+                .expectNext(expected)
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
+
+    @Test
+    void getDefaultEnumQueryTest() throws Exception {
+        //given
+        final String path = "/query/single/get/default/enum";
+        final Sinks.One<String> sink = Sinks.one();
+
+        //expected
+        final String expected = "{\"query\":\"VOID\"}";
+
+        //test
+        this.withClient(path, (session) -> session.receive().map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(value -> sink.tryEmitValue(value.replaceAll(" ", "")))
+                .then()).subscribe();
+
+        //verify
+        StepVerifier.create(sink.asMono())
+                .expectNext(expected)
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
+
+    @Test
+    void getNumericListQueryTest() throws Exception {
+        //given
+        final String path = "/query/single/get/list/numeric?ids=1&ids=2&ids=39";
+        final Sinks.One<String> sink = Sinks.one();
+
+        //expected
+        final String expected = "{\"query\":42}";
+
+        //test
+        this.withClient(path, (session) -> session.receive().map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(value -> sink.tryEmitValue(value.replaceAll(" ", "")))
+                .then()).subscribe();
+
+        //verify
+        StepVerifier.create(sink.asMono())
+                .expectNext(expected)
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
 }
@@ -6,7 +6,9 @@ import org.elpis.reactive.websockets.context.resource.data.SessionResource;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
@@ -74,4 +76,28 @@ public class SessionTest extends BaseWebSocketTest {
                 .log()
                 .verify(DEFAULT_GENERIC_TEST_FALLBACK);
     }
+
+    @Test
+    void generatedIdWithoutWebSession() throws Exception {
+        //given
+        final String path = "/session/required";
+        final Sinks.One<String> sink = Sinks.one();
+        final Sinks.One<Boolean> cookie = Sinks.one();
+
+        //test
+        this.withClient(path, session -> {
+                    cookie.tryEmitValue(session.getHandshakeInfo().getHeaders().containsKey(HttpHeaders.SET_COOKIE));
+
+                    return session.receive()
+                            .doOnNext(webSocketMessage -> sink.tryEmitValue(webSocketMessage.getPayloadAsText()))
+                            .then();
+                })
+                .subscribe();
+
+        //verify
+        StepVerifier.create(Mono.zip(sink.asMono(), cookie.asMono()))
+                .expectNextMatches(received -> received.getT1().matches("[0-9A-HJKMNP-TV-Z]{13}") && !received.getT2())
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
 }
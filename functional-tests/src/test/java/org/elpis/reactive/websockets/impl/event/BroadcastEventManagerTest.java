@@ -0,0 +1,139 @@
+package org.elpis.reactive.websockets.impl.event;
+
+import org.elpis.reactive.websockets.event.manager.EventManagers;
+import org.elpis.reactive.websockets.event.manager.impl.BroadcastEventManager;
+import org.elpis.reactive.websockets.event.manager.impl.BroadcastEventManager.OverflowPolicy;
+import org.elpis.reactive.websockets.event.model.impl.SessionConnectedEvent;
+import org.elpis.reactive.websockets.session.ReactiveWebSocketSession;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BroadcastEventManagerTest {
+
+    @Test
+    void concurrentProducersReachAllListeners() throws Exception {
+        //given
+        final BroadcastEventManager<SessionConnectedEvent> eventManager = EventManagers.broadcast(64,
+                OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+        final Queue<SessionConnectedEvent> first = new ConcurrentLinkedQueue<>();
+        final Queue<SessionConnectedEvent> second = new ConcurrentLinkedQueue<>();
+
+        final Disposable firstListener = eventManager.asFlux().subscribe(first::add);
+        final Disposable secondListener = eventManager.asFlux().subscribe(second::add);
+
+        final ExecutorService producers = Executors.newFixedThreadPool(4);
+        final CountDownLatch done = new CountDownLatch(4);
+
+        //test
+        for (int producer = 0; producer < 4; producer++) {
+            producers.execute(() -> {
+                IntStream.range(0, 1000).forEach(i -> eventManager.fire(event("id-" + i)));
+                done.countDown();
+            });
+        }
+
+        //verify
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(first).hasSize(4000);
+        assertThat(second).hasSize(4000);
+        assertThat(eventManager.getEmitted()).isEqualTo(4000);
+        assertThat(eventManager.getDelivered()).isEqualTo(8000);
+        assertThat(eventManager.getDropped()).isZero();
+
+        firstListener.dispose();
+        secondListener.dispose();
+        producers.shutdown();
+
+        assertThat(eventManager.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void slowListenerLosesOldestEvents() {
+        //given
+        final BroadcastEventManager<SessionConnectedEvent> eventManager = EventManagers.broadcast(2);
+
+        //test
+        final StepVerifier verifier = StepVerifier.create(eventManager.asFlux(), 0)
+                .then(() -> assertThat(List.of("1", "2", "3", "4").stream().map(id -> eventManager.fire(event(id))))
+                        .containsExactly(Sinks.EmitResult.OK, Sinks.EmitResult.OK, Sinks.EmitResult.FAIL_OVERFLOW,
+                                Sinks.EmitResult.FAIL_OVERFLOW))
+                .thenRequest(2)
+                .assertNext(event -> assertThat(event.payload().getSessionId()).isEqualTo("3"))
+                .assertNext(event -> assertThat(event.payload().getSessionId()).isEqualTo("4"))
+                .thenCancel();
+
+        //verify
+        verifier.verify(Duration.ofSeconds(5));
+        assertThat(eventManager.getDropped()).isEqualTo(2);
+        assertThat(eventManager.getDelivered()).isEqualTo(2);
+    }
+
+    @Test
+    void failPolicyReportsOverflow() {
+        //given
+        final BroadcastEventManager<SessionConnectedEvent> eventManager = EventManagers.broadcast(1,
+                OverflowPolicy.FAIL, Duration.ZERO);
+        final BaseSubscriber<SessionConnectedEvent> listener = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(final org.reactivestreams.Subscription subscription) {
+                //no demand
+            }
+        };
+
+        //test & verify
+        assertThat(eventManager.fire(event("1"))).isEqualTo(Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER);
+
+        eventManager.asFlux().subscribe(listener);
+
+        assertThat(eventManager.fire(event("2"))).isEqualTo(Sinks.EmitResult.OK);
+        assertThat(eventManager.fire(event("3"))).isEqualTo(Sinks.EmitResult.FAIL_OVERFLOW);
+        assertThat(eventManager.getQueued()).isEqualTo(1);
+        assertThat(eventManager.getDropped()).isEqualTo(2);
+
+        listener.dispose();
+    }
+
+    @Test
+    void blockPolicyGivesUpAfterTimeout() {
+        //given
+        final BroadcastEventManager<SessionConnectedEvent> eventManager = EventManagers.broadcast(1,
+                OverflowPolicy.BLOCK, Duration.ofMillis(50));
+
+        StepVerifier.create(eventManager.asFlux(), 0)
+                .then(() -> {
+                    //test
+                    assertThat(eventManager.fire(event("1"))).isEqualTo(Sinks.EmitResult.OK);
+                    assertThat(eventManager.fire(event("2"))).isEqualTo(Sinks.EmitResult.FAIL_OVERFLOW);
+                })
+                .thenRequest(1)
+                .assertNext(event -> assertThat(event.payload().getSessionId()).isEqualTo("1"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        //verify
+        assertThat(eventManager.getDropped()).isEqualTo(1);
+    }
+
+    private static SessionConnectedEvent event(final String sessionId) {
+        return SessionConnectedEvent.builder()
+                .webSocketSessionInfo(ReactiveWebSocketSession.builder()
+                        .sessionId(sessionId)
+                        .build())
+                .build();
+    }
+}
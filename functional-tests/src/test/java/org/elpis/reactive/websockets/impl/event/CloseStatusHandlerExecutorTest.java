@@ -0,0 +1,107 @@
+package org.elpis.reactive.websockets.impl.event;
+
+import org.elpis.reactive.websockets.event.executor.CloseStatusHandlerExecutor;
+import org.elpis.reactive.websockets.event.executor.CloseStatusHandlerExecutor.Mode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class CloseStatusHandlerExecutorTest {
+
+    @Test
+    void callerModeRunsInline() {
+        //given
+        final CloseStatusHandlerExecutor executor = new CloseStatusHandlerExecutor(Mode.CALLER);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+
+        //test
+        executor.execute(() -> thread.set(Thread.currentThread()));
+        executor.execute(() -> {
+            throw new IllegalStateException("Expected");
+        });
+
+        //verify
+        assertThat(thread.get()).isSameAs(Thread.currentThread());
+        assertThat(executor.getCompletedTasks()).isEqualTo(1);
+        assertThat(executor.getFailedTasks()).isEqualTo(1);
+        assertThat(executor.getExecutionTimes().getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void blockingHandlerDoesNotHoldBackOthers() throws Exception {
+        //given
+        final CloseStatusHandlerExecutor executor = new CloseStatusHandlerExecutor(Mode.BOUNDED_ELASTIC, 4, 100,
+                Duration.ofSeconds(5));
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch others = new CountDownLatch(10);
+
+        try {
+            //test
+            executor.execute(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            for (int i = 0; i < 10; i++) {
+                executor.execute(others::countDown);
+            }
+
+            //verify
+            assertThat(others.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.getQueueTimes().getCount()).isGreaterThanOrEqualTo(10);
+        } finally {
+            blocked.countDown();
+            executor.dispose();
+        }
+    }
+
+    @Test
+    void disposeWaitsForQueuedTasks() {
+        //given
+        final CloseStatusHandlerExecutor executor = new CloseStatusHandlerExecutor(Mode.BOUNDED_ELASTIC, 1, 100,
+                Duration.ofSeconds(5));
+        final AtomicInteger done = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.incrementAndGet();
+            });
+        }
+
+        //test
+        executor.dispose();
+        executor.execute(done::incrementAndGet);
+
+        //verify
+        assertThat(done.get()).isEqualTo(5);
+        assertThat(executor.getPendingTasks()).isZero();
+        assertThat(executor.getRejectedTasks()).isEqualTo(1);
+        assertThat(executor.isDisposed()).isTrue();
+    }
+
+    @Test
+    void virtualThreadsRequireSupportingRuntime() {
+        assumeFalse(CloseStatusHandlerExecutor.isVirtualThreadsSupported());
+
+        //verify
+        assertThatThrownBy(() -> new CloseStatusHandlerExecutor(Mode.VIRTUAL_THREADS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new CloseStatusHandlerExecutor().getMode()).isEqualTo(Mode.BOUNDED_ELASTIC);
+    }
+}
@@ -0,0 +1,147 @@
+package org.elpis.reactive.websockets.impl.event;
+
+import org.elpis.reactive.websockets.config.SessionCloseInfo;
+import org.elpis.reactive.websockets.config.WebSocketCloseStatus;
+import org.elpis.reactive.websockets.config.event.ClosedConnectionHandlerConfiguration;
+import org.elpis.reactive.websockets.config.event.ClosedConnectionHandlerConfiguration.ClosedEventHandlers;
+import org.elpis.reactive.websockets.event.annotation.CloseStatusHandler;
+import org.elpis.reactive.websockets.event.annotation.EventSelector;
+import org.elpis.reactive.websockets.event.annotation.SessionCloseStatus;
+import org.elpis.reactive.websockets.event.model.WebSocketEvent;
+import org.elpis.reactive.websockets.event.model.impl.ClientSessionClosedEvent;
+import org.elpis.reactive.websockets.exception.WebSocketConfigurationException;
+import org.elpis.reactive.websockets.session.ReactiveWebSocketSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.web.reactive.socket.CloseStatus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClosedEventHandlersTest {
+    private GenericApplicationContext context;
+
+    @BeforeEach
+    void before() {
+        context = new GenericApplicationContext();
+    }
+
+    @AfterEach
+    void after() {
+        context.close();
+    }
+
+    @Test
+    void dispatchesByCodeWithAllHandlersLast() {
+        //given
+        context.registerBean(Handlers.class);
+        context.refresh();
+
+        final Handlers handlers = context.getBean(Handlers.class);
+        final ClosedEventHandlers closedEventHandlers = new ClosedConnectionHandlerConfiguration().closedEventHandlers(context);
+
+        //test
+        closedEventHandlers.dispatch(event("1", CloseStatus.GOING_AWAY));
+        closedEventHandlers.dispatch(event("2", CloseStatus.POLICY_VIOLATION));
+        closedEventHandlers.dispatch(event("3", new CloseStatus(4567)));
+        closedEventHandlers.dispatch(event("selected", CloseStatus.GOING_AWAY));
+
+        //verify - handlers of the same code are called in declaration order, which reflection doesn't define
+        assertThat(handlers.calls.subList(0, 5)).containsExactly("goingAway:1", "all:1", "policyViolation", "all:2", "all:3");
+        assertThat(handlers.calls.subList(5, 7)).containsExactlyInAnyOrder("goingAway:selected", "selected:selected");
+        assertThat(handlers.calls.get(7)).isEqualTo("all:selected");
+
+        assertThat(closedEventHandlers.get(4567)).hasSize(1);
+        assertThat(closedEventHandlers.get(999)).hasSize(1);
+    }
+
+    @Test
+    void invalidParameterTypeIsRejected() {
+        //given
+        context.registerBean(InvalidHandlers.class);
+        context.refresh();
+
+        //verify
+        assertThatThrownBy(() -> new ClosedConnectionHandlerConfiguration().closedEventHandlers(context))
+                .isInstanceOf(WebSocketConfigurationException.class);
+    }
+
+    @Test
+    void handlerExceptionDoesNotBreakDispatch() {
+        //given
+        context.registerBean(FailingHandlers.class);
+        context.refresh();
+
+        final FailingHandlers handlers = context.getBean(FailingHandlers.class);
+        final ClosedEventHandlers closedEventHandlers = new ClosedConnectionHandlerConfiguration().closedEventHandlers(context);
+
+        //test
+        closedEventHandlers.dispatch(event("1", CloseStatus.NORMAL));
+
+        //verify
+        assertThat(handlers.calls).containsExactly("all:1");
+    }
+
+    private static ClientSessionClosedEvent event(final String sessionId, final CloseStatus closeStatus) {
+        return new ClientSessionClosedEvent(SessionCloseInfo.builder()
+                .session(ReactiveWebSocketSession.builder()
+                        .sessionId(sessionId)
+                        .build())
+                .closeStatus(closeStatus)
+                .build());
+    }
+
+    @CloseStatusHandler
+    public static class Handlers {
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @SessionCloseStatus(WebSocketCloseStatus.ALL)
+        public void all(final WebSocketEvent<SessionCloseInfo> event) {
+            calls.add("all:" + event.payload().getSession().getSessionId());
+        }
+
+        @SessionCloseStatus(WebSocketCloseStatus.GOING_AWAY)
+        public String goingAway(final ClientSessionClosedEvent event) {
+            calls.add("goingAway:" + event.payload().getSession().getSessionId());
+            return "ignored";
+        }
+
+        @SessionCloseStatus(WebSocketCloseStatus.GOING_AWAY)
+        @EventSelector("session.sessionId eq 'selected'")
+        public void selected(final ClientSessionClosedEvent event) {
+            calls.add("selected:" + event.payload().getSession().getSessionId());
+        }
+
+        @SessionCloseStatus(WebSocketCloseStatus.POLICY_VIOLATION)
+        public void policyViolation() {
+            calls.add("policyViolation");
+        }
+    }
+
+    @CloseStatusHandler
+    public static class InvalidHandlers {
+        @SessionCloseStatus(WebSocketCloseStatus.ALL)
+        public void all(final String event) {
+        }
+    }
+
+    @CloseStatusHandler
+    public static class FailingHandlers {
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @SessionCloseStatus(WebSocketCloseStatus.NORMAL)
+        public void failing() throws Exception {
+            throw new Exception("Expected");
+        }
+
+        @SessionCloseStatus(WebSocketCloseStatus.ALL)
+        public void all(final ClientSessionClosedEvent event) {
+            calls.add("all:" + event.payload().getSession().getSessionId());
+        }
+    }
+}
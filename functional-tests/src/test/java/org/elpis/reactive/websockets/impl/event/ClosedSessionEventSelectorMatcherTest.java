@@ -103,4 +103,45 @@ class ClosedSessionEventSelectorMatcherTest {
         Assertions.assertThrows(SpelEvaluationException.class, () -> eventSelectorMatcher.process(event, eventSelector));
     }
 
+    @Test
+    void testSelectExpressionIsCached() {
+        //given
+        final String expression = "session.sessionId matches '" + ID + "'";
+
+        //test
+        final Object first = eventSelectorMatcher.getExpression(expression);
+        final Object second = eventSelectorMatcher.getExpression(expression);
+
+        //assert
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    void testSelectRepeatedEvaluation() {
+        //given
+        final ReactiveWebSocketSession matching = ReactiveWebSocketSession.builder()
+                .sessionId(ID)
+                .build();
+
+        final ReactiveWebSocketSession other = ReactiveWebSocketSession.builder()
+                .sessionId(UUID.randomUUID().toString())
+                .build();
+
+        final ClientSessionClosedEvent matchingEvent = new ClientSessionClosedEvent(SessionCloseInfo.builder()
+                .session(matching)
+                .build());
+
+        final ClientSessionClosedEvent otherEvent = new ClientSessionClosedEvent(SessionCloseInfo.builder()
+                .session(other)
+                .build());
+
+        //mock
+        when(eventSelector.value()).thenReturn("session.sessionId eq '" + ID + "'");
+
+        //test & assert - enough evaluations to get the expression compiled in mixed mode
+        for (int i = 0; i < 200; i++) {
+            assertTrue(eventSelectorMatcher.process(matchingEvent, eventSelector));
+            assertFalse(eventSelectorMatcher.process(otherEvent, eventSelector));
+        }
+    }
 }
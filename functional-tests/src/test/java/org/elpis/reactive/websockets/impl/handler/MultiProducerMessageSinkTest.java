@@ -0,0 +1,141 @@
+package org.elpis.reactive.websockets.impl.handler;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.elpis.reactive.websockets.handler.MultiProducerMessageSink;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.util.concurrent.Queues;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiProducerMessageSinkTest {
+    private static final int PRODUCERS = 8;
+    private static final int MESSAGES = 50_000;
+
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        //given
+        final MultiProducerMessageSink sink = new MultiProducerMessageSink();
+        final LongAdder consumed = new LongAdder();
+        sink.asFlux().subscribe(message -> consumed.increment());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        //test
+        IntStream.range(0, PRODUCERS).forEach(producer -> executor.submit(() -> {
+            start.await();
+            IntStream.range(0, MESSAGES).forEach(i -> sink.emit(this.message(producer + "-" + i)));
+
+            return null;
+        }));
+
+        start.countDown();
+        executor.shutdown();
+
+        //verify
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(consumed.sum()).isEqualTo((long) PRODUCERS * MESSAGES);
+        assertThat(sink.getReceivedCount()).isEqualTo((long) PRODUCERS * MESSAGES);
+        assertThat(sink.getEmittedCount()).isEqualTo((long) PRODUCERS * MESSAGES);
+        assertThat(sink.getDroppedCount()).isZero();
+        assertThat(sink.getPendingCount()).isZero();
+    }
+
+    @Test
+    void laggingSubscriberDoesNotStallOthers() {
+        //given
+        final MultiProducerMessageSink sink = new MultiProducerMessageSink();
+        final int overflow = 10;
+        final int bufferSize = Queues.SMALL_BUFFER_SIZE;
+        final LongAdder consumed = new LongAdder();
+
+        sink.asFlux().subscribe(message -> consumed.increment());
+        sink.asFlux().subscribe(new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(final Subscription subscription) {
+                // no demand, every message stays buffered for this subscriber
+            }
+        });
+
+        //test
+        IntStream.range(0, bufferSize + overflow).forEach(i -> sink.emit(this.message(String.valueOf(i))));
+
+        //verify
+        assertThat(consumed.sum()).isEqualTo(bufferSize + overflow);
+        assertThat(sink.getEmittedCount()).isEqualTo(bufferSize + overflow);
+        assertThat(sink.getDroppedCount()).isEqualTo(overflow);
+    }
+
+    @Test
+    void messagesWithoutSubscribersAreDropped() {
+        //given
+        final MultiProducerMessageSink sink = new MultiProducerMessageSink();
+        final List<String> consumed = new CopyOnWriteArrayList<>();
+
+        sink.asFlux().take(1).subscribe();
+        sink.emit(this.message("first"));
+
+        //test
+        sink.emit(this.message("unconsumed"));
+        sink.asFlux().map(WebSocketMessage::getPayloadAsText).subscribe(consumed::add);
+        sink.emit(this.message("second"));
+
+        //verify
+        assertThat(consumed).containsExactly("second");
+        assertThat(sink.getEmittedCount()).isEqualTo(2);
+        assertThat(sink.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void payloadOutlivesTransportBuffer() {
+        //given
+        final MultiProducerMessageSink sink = new MultiProducerMessageSink();
+        final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+        final Flux<String> consumed = sink.asFlux()
+                .publishOn(Schedulers.single())
+                .map(WebSocketMessage::getPayloadAsText)
+                .take(2)
+                .cache();
+        consumed.subscribe();
+
+        //test
+        List.of("first", "second").forEach(payload -> {
+            final WebSocketMessage message = new WebSocketMessage(WebSocketMessage.Type.TEXT,
+                    bufferFactory.wrap(payload.getBytes(StandardCharsets.UTF_8)));
+
+            sink.emit(message);
+            message.release();
+        });
+
+        //verify
+        StepVerifier.create(consumed)
+                .expectNext("first", "second")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private WebSocketMessage message(final String payload) {
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT,
+                DefaultDataBufferFactory.sharedInstance.wrap(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,94 @@
+package org.elpis.reactive.websockets.impl.handler;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.elpis.reactive.websockets.codec.JsonWebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodec;
+import org.elpis.reactive.websockets.handler.SharedPayloadEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedPayloadEncoderTest {
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final WebSocketCodec codec = new JsonWebSocketCodec();
+
+    @Test
+    void sharedPayloadIsEncodedOnce() {
+        //given
+        final SharedPayloadEncoder encoder = new SharedPayloadEncoder();
+        final Object payload = encoder.share(Flux.just(Map.of("test", "test"))).blockFirst();
+
+        //test
+        final WebSocketMessage first = encoder.encode(this.bufferFactory, this.codec, payload).block();
+        final WebSocketMessage second = encoder.encode(this.bufferFactory, this.codec, payload).block();
+
+        //verify
+        assertThat(first.getPayloadAsText()).isEqualTo("{\"test\":\"test\"}");
+        assertThat(second.getPayloadAsText()).isEqualTo("{\"test\":\"test\"}");
+        assertThat(encoder.getEncodedCount()).isOne();
+        assertThat(encoder.getSharedCount()).isOne();
+        assertThat(SharedPayloadEncoder.unwrap(payload)).isEqualTo(Map.of("test", "test"));
+
+        first.release();
+        second.release();
+    }
+
+    @Test
+    void mutatedPayloadIsEncodedAgain() {
+        //given
+        final SharedPayloadEncoder encoder = new SharedPayloadEncoder();
+        final Map<String, Integer> payload = new HashMap<>();
+
+        //test
+        final List<String> sent = encoder.share(Flux.range(1, 2).map(i -> {
+                    payload.put("value", i);
+                    return payload;
+                }))
+                .concatMap(shared -> encoder.encode(this.bufferFactory, this.codec, shared))
+                .map(WebSocketMessage::getPayloadAsText)
+                .collectList()
+                .block();
+
+        //verify
+        assertThat(sent).containsExactly("{\"value\":1}", "{\"value\":2}");
+        assertThat(encoder.getEncodedCount()).isEqualTo(2);
+        assertThat(encoder.getSharedCount()).isZero();
+    }
+
+    @Test
+    void unsharedPayloadIsEncodedPerSession() {
+        //given
+        final SharedPayloadEncoder encoder = new SharedPayloadEncoder();
+        final Map<String, String> payload = Map.of("test", "test");
+
+        //test
+        final WebSocketMessage first = encoder.encode(this.bufferFactory, this.codec, payload).block();
+        final WebSocketMessage second = encoder.encode(this.bufferFactory, this.codec, payload).block();
+
+        //verify
+        assertThat(second.getPayloadAsText()).isEqualTo(first.getPayloadAsText());
+        assertThat(encoder.getEncodedCount()).isEqualTo(2);
+        assertThat(encoder.getSharedCount()).isZero();
+
+        first.release();
+        second.release();
+    }
+
+    @Test
+    void unmappablePayloadIsSkipped() {
+        //given
+        final SharedPayloadEncoder encoder = new SharedPayloadEncoder();
+        final Object payload = encoder.share(Flux.just(new Object())).blockFirst();
+
+        //verify
+        assertThat(encoder.encode(this.bufferFactory, this.codec, payload).blockOptional()).isEmpty();
+        assertThat(encoder.getEncodedCount()).isZero();
+    }
+}
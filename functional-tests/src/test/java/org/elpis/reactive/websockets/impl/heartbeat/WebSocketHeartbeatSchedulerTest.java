@@ -0,0 +1,157 @@
+package org.elpis.reactive.websockets.impl.heartbeat;
+
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeat;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class WebSocketHeartbeatSchedulerTest {
+    private static final int SESSIONS = 10_000;
+
+    private final WebSocketHeartbeatScheduler scheduler = new WebSocketHeartbeatScheduler(Duration.ofMillis(10), 8, 2);
+
+    @AfterEach
+    void tearDown() {
+        this.scheduler.dispose();
+    }
+
+    @Test
+    void pingsAllSessionsFromOneTimer() {
+        //given
+        final AtomicLongArray pings = new AtomicLongArray(SESSIONS);
+
+        //test
+        final List<WebSocketHeartbeat> heartbeats = IntStream.range(0, SESSIONS)
+                .mapToObj(session -> this.scheduler.schedule(Duration.ofMillis(50), () -> pings.incrementAndGet(session)))
+                .toList();
+
+        //verify
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> IntStream.range(0, SESSIONS).allMatch(session -> pings.get(session) >= 2));
+
+        assertThat(this.scheduler.getPendingPings()).isEqualTo(SESSIONS);
+        assertThat(this.scheduler.getSentPings()).isGreaterThanOrEqualTo(2L * SESSIONS);
+
+        heartbeats.forEach(WebSocketHeartbeat::dispose);
+        assertThat(this.scheduler.getPendingPings()).isZero();
+    }
+
+    @Test
+    void intervalLongerThanWheelWaitsForRounds() {
+        //given
+        final AtomicInteger pings = new AtomicInteger();
+        final long start = System.nanoTime();
+        final AtomicInteger firstPingMillis = new AtomicInteger();
+
+        //test
+        this.scheduler.schedule(Duration.ofMillis(200), () -> {
+            if (pings.getAndIncrement() == 0) {
+                firstPingMillis.set((int) Duration.ofNanos(System.nanoTime() - start).toMillis());
+            }
+        });
+
+        //verify
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> pings.get() > 0);
+
+        assertThat(firstPingMillis.get()).isGreaterThanOrEqualTo(190);
+    }
+
+    @Test
+    void disposedHeartbeatStopsPinging() {
+        //given
+        final AtomicInteger pings = new AtomicInteger();
+        final WebSocketHeartbeat heartbeat = this.scheduler.schedule(Duration.ofMillis(20), pings::incrementAndGet);
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> pings.get() > 0);
+
+        //test
+        heartbeat.dispose();
+        final int sent = pings.get();
+
+        //verify
+        await().pollDelay(Duration.ofMillis(200))
+                .atMost(Duration.ofSeconds(1))
+                .until(() -> pings.get() == sent);
+
+        assertThat(this.scheduler.getTickLag()).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void answeredPingsRecordRoundTripTime() {
+        //given
+        final AtomicReference<WebSocketHeartbeat> heartbeat = new AtomicReference<>();
+        final AtomicInteger deadPeers = new AtomicInteger();
+
+        //test
+        heartbeat.set(this.scheduler.schedule(Duration.ofMillis(20),
+                payload -> assertThat(heartbeat.get().pong(payload)).isTrue(), deadPeers::incrementAndGet));
+
+        //verify
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> this.scheduler.getRoundTripTimes().getCount() >= 5);
+
+        assertThat(deadPeers.get()).isZero();
+        assertThat(heartbeat.get().getMissedPongs()).isZero();
+        assertThat(heartbeat.get().pong(42L)).isFalse();
+        assertThat(this.scheduler.getRoundTripTimes().getPercentile(0.99))
+                .isLessThanOrEqualTo(this.scheduler.getRoundTripTimes().getMax());
+    }
+
+    @Test
+    void pongOfEarlierPingIsAccepted() {
+        //given
+        final AtomicReference<WebSocketHeartbeat> heartbeat = new AtomicReference<>();
+        final AtomicLong previousPing = new AtomicLong();
+        final AtomicInteger acceptedPongs = new AtomicInteger();
+        final AtomicInteger deadPeers = new AtomicInteger();
+
+        //test: every pong arrives only once the next ping has been sent, i.e. round-trip time exceeds the interval
+        heartbeat.set(this.scheduler.schedule(Duration.ofMillis(20), payload -> {
+            final long previous = previousPing.getAndSet(payload);
+            if (previous != 0L && heartbeat.get().pong(previous)) {
+                acceptedPongs.incrementAndGet();
+            }
+        }, deadPeers::incrementAndGet));
+
+        //verify
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> acceptedPongs.get() >= 5);
+
+        assertThat(deadPeers.get()).isZero();
+        assertThat(heartbeat.get().isDisposed()).isFalse();
+        assertThat(heartbeat.get().getRoundTripTime()).isGreaterThanOrEqualTo(Duration.ofMillis(10));
+    }
+
+    @Test
+    void silentPeerIsReportedDead() {
+        //given
+        final AtomicInteger pings = new AtomicInteger();
+        final AtomicInteger deadPeers = new AtomicInteger();
+
+        //test
+        final WebSocketHeartbeat heartbeat = this.scheduler.schedule(Duration.ofMillis(20),
+                payload -> pings.incrementAndGet(), deadPeers::incrementAndGet);
+
+        //verify
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> deadPeers.get() == 1);
+
+        assertThat(pings.get()).isEqualTo(2);
+        assertThat(heartbeat.isDisposed()).isTrue();
+        assertThat(this.scheduler.getDeadPeers()).isOne();
+        assertThat(this.scheduler.getPendingPings()).isZero();
+    }
+}
@@ -0,0 +1,81 @@
+package org.elpis.reactive.websockets.impl.mode;
+
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.mode.SessionModeResource;
+import org.elpis.reactive.websockets.context.resource.mode.SessionModeRoutingConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, SessionModeResource.class, SessionModeRoutingConfiguration.class})
+class SessionModeTest extends BaseWebSocketTest {
+    private static final int MESSAGES = 10;
+
+    @Test
+    void annotatedSessionsAreIsolated() throws Exception {
+        this.verifyIsolation("/mode/session/echo");
+    }
+
+    @Test
+    void routedSessionsAreIsolated() throws Exception {
+        this.verifyIsolation("/mode/session/routing/echo");
+    }
+
+    @Test
+    void lateConsumerReadsIntactPayloads() throws Exception {
+        this.verifyIsolation("/mode/session/echo/late");
+    }
+
+    private void verifyIsolation(final String path) throws URISyntaxException {
+        //given
+        final List<String> first = this.messages("first");
+        final List<String> second = this.messages("second");
+
+        //test
+        final Mono<List<String>> firstReceived = this.echo(path, first);
+        final Mono<List<String>> secondReceived = this.echo(path, second);
+
+        //verify
+        StepVerifier.create(Mono.zip(firstReceived, secondReceived))
+                .expectNextMatches(received -> received.getT1().equals(first) && received.getT2().equals(second))
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
+
+    private Mono<List<String>> echo(final String path, final List<String> data) throws URISyntaxException {
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        return this.withClient(path, session -> Flux.merge(
+                                session.send(Flux.fromIterable(data)
+                                        .delayElements(Duration.ofMillis(50))
+                                        .map(session::textMessage)),
+                                session.receive()
+                                        .map(WebSocketMessage::getPayloadAsText)
+                                        .doOnNext(received::add)
+                                        .take(data.size())
+                                        .then())
+                        .then())
+                .timeout(DEFAULT_FAST_TEST_FALLBACK)
+                .thenReturn(received);
+    }
+
+    private List<String> messages(final String prefix) {
+        return IntStream.range(0, MESSAGES)
+                .mapToObj(i -> prefix + " " + i)
+                .toList();
+    }
+}
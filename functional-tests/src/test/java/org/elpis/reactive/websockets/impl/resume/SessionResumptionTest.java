@@ -0,0 +1,233 @@
+package org.elpis.reactive.websockets.impl.resume;
+
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.resume.ResumableResource;
+import org.elpis.reactive.websockets.exception.WebSocketProcessingException;
+import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.handler.SessionResumption;
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, ResumableResource.class})
+class SessionResumptionTest extends BaseWebSocketTest {
+
+    @Autowired
+    private ResumableResource resource;
+
+    @Autowired
+    private List<BaseWebSocketHandler> handlers;
+
+    @Test
+    void reconnectWithTokenResumesSession() throws Exception {
+        //given
+        final AtomicReference<String> token = new AtomicReference<>();
+        final AtomicReference<String> resumedToken = new AtomicReference<>();
+        final List<Long> first = new CopyOnWriteArrayList<>();
+        final List<Long> second = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(this.withClient("/resume/counter", session -> {
+                    token.set(session.getHandshakeInfo().getHeaders().getFirst(SessionResumption.TOKEN_HEADER));
+
+                    return session.receive()
+                            .map(message -> Long.parseLong(message.getPayloadAsText()))
+                            .doOnNext(first::add)
+                            .take(5)
+                            .then();
+                }))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(SessionResumption.TOKEN_HEADER, token.get());
+
+        //test
+        StepVerifier.create(Flux.from(this.withClient("/resume/counter", headers, session -> {
+                            resumedToken.set(session.getHandshakeInfo().getHeaders().getFirst(SessionResumption.TOKEN_HEADER));
+
+                            return session.receive()
+                                    .map(WebSocketMessage::getPayloadAsText)
+                                    .map(Long::parseLong)
+                                    .doOnNext(second::add)
+                                    .take(10)
+                                    .then();
+                        }))
+                        .delaySubscription(Duration.ofMillis(200)))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(token.get()).isNotBlank();
+        assertThat(resumedToken.get()).isEqualTo(token.get());
+        assertThat(this.resource.getInvocations()).isOne();
+        assertThat(second.get(0)).isGreaterThan(first.get(first.size() - 1));
+        assertThat(second).isSorted().doesNotHaveDuplicates();
+        assertThat(second.get(second.size() - 1) - second.get(0)).isEqualTo(second.size() - 1);
+        assertThat(this.getSessionResumption().getResumed()).isOne();
+    }
+
+    @Test
+    void detachedSessionKeepsMessagesInOutbox() {
+        //given
+        final SessionResumption resumption = new SessionResumption(Duration.ofSeconds(5), 16);
+        final Sinks.Many<String> upstream = Sinks.many().multicast().directBestEffort();
+        final WebSocketSessionContext context = this.context(resumption.bind("token", "session"), "user");
+
+        //test
+        StepVerifier.create(resumption.attach(context, Flux.never(), Mono.never(), messages -> upstream.asFlux()))
+                .then(() -> upstream.tryEmitNext("1"))
+                .expectNext("1")
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        upstream.tryEmitNext("2");
+        upstream.tryEmitNext("3");
+
+        //verify
+        assertThat(resumption.issueToken("token")).isEqualTo("token");
+        assertThat(resumption.bind("token", "other")).isEqualTo("session");
+        assertThat(resumption.getOutboxDepth("session")).isEqualTo(2);
+
+        StepVerifier.create(resumption.attach(context, Flux.never(), Mono.never(), messages -> Flux.error(new IllegalStateException())))
+                .expectNext("2", "3")
+                .then(() -> {
+                    upstream.tryEmitNext("4");
+                    upstream.tryEmitComplete();
+                })
+                .expectNext("4")
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        assertThat(resumption.getResumed()).isOne();
+        assertThat(resumption.getSessionCount()).isZero();
+    }
+
+    @Test
+    void sessionIsDroppedOnOverflowOrForeignPrincipal() {
+        //given
+        final SessionResumption resumption = new SessionResumption(Duration.ofSeconds(5), 2);
+        final Sinks.Many<String> upstream = Sinks.many().multicast().directBestEffort();
+        final String sessionId = resumption.bind("token", "session");
+
+        StepVerifier.create(resumption.attach(this.context(sessionId, "user"), Flux.never(), Mono.never(), messages -> upstream.asFlux()))
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //test & verify
+        StepVerifier.create(resumption.attach(this.context(sessionId, "intruder"), Flux.never(), Mono.never(), messages -> upstream.asFlux()))
+                .expectError(WebSocketProcessingException.class)
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        upstream.tryEmitNext("1");
+        upstream.tryEmitNext("2");
+        upstream.tryEmitNext("3");
+
+        assertThat(resumption.getExpired()).isOne();
+        assertThat(resumption.isBound(sessionId)).isFalse();
+        assertThat(resumption.issueToken("token")).isNotEqualTo("token");
+        assertThat(upstream.currentSubscriberCount()).isZero();
+    }
+
+    @Test
+    void cleanCloseEndsSession() throws Exception {
+        //given
+        final AtomicReference<String> token = new AtomicReference<>();
+        final AtomicReference<String> reissuedToken = new AtomicReference<>();
+
+        StepVerifier.create(this.withClient("/resume/counter", session -> {
+                    token.set(session.getHandshakeInfo().getHeaders().getFirst(SessionResumption.TOKEN_HEADER));
+
+                    return session.receive()
+                            .skip(1)
+                            .concatMap(message -> session.close(CloseStatus.NORMAL))
+                            .then();
+                }))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(SessionResumption.TOKEN_HEADER, token.get());
+
+        //test
+        StepVerifier.create(Flux.from(this.withClient("/resume/counter", headers, session -> {
+                            reissuedToken.set(session.getHandshakeInfo().getHeaders().getFirst(SessionResumption.TOKEN_HEADER));
+
+                            return session.receive()
+                                    .take(1)
+                                    .then();
+                        }))
+                        .delaySubscription(Duration.ofMillis(200)))
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(reissuedToken.get()).isNotBlank().isNotEqualTo(token.get());
+    }
+
+    @Test
+    void abnormalCloseKeepsSessionAndCleanCloseEndsIt() {
+        //given
+        final SessionResumption resumption = new SessionResumption(Duration.ofSeconds(5), 16);
+        final Sinks.Many<String> upstream = Sinks.many().multicast().directBestEffort();
+        final WebSocketSessionContext context = this.context(resumption.bind("token", "session"), "user");
+
+        //test
+        StepVerifier.create(resumption.attach(context, Flux.never(), Mono.just(CloseStatus.SERVER_ERROR),
+                        messages -> upstream.asFlux()))
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        assertThat(resumption.isBound("session")).isTrue();
+
+        final Sinks.One<CloseStatus> closeStatus = Sinks.one();
+        StepVerifier.create(resumption.attach(context, Flux.never(), closeStatus.asMono(), messages -> upstream.asFlux()))
+                .then(() -> upstream.tryEmitNext("1"))
+                .expectNext("1")
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        closeStatus.tryEmitValue(CloseStatus.NORMAL);
+
+        //verify
+        assertThat(resumption.isBound("session")).isFalse();
+        assertThat(resumption.getSessionCount()).isZero();
+        assertThat(resumption.getExpired()).isZero();
+        assertThat(upstream.currentSubscriberCount()).isZero();
+    }
+
+    private SessionResumption getSessionResumption() {
+        return this.handlers.stream()
+                .filter(handler -> handler.getPathTemplate().equals("/resume/counter"))
+                .findFirst()
+                .flatMap(BaseWebSocketHandler::getSessionResumption)
+                .orElseThrow();
+    }
+
+    private WebSocketSessionContext context(final String sessionId, final String principal) {
+        return WebSocketSessionContext.builder()
+                .sessionId(sessionId)
+                .authentication((Principal) () -> principal)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package org.elpis.reactive.websockets.impl.routing;
+
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.codec.CodecResource;
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
+import org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunction;
+import org.elpis.reactive.websockets.handler.route.WebSocketRouteRegistry;
+import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunctions.handle;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, CodecResource.class})
+class RuntimeRoutingTest extends BaseWebSocketTest {
+
+    @Autowired
+    private WebSocketRouteRegistry routeRegistry;
+
+    @Autowired
+    private WebSocketSessionRegistry sessionRegistry;
+
+    @Test
+    void registeredRouteAcceptsSessions() throws Exception {
+        //given
+        final WebSocketHandlerFunction function = handle("/runtime/tenant/{tenant}", Mode.SESSION, (context, messages) -> {
+            return Flux.just("Hello, " + context.getPathParameters().get("tenant"));
+        });
+
+        //test
+        assertThat(this.routeRegistry.register(function)).containsExactly("/runtime/tenant/{tenant}");
+
+        //verify
+        StepVerifier.create(this.withClient("/runtime/tenant/acme", session -> session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .next()
+                        .doOnNext(message -> assertThat(message).isEqualTo("Hello, acme"))
+                        .then()))
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        assertThat(this.routeRegistry.getPathTemplates()).contains("/runtime/tenant/{tenant}");
+        assertThatThrownBy(() -> this.routeRegistry.register(handle("/runtime/tenant/{name}", Mode.SESSION,
+                (context, messages) -> {
+                    return Flux.empty();
+                })))
+                .isInstanceOf(WebSocketMappingException.class);
+    }
+
+    @Test
+    void unregisteredRouteDrainsSessionsAndRejectsNewOnes() throws Exception {
+        //given
+        final String path = "/runtime/ticks";
+        this.routeRegistry.register(handle(path, Mode.SESSION, (context, messages) -> {
+            return Flux.interval(Duration.ofMillis(20)).map(tick -> "tick");
+        }));
+
+        final Sinks.One<String> received = Sinks.one();
+        final Sinks.One<CloseStatus> closeStatus = Sinks.one();
+
+        this.withClient(path, session -> session.receive()
+                        .doOnNext(message -> received.tryEmitValue(message.getPayloadAsText()))
+                        .then()
+                        .and(session.closeStatus().doOnNext(closeStatus::tryEmitValue)))
+                .subscribe();
+
+        StepVerifier.create(received.asMono())
+                .expectNext("tick")
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        //test
+        StepVerifier.create(this.routeRegistry.unregister(path, Duration.ZERO))
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        //verify
+        StepVerifier.create(closeStatus.asMono().map(CloseStatus::getCode))
+                .expectNext(CloseStatus.GOING_AWAY.getCode())
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        assertThat(this.sessionRegistry.getByPathTemplate(path)).isEmpty();
+        assertThat(this.routeRegistry.getPathTemplates()).doesNotContain(path);
+
+        StepVerifier.create(this.withClient(path, session -> session.receive().then()))
+                .expectError()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        StepVerifier.create(this.routeRegistry.unregister(path))
+                .expectError(WebSocketMappingException.class)
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+    }
+
+    @Test
+    void routeIsRemovedBeforeDrainIsSubscribed() throws Exception {
+        //given
+        final String path = "/runtime/unsubscribed";
+        this.routeRegistry.register(handle(path, Mode.SESSION, (context, messages) -> {
+            return Flux.just("tick");
+        }));
+
+        //test
+        this.routeRegistry.unregister(path);
+
+        //verify
+        assertThat(this.routeRegistry.getPathTemplates()).doesNotContain(path);
+
+        StepVerifier.create(this.withClient(path, session -> session.receive().then()))
+                .expectError()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+    }
+
+    @Test
+    void annotatedRouteCantBeUnregistered() throws Exception {
+        //given
+        final String path = "/codec/payload";
+
+        //test
+        StepVerifier.create(this.routeRegistry.unregister(path, Duration.ZERO))
+                .expectError(WebSocketMappingException.class)
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(this.routeRegistry.getPathTemplates()).contains(path);
+
+        StepVerifier.create(this.withClient(path, session -> session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .next()
+                        .doOnNext(message -> assertThat(message).isEqualTo("{\"value\":42}"))
+                        .then()))
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+    }
+}
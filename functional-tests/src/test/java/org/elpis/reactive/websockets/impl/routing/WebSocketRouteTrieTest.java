@@ -0,0 +1,74 @@
+package org.elpis.reactive.websockets.impl.routing;
+
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
+import org.elpis.reactive.websockets.handler.route.WebSocketRouteTrie;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebSocketRouteTrieTest {
+
+    @Test
+    void literalsTakePrecedenceOverPatternsAndVariables() {
+        //given
+        final WebSocketRouteTrie<String> trie = new WebSocketRouteTrie<>();
+        trie.add("/listen/{chatId}", "variable");
+        trie.add("/listen/chat", "literal");
+        trie.add("/listen/{id:\\d+}", "pattern");
+        trie.add("/listen/*/messages", "wildcard");
+        trie.add("/listen/{chatId}/members", "nested");
+
+        //verify
+        assertThat(trie.match("/listen/chat")).get()
+                .satisfies(match -> assertThat(match.handler()).isEqualTo("literal"));
+        assertThat(trie.match("/listen/42")).get()
+                .satisfies(match -> assertThat(match.variables()).isEqualTo(Map.of("id", "42")));
+        assertThat(trie.match("/listen/general")).get()
+                .satisfies(match -> assertThat(match.variables()).isEqualTo(Map.of("chatId", "general")));
+        assertThat(trie.match("/listen/general/messages")).get()
+                .satisfies(match -> assertThat(match.handler()).isEqualTo("wildcard"));
+        assertThat(trie.match("/listen/general/members")).get()
+                .satisfies(match -> assertThat(match.variables()).isEqualTo(Map.of("chatId", "general")));
+        assertThat(trie.match("/listen")).isEmpty();
+        assertThat(trie.match("/listen/chat/")).isEmpty();
+    }
+
+    @Test
+    void backtracksAndCapturesTheRestOfThePath() {
+        //given
+        final WebSocketRouteTrie<String> trie = new WebSocketRouteTrie<>();
+        trie.add("/files/{name}.{ext}", "file");
+        trie.add("/files/{*path}", "rest");
+        trie.add("/static/**", "static");
+
+        //verify
+        assertThat(trie.match("/files/report.pdf")).get()
+                .satisfies(match -> assertThat(match.variables()).isEqualTo(Map.of("name", "report", "ext", "pdf")));
+        assertThat(trie.match("/files/2024/report.pdf")).get()
+                .satisfies(match -> assertThat(match.variables()).isEqualTo(Map.of("path", "/2024/report.pdf")));
+        assertThat(trie.match("/files")).get()
+                .satisfies(match -> assertThat(match.variables()).isEqualTo(Map.of("path", "")));
+        assertThat(trie.match("/static/css/site.css")).get()
+                .satisfies(match -> assertThat(match.variables()).isEmpty());
+    }
+
+    @Test
+    void templatesMatchingSamePathsAreRejected() {
+        //given
+        final WebSocketRouteTrie<String> trie = new WebSocketRouteTrie<>();
+        trie.add("/rooms/{room}", "room");
+
+        //verify
+        assertThatThrownBy(() -> trie.add("/rooms/{name}", "name"))
+                .isInstanceOf(WebSocketMappingException.class)
+                .hasMessageContaining("/rooms/{room}");
+        assertThatThrownBy(() -> trie.add("/rooms/**/members", "members"))
+                .isInstanceOf(WebSocketMappingException.class);
+        assertThatThrownBy(() -> trie.add("/rooms/{id}/{id}", "twice"))
+                .isInstanceOf(WebSocketMappingException.class);
+        assertThat(trie.getPathTemplates()).containsExactly("/rooms/{room}");
+    }
+}
@@ -0,0 +1,65 @@
+package org.elpis.reactive.websockets.impl.session;
+
+import org.elpis.reactive.websockets.session.WebSocketCloseDispatcher;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.socket.CloseStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cost of a single close at 10 000 and 100 000 open sessions. Timings are only reported, so the
+ * benchmark is excluded from regular builds and run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class WebSocketCloseDispatcherBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(WebSocketCloseDispatcherBenchmark.class);
+
+    private static final int SMALL_SESSIONS = 10_000;
+    private static final int LARGE_SESSIONS = 100_000;
+    private static final int ITERATIONS = 5;
+
+    @Test
+    void massDisconnect() {
+        //warm up
+        IntStream.range(0, ITERATIONS).forEach(i -> this.massDisconnect(SMALL_SESSIONS));
+
+        //test
+        final double smallCost = IntStream.range(0, ITERATIONS)
+                .mapToDouble(i -> this.massDisconnect(SMALL_SESSIONS))
+                .min()
+                .orElseThrow();
+        final double largeCost = IntStream.range(0, ITERATIONS)
+                .mapToDouble(i -> this.massDisconnect(LARGE_SESSIONS))
+                .min()
+                .orElseThrow();
+
+        //verify
+        log.info("Close dispatch cost: {} ns/close at {} sessions, {} ns/close at {} sessions ({}x)",
+                smallCost, SMALL_SESSIONS, largeCost, LARGE_SESSIONS, largeCost / smallCost);
+    }
+
+    private double massDisconnect(final int sessions) {
+        final WebSocketCloseDispatcher dispatcher = new WebSocketCloseDispatcher();
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        IntStream.range(0, sessions)
+                .forEach(i -> dispatcher.register(String.valueOf(i)).asMono()
+                        .subscribe(closeStatus -> deliveries.incrementAndGet()));
+
+        final long start = System.nanoTime();
+        IntStream.range(0, sessions)
+                .forEach(i -> dispatcher.dispatch(String.valueOf(i), CloseStatus.GOING_AWAY));
+        final long elapsed = System.nanoTime() - start;
+
+        assertThat(deliveries).hasValue(sessions);
+        assertThat(dispatcher.size()).isZero();
+
+        return (double) elapsed / sessions;
+    }
+}
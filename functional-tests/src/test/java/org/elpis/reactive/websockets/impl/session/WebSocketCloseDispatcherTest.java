@@ -0,0 +1,101 @@
+package org.elpis.reactive.websockets.impl.session;
+
+import org.elpis.reactive.websockets.session.WebSocketCloseDispatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.socket.CloseStatus;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketCloseDispatcherTest {
+    private static final int SESSIONS = 100_000;
+
+    @Test
+    void dispatchReachesOnlyTargetSession() {
+        //given
+        final WebSocketCloseDispatcher dispatcher = new WebSocketCloseDispatcher();
+        final AtomicReference<CloseStatus> first = new AtomicReference<>();
+        final AtomicReference<CloseStatus> second = new AtomicReference<>();
+
+        dispatcher.register("first").asMono().subscribe(first::set);
+        dispatcher.register("second").asMono().subscribe(second::set);
+
+        //test
+        final boolean dispatched = dispatcher.dispatch("first", CloseStatus.GOING_AWAY);
+
+        //verify
+        assertThat(dispatched).isTrue();
+        assertThat(first.get()).isEqualTo(CloseStatus.GOING_AWAY);
+        assertThat(second.get()).isNull();
+        assertThat(dispatcher.size()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchIsDeliveredOnce() {
+        //given
+        final WebSocketCloseDispatcher dispatcher = new WebSocketCloseDispatcher();
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        dispatcher.register("session").asMono().subscribe(closeStatus -> deliveries.incrementAndGet());
+
+        //test
+        dispatcher.dispatch("session", CloseStatus.NORMAL);
+        final boolean repeated = dispatcher.dispatch("session", CloseStatus.NORMAL);
+
+        //verify
+        assertThat(repeated).isFalse();
+        assertThat(deliveries).hasValue(1);
+    }
+
+    @Test
+    void unregisterCompletesWithoutSignal() {
+        //given
+        final WebSocketCloseDispatcher dispatcher = new WebSocketCloseDispatcher();
+        final AtomicInteger deliveries = new AtomicInteger();
+        final AtomicInteger completions = new AtomicInteger();
+
+        final Sinks.One<CloseStatus> closeSignal = dispatcher.register("session");
+        closeSignal.asMono().subscribe(closeStatus -> deliveries.incrementAndGet(), throwable -> {
+        }, completions::incrementAndGet);
+
+        //test
+        final boolean unregistered = dispatcher.unregister("session", closeSignal);
+
+        //verify
+        assertThat(unregistered).isTrue();
+        assertThat(deliveries).hasValue(0);
+        assertThat(completions).hasValue(1);
+        assertThat(dispatcher.dispatch("session", CloseStatus.NORMAL)).isFalse();
+    }
+
+    @Test
+    void massDisconnectClosesOneSessionPerDispatch() {
+        //given
+        final WebSocketCloseDispatcher dispatcher = new WebSocketCloseDispatcher();
+        final AtomicReference<String> lastClosed = new AtomicReference<>();
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        IntStream.range(0, SESSIONS)
+                .mapToObj(String::valueOf)
+                .forEach(sessionId -> dispatcher.register(sessionId).asMono()
+                        .subscribe(closeStatus -> {
+                            lastClosed.set(sessionId);
+                            deliveries.incrementAndGet();
+                        }));
+
+        //test
+        for (int i = 0; i < SESSIONS; i++) {
+            final String sessionId = String.valueOf(i);
+
+            //verify: each dispatch reaches its target only and leaves every other session registered
+            assertThat(dispatcher.dispatch(sessionId, CloseStatus.GOING_AWAY)).isTrue();
+            assertThat(lastClosed.get()).isEqualTo(sessionId);
+            assertThat(deliveries).hasValue(i + 1);
+            assertThat(dispatcher.size()).isEqualTo(SESSIONS - i - 1);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.elpis.reactive.websockets.impl.session;
+
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketSessionContextTest {
+
+    @Test
+    void parametersAreResolvedOnFirstAccessOnly() {
+        //given
+        final AtomicInteger pathCalls = new AtomicInteger();
+        final AtomicInteger queryCalls = new AtomicInteger();
+        final AtomicInteger headerCalls = new AtomicInteger();
+
+        final MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+        query.add("limit", "10");
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Id", "42");
+
+        //test
+        final WebSocketSessionContext context = WebSocketSessionContext.builder()
+                .pathParametersSupplier(() -> {
+                    pathCalls.incrementAndGet();
+                    return Map.of("room", "lobby");
+                })
+                .queryParametersSupplier(() -> {
+                    queryCalls.incrementAndGet();
+                    return query;
+                })
+                .headersSupplier(() -> {
+                    headerCalls.incrementAndGet();
+                    return headers;
+                })
+                .build();
+
+        //verify
+        assertThat(pathCalls).hasValue(0);
+        assertThat(queryCalls).hasValue(0);
+        assertThat(headerCalls).hasValue(0);
+
+        assertThat(context.getPathVariable("room", String.class)).contains("lobby");
+        assertThat(context.getPathVariable("room", String.class)).contains("lobby");
+        assertThat(context.getQueryParam("limit", null, Integer.class)).contains(10);
+        assertThat(context.getQueryParams("limit", null, Integer.class)).containsExactly(10);
+
+        assertThat(pathCalls).hasValue(1);
+        assertThat(queryCalls).hasValue(1);
+        assertThat(headerCalls).hasValue(0);
+
+        assertThat(context.getHeader("X-Id", null, Long.class)).contains(42L);
+        assertThat(headerCalls).hasValue(1);
+    }
+}
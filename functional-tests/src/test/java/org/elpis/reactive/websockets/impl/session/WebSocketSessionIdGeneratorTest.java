@@ -0,0 +1,78 @@
+package org.elpis.reactive.websockets.impl.session;
+
+import org.elpis.reactive.websockets.session.WebSocketSessionIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebSocketSessionIdGeneratorTest {
+
+    @Test
+    void idsAreUniqueUnderContention() {
+        //given
+        final WebSocketSessionIdGenerator generator = new WebSocketSessionIdGenerator();
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        //test
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(generator.next()));
+
+        //verify
+        assertThat(ids).hasSize(100_000)
+                .allMatch(id -> id.length() == 13);
+    }
+
+    @Test
+    void idsCarryNodeAndSortInOrder() {
+        //given
+        final WebSocketSessionIdGenerator generator = new WebSocketSessionIdGenerator(0xBEEF);
+
+        //test
+        final long first = generator.nextLong();
+        final long second = generator.nextLong();
+
+        //verify
+        assertThat(first >>> 48).isEqualTo(0xBEEF);
+        assertThat(generator.getNode()).isEqualTo(0xBEEF);
+        assertThat(Long.compareUnsigned(first, second)).isNegative();
+        assertThat(WebSocketSessionIdGenerator.toString(first)).isLessThan(WebSocketSessionIdGenerator.toString(second));
+        assertThat(WebSocketSessionIdGenerator.toString(0)).isEqualTo("0000000000000");
+        assertThat(WebSocketSessionIdGenerator.toString(-1)).isEqualTo("FZZZZZZZZZZZZ");
+        assertThatThrownBy(() -> new WebSocketSessionIdGenerator(1 << 16))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sequenceIsSeededFromMillisSinceEpoch() {
+        //given
+        final Instant now = Instant.parse("2026-10-17T12:00:00Z");
+        final long millis = now.toEpochMilli() - WebSocketSessionIdGenerator.EPOCH.toEpochMilli();
+        final Instant last = WebSocketSessionIdGenerator.EPOCH.plusMillis((1L << 40) - 1);
+
+        //test
+        final long first = new WebSocketSessionIdGenerator(1, Clock.fixed(now, ZoneOffset.UTC)).nextLong();
+        final long restarted = new WebSocketSessionIdGenerator(1, Clock.fixed(now.plusMillis(1), ZoneOffset.UTC))
+                .nextLong();
+        final long latest = new WebSocketSessionIdGenerator(1, Clock.fixed(last, ZoneOffset.UTC)).nextLong();
+
+        //verify
+        assertThat(first).isEqualTo((1L << 48) | (millis << 8) + 1);
+        assertThat(restarted - first).isEqualTo(256);
+        assertThat(latest).isEqualTo((1L << 48) | ((1L << 48) - 256 + 1));
+        assertThat(new WebSocketSessionIdGenerator(1, Clock.fixed(WebSocketSessionIdGenerator.EPOCH, ZoneOffset.UTC))
+                .nextLong()).isEqualTo((1L << 48) | 1);
+
+        assertThatThrownBy(() -> new WebSocketSessionIdGenerator(1, Clock.fixed(last.plusMillis(1), ZoneOffset.UTC)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new WebSocketSessionIdGenerator(1,
+                Clock.fixed(WebSocketSessionIdGenerator.EPOCH.minusMillis(1), ZoneOffset.UTC)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
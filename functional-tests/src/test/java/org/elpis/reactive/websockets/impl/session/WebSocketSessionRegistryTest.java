@@ -0,0 +1,142 @@
+package org.elpis.reactive.websockets.impl.session;
+
+import org.elpis.reactive.websockets.session.ReactiveWebSocketSession;
+import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.socket.CloseStatus;
+
+import java.security.Principal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketSessionRegistryTest {
+    private static final String CHAT_PATH = "/chat/{id}";
+    private static final String NEWS_PATH = "/news";
+
+    @Test
+    void removeEvictsSession() {
+        //given
+        final WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+        registry.save(this.session("1", "user", CHAT_PATH));
+
+        //test
+        final boolean removed = registry.remove("1").isPresent();
+
+        //verify
+        assertThat(removed).isTrue();
+        assertThat(registry.get("1")).isEmpty();
+        assertThat(registry.size()).isZero();
+        assertThat(registry.getByPrincipal("user")).isEmpty();
+        assertThat(registry.getByPathTemplate(CHAT_PATH)).isEmpty();
+    }
+
+    @Test
+    void lateCloseOfReplacedSessionKeepsNewOne() {
+        //given
+        final WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+        final ReactiveWebSocketSession dropped = this.session("1", "user", CHAT_PATH);
+        final ReactiveWebSocketSession resumed = this.session("1", "user", CHAT_PATH);
+
+        final AtomicBoolean droppedSignalCompleted = new AtomicBoolean();
+        final AtomicReference<CloseStatus> resumedSignal = new AtomicReference<>();
+
+        registry.save(dropped);
+        registry.closeSignal(dropped).doOnSuccess(status -> droppedSignalCompleted.set(status == null)).subscribe();
+
+        registry.save(resumed);
+        registry.closeSignal(resumed).subscribe(resumedSignal::set);
+
+        //test
+        final boolean removed = registry.remove("1", dropped);
+
+        //verify
+        assertThat(removed).isFalse();
+        assertThat(droppedSignalCompleted).isTrue();
+        assertThat(registry.get("1")).containsSame(resumed);
+        assertThat(registry.getByPathTemplate(CHAT_PATH)).containsExactly(resumed);
+
+        assertThat(registry.close("1", CloseStatus.GOING_AWAY)).isTrue();
+        assertThat(resumedSignal.get()).isEqualTo(CloseStatus.GOING_AWAY);
+
+        assertThat(registry.remove("1", resumed)).isTrue();
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void lookupByPrincipalAndPath() {
+        //given
+        final WebSocketSessionRegistry registry = new WebSocketSessionRegistry(4);
+        registry.save(this.session("1", "first", CHAT_PATH));
+        registry.save(this.session("2", "first", NEWS_PATH));
+        registry.save(this.session("3", "second", CHAT_PATH));
+
+        //verify
+        assertThat(registry.getByPrincipal("first"))
+                .extracting(ReactiveWebSocketSession::getSessionId)
+                .containsExactlyInAnyOrder("1", "2");
+
+        assertThat(registry.getByPathTemplate(CHAT_PATH))
+                .extracting(ReactiveWebSocketSession::getSessionId)
+                .containsExactlyInAnyOrder("1", "3");
+    }
+
+    @Test
+    void lookupByTag() {
+        //given
+        final WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+        registry.save(this.session("1", "first", CHAT_PATH));
+        registry.save(this.session("2", "second", CHAT_PATH));
+
+        //test
+        registry.tag("1", "room");
+        registry.tag("2", "room");
+        registry.untag("2", "room");
+
+        //verify
+        assertThat(registry.tag("unknown", "room")).isFalse();
+        assertThat(registry.getByTag("room"))
+                .extracting(ReactiveWebSocketSession::getSessionId)
+                .containsExactly("1");
+
+        registry.remove("1");
+        assertThat(registry.getByTag("room")).isEmpty();
+    }
+
+    @Test
+    void connectDisconnectStorm() throws Exception {
+        //given
+        final WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //test
+        IntStream.range(0, 8).forEach(thread -> executor.submit(() -> IntStream.range(0, 10_000)
+                .mapToObj(i -> thread + "-" + i)
+                .forEach(sessionId -> {
+                    registry.save(this.session(sessionId, "user-" + thread, CHAT_PATH));
+                    registry.tag(sessionId, "storm");
+                    registry.remove(sessionId);
+                })));
+
+        executor.shutdown();
+
+        //verify
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.size()).isZero();
+        assertThat(registry.getByPathTemplate(CHAT_PATH)).isEmpty();
+        assertThat(registry.getByTag("storm")).isEmpty();
+    }
+
+    private ReactiveWebSocketSession session(final String sessionId, final String principal, final String pathTemplate) {
+        return ReactiveWebSocketSession.builder()
+                .sessionId(sessionId)
+                .principal((Principal) () -> principal)
+                .pathTemplate(pathTemplate)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package org.elpis.reactive.websockets.impl.shared;
+
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.codec.JsonWebSocketCodec;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.shared.SharedPublisherResource;
+import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.handler.BroadcastWebSocketResourceHandler;
+import org.elpis.reactive.websockets.handler.ReplayBuffers;
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, SharedPublisherResource.class})
+class ReplayTest extends BaseWebSocketTest {
+
+    @Autowired
+    private SharedPublisherResource resource;
+
+    @Autowired
+    private List<BaseWebSocketHandler> handlers;
+
+    @Test
+    void lateJoinerGetsRecentHistoryThenLiveMessages() throws Exception {
+        //given
+        final Disposable early = this.withClient("/shared/publisher/history/lobby", session -> session.receive()
+                .then()).subscribe();
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(Mono.fromCallable(() -> this.resource.publish("lobby", "m1"))
+                        .filter(Sinks.EmitResult::isSuccess)
+                        .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50))))
+                .expectNext(Sinks.EmitResult.OK)
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        IntStream.rangeClosed(2, 10).forEach(i -> this.resource.publish("lobby", "m" + i));
+
+        //test
+        StepVerifier.create(this.withClient("/shared/publisher/history/lobby?replayLast=3", session -> session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .doOnNext(message -> {
+                            if (received.isEmpty()) {
+                                this.resource.publish("lobby", "m11");
+                            }
+
+                            received.add(message);
+                        })
+                        .take(4)
+                        .then()))
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        //verify
+        assertThat(received).containsExactly("m8", "m9", "m10", "m11");
+        assertThat(this.getReplayBuffers().getSequence(List.of("lobby"))).isEqualTo(11);
+
+        early.dispose();
+    }
+
+    @Test
+    void replayHasNoGapsAndEncodesOnce() {
+        //given
+        final ReplayBuffers replayBuffers = new ReplayBuffers(4, "last", "since");
+        final Sinks.Many<String> upstream = Sinks.many().multicast().directBestEffort();
+        final List<Object> key = List.of("room");
+        final Flux<ReplayBuffers.Frame> live = replayBuffers.record(key, upstream.asFlux()).publish().refCount();
+        final JsonWebSocketCodec codec = new JsonWebSocketCodec();
+
+        final Disposable first = live.subscribe();
+        IntStream.rangeClosed(1, 6).forEach(i -> upstream.tryEmitNext("m" + i));
+
+        //test
+        StepVerifier.create(replayBuffers.replay(key, this.context(Map.of("since", "4")), codec, live)
+                        .map(this::toText))
+                .expectNext("m5", "m6")
+                .then(() -> upstream.tryEmitNext("m7"))
+                .expectNext("m7")
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        StepVerifier.create(replayBuffers.replay(key, this.context(Map.of("last", "10")), codec, live)
+                        .map(this::toText))
+                .expectNext("m4", "m5", "m6", "m7")
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //verify
+        assertThat(replayBuffers.getReplayed()).isEqualTo(6);
+        assertThat(replayBuffers.getEncoded()).isEqualTo(4);
+
+        first.dispose();
+    }
+
+    @Test
+    void ringIsEvictedWithItsUpstream() {
+        //given
+        final ReplayBuffers replayBuffers = new ReplayBuffers(100, "last", "since");
+        final Sinks.Many<String> upstream = Sinks.many().multicast().directBestEffort();
+        final List<Object> key = List.of("room");
+        final Flux<ReplayBuffers.Frame> live = replayBuffers.record(key, upstream.asFlux()).publish().refCount();
+
+        final Disposable first = live.subscribe();
+        IntStream.rangeClosed(1, 40).forEach(i -> upstream.tryEmitNext("m" + i));
+
+        StepVerifier.create(replayBuffers.replay(key, this.context(Map.of("last", "2")), new JsonWebSocketCodec(), live)
+                        .map(this::toText))
+                .expectNext("m39", "m40")
+                .thenCancel()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        //test
+        first.dispose();
+
+        //verify
+        assertThat(replayBuffers.getRingCount()).isZero();
+        assertThat(replayBuffers.getSequence(key)).isZero();
+
+        final Disposable next = live.subscribe();
+        upstream.tryEmitNext("m41");
+
+        assertThat(replayBuffers.getRingCount()).isOne();
+        assertThat(replayBuffers.getSequence(key)).isOne();
+
+        next.dispose();
+    }
+
+    private ReplayBuffers getReplayBuffers() {
+        return this.handlers.stream()
+                .filter(handler -> handler.getPathTemplate().equals("/shared/publisher/history/{room}"))
+                .map(BroadcastWebSocketResourceHandler.class::cast)
+                .findFirst()
+                .flatMap(BroadcastWebSocketResourceHandler::getReplayBuffers)
+                .orElseThrow();
+    }
+
+    private WebSocketSessionContext context(final Map<String, String> queryParameters) {
+        final LinkedMultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+        queryParameters.forEach(parameters::add);
+
+        return WebSocketSessionContext.builder()
+                .queryParameters(parameters)
+                .build();
+    }
+
+    private String toText(final Object message) {
+        return message instanceof WebSocketMessage webSocketMessage
+                ? webSocketMessage.getPayloadAsText()
+                : (String) message;
+    }
+}
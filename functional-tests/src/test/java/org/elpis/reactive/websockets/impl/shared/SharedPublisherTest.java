@@ -0,0 +1,176 @@
+package org.elpis.reactive.websockets.impl.shared;
+
+import org.elpis.reactive.websockets.BaseWebSocketTest;
+import org.elpis.reactive.websockets.context.BootStarter;
+import org.elpis.reactive.websockets.context.resource.shared.SharedPublisherResource;
+import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.handler.BroadcastWebSocketResourceHandler;
+import org.elpis.reactive.websockets.handler.SharedPublisherCache;
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = BootStarter.class)
+@ActiveProfiles({BaseWebSocketTest.DEFAULT_TEST_PROFILE})
+@Import({BaseWebSocketTest.PermitAllSecurityConfiguration.class, SharedPublisherResource.class})
+class SharedPublisherTest extends BaseWebSocketTest {
+
+    @Autowired
+    private SharedPublisherResource resource;
+
+    @Autowired
+    private List<BaseWebSocketHandler> handlers;
+
+    @Test
+    void sessionsWithSameKeyShareUpstream() throws Exception {
+        //test
+        final Mono<List<String>> first = this.receive("/shared/publisher/first");
+        final Mono<List<String>> second = this.receive("/shared/publisher/first");
+        final Mono<List<String>> other = this.receive("/shared/publisher/other");
+
+        //verify
+        StepVerifier.create(Mono.zip(first, second, other))
+                .expectNextMatches(received -> received.getT1().size() == 5
+                        && received.getT1().stream().allMatch(message -> message.startsWith("first"))
+                        && received.getT2().stream().allMatch(message -> message.startsWith("first"))
+                        && received.getT3().stream().allMatch(message -> message.startsWith("other")))
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        assertThat(this.resource.getInvocations("first")).isOne();
+        assertThat(this.resource.getInvocations("other")).isOne();
+    }
+
+    @Test
+    void sessionsOfSameEmissionShareEncodedPayload() throws Exception {
+        //given
+        final BroadcastWebSocketResourceHandler handler = this.handlers.stream()
+                .filter(candidate -> candidate.getPathTemplate().equals("/shared/publisher/encoded/{room}"))
+                .map(BroadcastWebSocketResourceHandler.class::cast)
+                .findFirst()
+                .orElseThrow();
+
+        //test
+        final Mono<List<String>> first = this.receive("/shared/publisher/encoded/first");
+        final Mono<List<String>> second = this.receive("/shared/publisher/encoded/first");
+
+        //verify
+        StepVerifier.create(Mono.zip(first, second))
+                .expectNextMatches(received -> received.getT1().size() == 5
+                        && received.getT1().stream().allMatch(message -> message.contains("\"room\":\"first\"")))
+                .expectComplete()
+                .verify(DEFAULT_GENERIC_TEST_FALLBACK);
+
+        assertThat(handler.getPayloadEncoder()).get()
+                .satisfies(encoder -> assertThat(encoder.getSharedCount()).isPositive());
+        assertThat(this.handlers.stream()
+                .filter(candidate -> candidate.getPathTemplate().equals("/shared/publisher/{room}"))
+                .map(BroadcastWebSocketResourceHandler.class::cast)
+                .findFirst()
+                .orElseThrow()
+                .getPayloadEncoder()).isEmpty();
+    }
+
+    @Test
+    void upstreamIsEvictedWithLastSubscriber() {
+        //given
+        final SharedPublisherCache cache = new SharedPublisherCache(List.of("room"), List.of());
+        final WebSocketSessionContext context = WebSocketSessionContext.builder()
+                .pathParameters(Map.of("room", "first"))
+                .build();
+        final AtomicInteger upstreams = new AtomicInteger();
+        final Flux<?> shared = cache.share(context, () -> Flux.never()
+                .doOnSubscribe(subscription -> upstreams.incrementAndGet()));
+
+        //test
+        final Disposable firstSubscriber = shared.subscribe();
+        final Disposable secondSubscriber = shared.subscribe();
+
+        //verify
+        assertThat(cache.size()).isOne();
+        assertThat(upstreams.get()).isOne();
+
+        firstSubscriber.dispose();
+        assertThat(cache.size()).isOne();
+
+        secondSubscriber.dispose();
+        assertThat(cache.size()).isZero();
+
+        shared.subscribe().dispose();
+        assertThat(upstreams.get()).isEqualTo(2);
+    }
+
+    @Test
+    void sessionsOfDifferentPrincipalsDontShareUpstream() {
+        //given
+        final SharedPublisherCache cache = new SharedPublisherCache(List.of("room"), List.of(), List.of(), true);
+        final AtomicInteger upstreams = new AtomicInteger();
+
+        //test
+        final Disposable alice = cache.share(this.context("first", "alice"), () -> Flux.never()
+                .doOnSubscribe(subscription -> upstreams.incrementAndGet())).subscribe();
+        final Disposable bob = cache.share(this.context("first", "bob"), () -> Flux.never()
+                .doOnSubscribe(subscription -> upstreams.incrementAndGet())).subscribe();
+
+        //verify
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(upstreams.get()).isEqualTo(2);
+
+        alice.dispose();
+        bob.dispose();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void upstreamMayShareAnotherPublisher() {
+        //given
+        final SharedPublisherCache cache = new SharedPublisherCache(List.of("room"), List.of());
+
+        //test
+        final Flux<?> shared = cache.share(this.context("first", "alice"),
+                () -> cache.share(this.context("second", "alice"), () -> Flux.just("tick")));
+
+        //verify
+        StepVerifier.create(shared.cast(String.class))
+                .expectNext("tick")
+                .expectComplete()
+                .verify(DEFAULT_FAST_TEST_FALLBACK);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private WebSocketSessionContext context(final String room, final String userName) {
+        return WebSocketSessionContext.builder()
+                .pathParameters(Map.of("room", room))
+                .authentication(() -> userName)
+                .build();
+    }
+
+    private Mono<List<String>> receive(final String path) throws URISyntaxException {
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        return this.withClient(path, session -> session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .doOnNext(received::add)
+                        .take(5)
+                        .then())
+                .timeout(DEFAULT_FAST_TEST_FALLBACK)
+                .thenReturn(received);
+    }
+}
@@ -2,9 +2,12 @@ package org.elpis.reactive.websockets.impl.util;
 
 import org.elpis.reactive.websockets.mapper.JsonMapper;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,4 +36,34 @@ public class JsonMapperTest {
         assertThat(result.blockFirst())
                 .isEqualTo("{\"test\":\"test\"}");
     }
+
+    @Test
+    public void applyWithDataBuffer() {
+        final DataBuffer result = JsonMapper.applyWithDataBuffer(Map.of("test", "test"), DefaultDataBufferFactory.sharedInstance)
+                .block();
+
+        assertThat(result.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"test\":\"test\"}");
+    }
+
+    @Test
+    public void applyWithDataBufferWritesStringAsIs() {
+        final DataBuffer result = JsonMapper.applyWithFallback("тест", DefaultDataBufferFactory.sharedInstance);
+
+        assertThat(result.toString(StandardCharsets.UTF_8))
+                .isEqualTo("тест");
+    }
+
+    @Test
+    public void readWithFallback() {
+        final DataBuffer dataBuffer = DefaultDataBufferFactory.sharedInstance.wrap("{\"test\":\"test\"}"
+                .getBytes(StandardCharsets.UTF_8));
+
+        final Map<String, String> result = JsonMapper.readWithFallback(dataBuffer, Map.class);
+
+        assertThat(result)
+                .containsEntry("test", "test");
+        assertThat(dataBuffer.readPosition())
+                .isZero();
+    }
 }
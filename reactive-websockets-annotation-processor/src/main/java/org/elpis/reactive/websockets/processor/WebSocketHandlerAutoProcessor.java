@@ -2,16 +2,27 @@ package org.elpis.reactive.websockets.processor;
 
 import com.squareup.javapoet.*;
 import org.elpis.reactive.websockets.config.Mode;
+import org.elpis.reactive.websockets.config.SlowConsumerPolicy;
 import org.elpis.reactive.websockets.session.WebSocketSessionContext;
 import org.elpis.reactive.websockets.processor.exception.WebSocketProcessorException;
 import org.elpis.reactive.websockets.processor.resolver.SocketAnnotationResolverFactory;
+import org.elpis.reactive.websockets.processor.serializer.JsonPayloadWriterGenerator;
 import org.elpis.reactive.websockets.util.TypeUtils;
+import org.elpis.reactive.websockets.web.annotation.Conflation;
+import org.elpis.reactive.websockets.web.annotation.OutboundBuffer;
 import org.elpis.reactive.websockets.web.annotation.Ping;
+import org.elpis.reactive.websockets.web.annotation.Replay;
+import org.elpis.reactive.websockets.web.annotation.Resumption;
+import org.elpis.reactive.websockets.web.annotation.SharedPublisher;
 import org.elpis.reactive.websockets.web.annotation.SocketController;
 import org.elpis.reactive.websockets.web.annotation.SocketMapping;
 import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import reactor.core.publisher.Flux;
 
@@ -21,6 +32,7 @@ import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import java.io.IOException;
@@ -70,26 +82,120 @@ public class WebSocketHandlerAutoProcessor extends AbstractProcessor {
                 .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
                 .build();
 
-        final MethodSpec constructor = MethodSpec.constructorBuilder()
+        final MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
                 .addModifiers(Modifier.PUBLIC)
                 .addAnnotation(Autowired.class)
                 .addParameter(ClassName.bestGuess("org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory"), "eventFactory")
                 .addParameter(ClassName.bestGuess("org.elpis.reactive.websockets.session.WebSocketSessionRegistry"), "sessionRegistry")
+                .addParameter(ClassName.bestGuess("org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler"), "heartbeatScheduler")
+                .addParameter(ClassName.bestGuess("org.elpis.reactive.websockets.codec.WebSocketCodecRegistry"), "codecRegistry")
                 .addParameter(TypeName.get(descriptor.clazz().asType()), "socketResource")
-                .addStatement("super(eventFactory, sessionRegistry, $S, $L, $L)", descriptor.pathTemplate(),
-                        descriptor.pingEnabled(), descriptor.pingInterval())
-                .addStatement("this.socketResource = socketResource")
-                .build();
+                .addStatement(this.getSuperStatement(descriptor))
+                .addStatement("this.socketResource = socketResource");
+
+        if (descriptor.sharedPublisher().enabled() && descriptor.sharedPublisher().encodeOnce()) {
+            constructorBuilder.addStatement("this.enableEncodeOnce()");
+        }
+
+        final OutboundBuffer outboundBuffer = descriptor.outboundBuffer();
+        if (outboundBuffer.enabled()) {
+            constructorBuilder.addStatement("this.enableOutboundBuffer($T.$L, $L)", SlowConsumerPolicy.class,
+                    outboundBuffer.policy().name(), outboundBuffer.size());
+        }
+
+        final Conflation conflation = descriptor.conflation();
+        if (conflation.enabled()) {
+            constructorBuilder.addStatement("this.enableConflation($T.byExpression($S))",
+                    ClassName.bestGuess("org.elpis.reactive.websockets.handler.KeyedConflation"), conflation.key());
+        }
+
+        final Replay replay = descriptor.replay();
+        if (replay.enabled()) {
+            constructorBuilder.addStatement("this.enableReplay($L, $S, $S)", replay.size(), replay.lastParameter(),
+                    replay.sinceParameter());
+        }
+
+        final Resumption resumption = descriptor.resumption();
+        if (resumption.enabled()) {
+            constructorBuilder.addStatement("this.enableResumption($LL, $L)", resumption.ttl(), resumption.outboxSize());
+        }
+
+        final MethodSpec constructor = constructorBuilder.build();
 
         final MethodSpec suitableMethod = this.getSuitableMethod(descriptor);
 
-        return TypeSpec.classBuilder("WebSocketHandler$Generated_" + descriptor.getPostfix())
+        final TypeSpec.Builder classBuilder = TypeSpec.classBuilder("WebSocketHandler$Generated_" + descriptor.getPostfix())
                 .superclass(ClassName.bestGuess(this.getHandlerType(descriptor.mode())))
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
                 .addAnnotation(Component.class)
                 .addField(injectedField)
                 .addMethod(constructor)
                 .addMethod(suitableMethod);
+
+        if (descriptor.payloadType() != null) {
+            this.addPayloadWriter(classBuilder, descriptor.payloadType());
+        }
+
+        return classBuilder;
+    }
+
+    private void addPayloadWriter(final TypeSpec.Builder classBuilder, final TypeMirror payloadType) {
+        final ClassName payloadWriterType = ClassName.bestGuess("org.elpis.reactive.websockets.codec.JsonPayloadWriter");
+        final TypeSpec payloadWriter = new JsonPayloadWriterGenerator(processingEnv.getElementUtils(),
+                processingEnv.getTypeUtils(), "PayloadWriter").generate(payloadType);
+
+        classBuilder.addType(payloadWriter)
+                .addField(FieldSpec.builder(payloadWriterType, "PAYLOAD_WRITER", Modifier.PRIVATE, Modifier.STATIC,
+                                Modifier.FINAL)
+                        .initializer("new $N()", payloadWriter)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getPayloadWriter")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PROTECTED)
+                        .returns(payloadWriterType)
+                        .addStatement("return PAYLOAD_WRITER")
+                        .build());
+    }
+
+    private TypeMirror getPublishedType(final TypeMirror type) {
+        final Element publisher = processingEnv.getElementUtils().getTypeElement(Publisher.class.getCanonicalName());
+
+        if (processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(type),
+                processingEnv.getTypeUtils().erasure(publisher.asType()))) {
+
+            final List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+            return typeArguments.isEmpty() ? null : typeArguments.get(0);
+        }
+
+        return processingEnv.getTypeUtils().directSupertypes(type)
+                .stream()
+                .map(this::getPublishedType)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private CodeBlock getSuperStatement(final WebHandlerResourceDescriptor descriptor) {
+        final SharedPublisher sharedPublisher = descriptor.sharedPublisher();
+
+        if (!sharedPublisher.enabled()) {
+            return CodeBlock.of("super(eventFactory, sessionRegistry, heartbeatScheduler, codecRegistry, $S, $L, $L)", descriptor.pathTemplate(),
+                    descriptor.pingEnabled(), descriptor.pingInterval());
+        }
+
+        return CodeBlock.of("super(eventFactory, sessionRegistry, heartbeatScheduler, codecRegistry, $S, $L, $L, new $T($T.of($L), $T.of($L), $T.of($L), $L))",
+                descriptor.pathTemplate(), descriptor.pingEnabled(), descriptor.pingInterval(),
+                ClassName.bestGuess("org.elpis.reactive.websockets.handler.SharedPublisherCache"),
+                List.class, this.toLiterals(sharedPublisher.pathVariables()),
+                List.class, this.toLiterals(sharedPublisher.queryParameters()),
+                List.class, this.toLiterals(sharedPublisher.headers()),
+                sharedPublisher.principal());
+    }
+
+    private CodeBlock toLiterals(final String[] values) {
+        return Arrays.stream(values)
+                .map(value -> CodeBlock.of("$S", value))
+                .collect(CodeBlock.joining(", "));
     }
 
     private MethodSpec getSuitableMethod(WebHandlerResourceDescriptor descriptor) {
@@ -153,12 +259,10 @@ public class WebSocketHandlerAutoProcessor extends AbstractProcessor {
     }
 
     private String getHandlerType(final Mode mode) {
-        switch (mode) {
-            case SHARED:
-                return "org.elpis.reactive.websockets.handler.BroadcastWebSocketResourceHandler";
-        }
-
-        throw new WebSocketProcessorException("Cannot find WebSocketHandler implementation for mode %s", mode);
+        return switch (mode) {
+            case SHARED -> "org.elpis.reactive.websockets.handler.BroadcastWebSocketResourceHandler";
+            case SESSION -> "org.elpis.reactive.websockets.handler.SessionWebSocketResourceHandler";
+        };
     }
 
     private WebHandlerResourceDescriptor configure(final SocketController resource,
@@ -170,11 +274,17 @@ public class WebSocketHandlerAutoProcessor extends AbstractProcessor {
         final Ping ping = socketMapping.ping();
         final String pathTemplate = resource.value() + socketMapping.value();
 
-        final WebHandlerResourceDescriptor descriptor = new WebHandlerResourceDescriptor(method, clazz,
-                method.getReturnType().getKind() != TypeKind.VOID, pathTemplate, socketMapping.mode(),
-                ping.enabled(), ping.value());
-
         final TypeMirror returnType = method.getReturnType();
+        final boolean useReturn = returnType.getKind() != TypeKind.VOID;
+
+        final TypeMirror payloadType = socketMapping.generateSerializer() && useReturn
+                ? this.getPublishedType(returnType)
+                : null;
+
+        final WebHandlerResourceDescriptor descriptor = new WebHandlerResourceDescriptor(method, clazz,
+                useReturn, pathTemplate, socketMapping.mode(), ping.enabled(), ping.value(),
+                socketMapping.sharedPublisher(), socketMapping.outboundBuffer(), socketMapping.conflation(), socketMapping.replay(),
+                socketMapping.resumption(), payloadType);
 
         if (descriptor.useReturn() && (!processingEnv.getTypeUtils()
                 .isAssignable(processingEnv.getTypeUtils().erasure(returnType),
@@ -184,12 +294,84 @@ public class WebSocketHandlerAutoProcessor extends AbstractProcessor {
                     "return any of implementation Publisher type. Found `%s`", method.getSimpleName(), method.getReturnType());
         }
 
+        if (descriptor.sharedPublisher().enabled() && (descriptor.mode() != Mode.SHARED || !descriptor.useReturn())) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: shared " +
+                    "publisher is only supported by Mode.SHARED methods that return a Publisher", method.getSimpleName());
+        }
+
+        if (descriptor.sharedPublisher().enabled()) {
+            method.getParameters().stream()
+                    .filter(parameter -> !this.isSharedPublisherKey(descriptor.sharedPublisher(), parameter))
+                    .findFirst()
+                    .ifPresent(parameter -> {
+                        throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: " +
+                                "parameter `%s` binds a per-session value that is not part of the shared publisher key, " +
+                                "so the publisher of one session would be sent to others", method.getSimpleName(),
+                                parameter.getSimpleName());
+                    });
+        }
+
+        if (descriptor.outboundBuffer().enabled() && (!descriptor.useReturn() || descriptor.outboundBuffer().size() < 1)) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: outbound " +
+                    "buffer requires a method that returns a Publisher and a positive size", method.getSimpleName());
+        }
+
+        if (descriptor.conflation().enabled() && (!descriptor.useReturn() || descriptor.conflation().key().isBlank())) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: conflation " +
+                    "requires a method that returns a Publisher and a key expression", method.getSimpleName());
+        }
+
+        if (descriptor.conflation().enabled() && descriptor.outboundBuffer().enabled()) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: conflation " +
+                    "and outbound buffer are mutually exclusive", method.getSimpleName());
+        }
+
+        if (descriptor.replay().enabled() && (!descriptor.sharedPublisher().enabled() || descriptor.replay().size() < 1)) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: replay " +
+                    "requires a shared publisher and a positive size", method.getSimpleName());
+        }
+
+        if (descriptor.resumption().enabled() && (!descriptor.useReturn() || descriptor.resumption().ttl() < 1
+                || descriptor.resumption().outboxSize() < 1)) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: resumption " +
+                    "requires a method that returns a Publisher, a positive TTL and outbox size", method.getSimpleName());
+        }
+
+        if (descriptor.resumption().enabled() && (descriptor.outboundBuffer().enabled() || descriptor.conflation().enabled())) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: resumption " +
+                    "keeps an outbox of its own and can't be combined with outbound buffer or conflation",
+                    method.getSimpleName());
+        }
+
+        if (socketMapping.generateSerializer() && (payloadType == null || payloadType.getKind() != TypeKind.DECLARED)) {
+            throw new WebSocketProcessorException("Cannot register method `@SocketMapping %s()`. Reason: generated " +
+                    "serializer requires a Publisher of a record or POJO type. Found `%s`", method.getSimpleName(), returnType);
+        }
+
         return descriptor;
     }
 
+    private boolean isSharedPublisherKey(final SharedPublisher sharedPublisher, final VariableElement parameter) {
+        final PathVariable pathVariable = parameter.getAnnotation(PathVariable.class);
+        final RequestParam requestParam = parameter.getAnnotation(RequestParam.class);
+        final RequestHeader requestHeader = parameter.getAnnotation(RequestHeader.class);
+
+        if (pathVariable != null) {
+            return Arrays.asList(sharedPublisher.pathVariables()).contains(pathVariable.value());
+        } else if (requestParam != null) {
+            return Arrays.asList(sharedPublisher.queryParameters()).contains(requestParam.value());
+        } else if (requestHeader != null) {
+            return Arrays.asList(sharedPublisher.headers()).contains(requestHeader.value());
+        } else {
+            return parameter.getAnnotation(AuthenticationPrincipal.class) != null && sharedPublisher.principal();
+        }
+    }
+
     private record WebHandlerResourceDescriptor(ExecutableElement method, Element clazz, boolean useReturn,
                                                 String pathTemplate, Mode mode, boolean pingEnabled,
-                                                long pingInterval) {
+                                                long pingInterval, SharedPublisher sharedPublisher,
+                                                OutboundBuffer outboundBuffer, Conflation conflation,
+                                                Replay replay, Resumption resumption, TypeMirror payloadType) {
 
         private String getPostfix() {
             final String uniqueKey = pathTemplate + "." + clazz.getSimpleName().toString() +
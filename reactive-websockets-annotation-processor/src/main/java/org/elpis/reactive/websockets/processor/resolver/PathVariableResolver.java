@@ -9,18 +9,11 @@ import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
 public final class PathVariableResolver extends SocketApiAnnotationResolver<PathVariable> {
-    private static final String CODE_FOR_GET_PATH_REQUIRED = """
-            final $T $L = context.getPathVariable($S, $T.class)
-            .orElseThrow(() -> new org.elpis.reactive.websockets.exception.WebSocketProcessingException($S));
-            """;
-
-    private static final String CODE_FOR_GET_SINGLE_PATH = """
-            final $T $L = context.getPathVariable($S, $T.class)
-            .orElseGet(() -> org.elpis.reactive.websockets.util.TypeUtils.getDefaultValueForType($T.class));
-            """;
+    private final TypedValueParser parser;
 
     PathVariableResolver(Elements elements, Types types) {
         super(elements, types);
+        this.parser = new TypedValueParser(elements, types);
     }
 
     @Override
@@ -28,26 +21,13 @@ public final class PathVariableResolver extends SocketApiAnnotationResolver<Path
         final TypeMirror parameterType = parameter.asType();
         final PathVariable annotation = parameter.getAnnotation(this.getAnnotationType());
 
-        if (annotation.required()) {
-            return CodeBlock.of(CODE_FOR_GET_PATH_REQUIRED,
-                    parameterType,
-                    parameter.getSimpleName().toString(),
-                    annotation.value(),
-                    parameterType,
-                    String.format("@PathVariable %s %s is marked as required but was not present on request. Default value was not set.",
-                            parameter.asType().toString(), parameter.getSimpleName().toString()));
-        } else {
-            return CodeBlock.of(CODE_FOR_GET_SINGLE_PATH,
-                    parameterType,
-                    parameter.getSimpleName().toString(),
-                    annotation.value(),
-                    parameterType,
-                    parameterType);
-        }
+        return this.parser.single(parameterType, parameter,
+                CodeBlock.of("context.getPathVariable($S)", annotation.value()), null, annotation.required(),
+                String.format("@PathVariable %s %s", parameter.asType().toString(), parameter.getSimpleName().toString()));
     }
 
     @Override
     Class<PathVariable> getAnnotationType() {
         return PathVariable.class;
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,27 @@
 package org.elpis.reactive.websockets.processor.resolver;
 
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import org.elpis.reactive.websockets.processor.exception.WebSocketResolverException;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.reactive.socket.WebSocketMessage;
 import reactor.core.publisher.Flux;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
 public class RequestBodyResolver extends SocketApiAnnotationResolver<RequestBody> {
     private static final String GET_BODY = "final Flux<WebSocketMessage> $L = messages;\n";
+    private static final String GET_DECODED_BODY = "final $T $L = this.decode(context, messages, $L);\n";
 
     RequestBodyResolver(Elements elements, Types types) {
         super(elements, types);
@@ -29,7 +38,44 @@ public class RequestBodyResolver extends SocketApiAnnotationResolver<RequestBody
             throw new WebSocketResolverException("@RequestBody should be used with Flux type. Found: %s", parameterType);
         }
 
-        return CodeBlock.of(GET_BODY, parameter.getSimpleName());
+        final TypeMirror bodyType = this.getBodyType((DeclaredType) parameterType);
+        final Element messageType = this.getElements().getTypeElement(WebSocketMessage.class.getCanonicalName());
+        if (bodyType == null || this.getTypes().isSameType(bodyType, messageType.asType())) {
+            return CodeBlock.of(GET_BODY, parameter.getSimpleName());
+        }
+
+        return CodeBlock.of(GET_DECODED_BODY, ParameterizedTypeName.get(ClassName.get(Flux.class), TypeName.get(bodyType)),
+                parameter.getSimpleName(), this.getTypeLiteral(bodyType));
+    }
+
+    private TypeMirror getBodyType(final DeclaredType parameterType) {
+        if (parameterType.getTypeArguments().isEmpty()) {
+            return null;
+        }
+
+        final TypeMirror bodyType = parameterType.getTypeArguments().get(0);
+        if (bodyType instanceof WildcardType wildcardType) {
+            if (wildcardType.getExtendsBound() == null) {
+                return null;
+            }
+
+            return wildcardType.getExtendsBound();
+        }
+
+        if (bodyType.getKind() != TypeKind.DECLARED && bodyType.getKind() != TypeKind.ARRAY) {
+            throw new WebSocketResolverException("@RequestBody Flux type argument should be a concrete type. Found: %s",
+                    bodyType);
+        }
+
+        return bodyType;
+    }
+
+    private CodeBlock getTypeLiteral(final TypeMirror bodyType) {
+        if (bodyType instanceof DeclaredType declaredType && !declaredType.getTypeArguments().isEmpty()) {
+            return CodeBlock.of("new $T<$T>() {}.getType()", ParameterizedTypeReference.class, TypeName.get(bodyType));
+        }
+
+        return CodeBlock.of("$T.class", TypeName.get(this.getTypes().erasure(bodyType)));
     }
 
     @Override
@@ -22,27 +22,11 @@ import java.util.Optional;
 public final class RequestHeaderResolver extends SocketApiAnnotationResolver<RequestHeader> {
     private static final String CODE_FOR_GET_HEADERS = "final $T $L = context.getHeaders();\n";
 
-    private static final String CODE_FOR_GET_LIST_HEADER_REQUIRED = """
-            final $T $L = context.getHeaders($S, $S, $T.class);
-            if ($L.isEmpty()) {
-             throw new org.elpis.reactive.websockets.exception.WebSocketProcessingException($S);
-            }
-            """;
-
-    private static final String CODE_FOR_GET_LIST_HEADER = "final $T $L = context.getHeaders($S, $S, $T.class);\n";
-
-    private static final String CODE_FOR_GET_SINGLE_HEADER_REQUIRED = """
-            final $T $L = context.getHeader($S, $S, $T.class)
-            .orElseThrow(() -> new org.elpis.reactive.websockets.exception.WebSocketProcessingException($S));
-            """;
-
-    private static final String CODE_FOR_GET_SINGLE_HEADER = """
-            final $T $L = context.getHeader($S, $S, $T.class)
-            .orElseGet(() -> org.elpis.reactive.websockets.util.TypeUtils.getDefaultValueForType($T.class));
-            """;
+    private final TypedValueParser parser;
 
     RequestHeaderResolver(Elements elements, Types types) {
         super(elements, types);
+        this.parser = new TypedValueParser(elements, types);
     }
 
     @Override
@@ -79,24 +63,9 @@ public final class RequestHeaderResolver extends SocketApiAnnotationResolver<Req
             if (parameterType instanceof DeclaredType declaredReturnType) {
                 final TypeMirror listDeclaredType = declaredReturnType.getTypeArguments().get(0);
 
-                if (annotation.required()) {
-                    return CodeBlock.of(CODE_FOR_GET_LIST_HEADER_REQUIRED,
-                            parameterType,
-                            parameter.getSimpleName().toString(),
-                            annotation.value(),
-                            defaultValue,
-                            listDeclaredType,
-                            parameter.getSimpleName().toString(),
-                            String.format("@RequestHeader %s %s is marked as required but was not present on request. " +
-                                    "Default value was not set.", parameter.asType().toString(), parameter.getSimpleName().toString()));
-                } else {
-                    return CodeBlock.of(CODE_FOR_GET_LIST_HEADER,
-                            parameterType,
-                            parameter.getSimpleName().toString(),
-                            annotation.value(),
-                            defaultValue,
-                            listDeclaredType);
-                }
+                return this.parser.list(parameterType, listDeclaredType, parameter,
+                        CodeBlock.of("context.getHeaders($S)", annotation.value()), defaultValue, annotation.required(),
+                        String.format("@RequestHeader %s %s", parameter.asType().toString(), parameter.getSimpleName().toString()));
             } else {
                 throw new WebSocketResolverException("Cannot process @RequestHeader %s %s parameter: bad return type: %s",
                         parameter.asType().toString(), parameter.getSimpleName().toString(), parameterType);
@@ -107,24 +76,9 @@ public final class RequestHeaderResolver extends SocketApiAnnotationResolver<Req
                         parameterType, parameter.getSimpleName().toString());
             }
 
-            if (annotation.required()) {
-                return CodeBlock.of(CODE_FOR_GET_SINGLE_HEADER_REQUIRED,
-                        parameterType,
-                        parameter.getSimpleName().toString(),
-                        annotation.value(),
-                        defaultValue,
-                        parameterType,
-                        String.format("@RequestHeader %s %s is marked as required but was not present on request. " +
-                                "Default value was not set.", parameter.asType().toString(), parameter.getSimpleName().toString()));
-            } else {
-                return CodeBlock.of(CODE_FOR_GET_SINGLE_HEADER,
-                        parameterType,
-                        parameter.getSimpleName().toString(),
-                        annotation.value(),
-                        defaultValue,
-                        parameterType,
-                        parameterType);
-            }
+            return this.parser.single(parameterType, parameter,
+                    CodeBlock.of("context.getHeader($S)", annotation.value()), defaultValue, annotation.required(),
+                    String.format("@RequestHeader %s %s", parameter.asType().toString(), parameter.getSimpleName().toString()));
         }
     }
 
@@ -15,26 +15,11 @@ import java.util.List;
 import java.util.Optional;
 
 public final class RequestParamResolver extends SocketApiAnnotationResolver<RequestParam> {
-    private static final String CODE_FOR_GET_LIST_QUERY_REQUIRED = """
-            final $T $L = context.getQueryParams($S, $S, $T.class);
-            if ($L.isEmpty())
-             throw new org.elpis.reactive.websockets.exception.WebSocketProcessingException($S);
-            """;
-
-    private static final String CODE_FOR_GET_LIST_QUERY = "final $T $L = context.getQueryParams($S, $S, $T.class);\n";
-
-    private static final String CODE_FOR_GET_SINGLE_QUERY_REQUIRED = """
-            final $T $L = context.getQueryParam($S, $S, $T.class)
-            .orElseThrow(() -> new org.elpis.reactive.websockets.exception.WebSocketProcessingException($S));
-            """;
-
-    private static final String CODE_FOR_GET_SINGLE_QUERY = """
-            final $T $L = context.getQueryParam($S, $S, $T.class)
-            .orElseGet(() -> org.elpis.reactive.websockets.util.TypeUtils.getDefaultValueForType($T.class));
-            """;
+    private final TypedValueParser parser;
 
     RequestParamResolver(Elements elements, Types types) {
         super(elements, types);
+        this.parser = new TypedValueParser(elements, types);
     }
 
     @Override
@@ -57,24 +42,9 @@ public final class RequestParamResolver extends SocketApiAnnotationResolver<Requ
             if (parameterType instanceof DeclaredType declaredReturnType) {
                 final TypeMirror listDeclaredType = declaredReturnType.getTypeArguments().get(0);
 
-                if (annotation.required()) {
-                    return CodeBlock.of(CODE_FOR_GET_LIST_QUERY_REQUIRED,
-                            parameterType,
-                            parameter.getSimpleName().toString(),
-                            annotation.value(),
-                            defaultValue,
-                            listDeclaredType,
-                            parameter.getSimpleName().toString(),
-                            String.format("@RequestParam List<%s> %s is marked as required but was not present on request. " +
-                                            "Default value was not set.", listDeclaredType.toString(), parameter.getSimpleName().toString()));
-                } else {
-                    return CodeBlock.of(CODE_FOR_GET_LIST_QUERY,
-                            parameterType,
-                            parameter.getSimpleName().toString(),
-                            annotation.value(),
-                            defaultValue,
-                            listDeclaredType);
-                }
+                return this.parser.list(parameterType, listDeclaredType, parameter,
+                        CodeBlock.of("context.getQueryParams($S)", annotation.value()), defaultValue, annotation.required(),
+                        String.format("@RequestParam List<%s> %s", listDeclaredType.toString(), parameter.getSimpleName().toString()));
             } else {
                 throw new WebSocketResolverException("Cannot process @RequestParam annotated parameter '%s': bad return type: %s",
                         parameter.getSimpleName().toString(), parameterType);
@@ -85,24 +55,9 @@ public final class RequestParamResolver extends SocketApiAnnotationResolver<Requ
                         parameterType, parameter.getSimpleName().toString());
             }
 
-            if (annotation.required()) {
-                return CodeBlock.of(CODE_FOR_GET_SINGLE_QUERY_REQUIRED,
-                        parameterType,
-                        parameter.getSimpleName().toString(),
-                        annotation.value(),
-                        defaultValue,
-                        parameterType,
-                        String.format("@RequestParam %s %s is marked as required but was not present on request. " +
-                                "Default value was not set.", parameter.asType().toString(), parameter.getSimpleName().toString()));
-            } else {
-                return CodeBlock.of(CODE_FOR_GET_SINGLE_QUERY,
-                        parameterType,
-                        parameter.getSimpleName().toString(),
-                        annotation.value(),
-                        defaultValue,
-                        parameterType,
-                        parameterType);
-            }
+            return this.parser.single(parameterType, parameter,
+                    CodeBlock.of("context.getQueryParam($S)", annotation.value()), defaultValue, annotation.required(),
+                    String.format("@RequestParam %s %s", parameter.asType().toString(), parameter.getSimpleName().toString()));
         }
     }
 
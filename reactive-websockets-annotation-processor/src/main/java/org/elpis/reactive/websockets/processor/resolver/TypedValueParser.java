@@ -0,0 +1,278 @@
+package org.elpis.reactive.websockets.processor.resolver;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.NameAllocator;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.elpis.reactive.websockets.exception.WebSocketProcessingException;
+import org.elpis.reactive.websockets.processor.exception.WebSocketResolverException;
+import org.elpis.reactive.websockets.util.TypeUtils;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Emits type-specialized code that binds raw {@link String} values of a handshake to handler parameters.
+ *
+ * <p>Values are parsed with the parse method of their type, e.g. {@code Long.parseLong}, enums are looked up with
+ * {@code valueOf} of the enum itself and default values are validated and folded into literals at compile time. Types
+ * without a dedicated parser fall back to {@link TypeUtils#convert(String, Class)}. Empty values are treated as absent.
+ *
+ * <p>Temporary locals are named apart from every parameter of the handler method and from the parameters of the
+ * generated method, since all bindings share one method scope.
+ *
+ * @author Alex Zharkov
+ * @since 1.0.0
+ */
+final class TypedValueParser {
+    private final Elements elements;
+    private final Types types;
+
+    TypedValueParser(final Elements elements, final Types types) {
+        this.elements = elements;
+        this.types = types;
+    }
+
+    /**
+     * Emits binding of a single value.
+     *
+     * @param type         parameter type
+     * @param parameter    bound parameter
+     * @param raw          expression reading the raw value, {@code null} if absent
+     * @param defaultValue default value, {@code null} if not set
+     * @param required     whether absent value with no default is an error
+     * @param description  parameter description for error messages
+     * @return binding statements declaring a local variable named after the parameter
+     * @since 1.0.0
+     */
+    CodeBlock single(final TypeMirror type, final VariableElement parameter, final CodeBlock raw,
+                     final String defaultValue, final boolean required, final String description) {
+
+        final NameAllocator names = this.names(parameter);
+        final String name = parameter.getSimpleName().toString();
+        final String rawName = names.newName(name + "Raw");
+
+        return CodeBlock.builder()
+                .addStatement("final $T $L = $L", String.class, rawName, raw)
+                .addStatement("final $T $L", type, name)
+                .beginControlFlow("if ($L != null && !$L.isEmpty())", rawName, rawName)
+                .addStatement("$L = $L", name, this.parse(type, CodeBlock.of("$L", rawName)))
+                .nextControlFlow("else")
+                .add(this.fallback(type, name, defaultValue, required, description))
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * Emits binding of all values into a {@link List}.
+     *
+     * @param type         parameter type
+     * @param elementType  list element type
+     * @param parameter    bound parameter
+     * @param raw          expression reading the raw values, {@code null} if absent
+     * @param defaultValue default value, {@code null} if not set
+     * @param required     whether absent values with no default are an error
+     * @param description  parameter description for error messages
+     * @return binding statements declaring a local variable named after the parameter
+     * @since 1.0.0
+     */
+    CodeBlock list(final TypeMirror type, final TypeMirror elementType, final VariableElement parameter,
+                   final CodeBlock raw, final String defaultValue, final boolean required, final String description) {
+
+        final NameAllocator names = this.names(parameter);
+        final String name = parameter.getSimpleName().toString();
+        final String rawName = names.newName(name + "Raw");
+        final String valueName = names.newName(name + "Value");
+        final TypeName rawType = ParameterizedTypeName.get(ClassName.get(List.class), TypeName.get(String.class));
+
+        final CodeBlock.Builder builder = CodeBlock.builder()
+                .addStatement("final $T $L = $L", rawType, rawName, raw)
+                .addStatement("final $T $L", type, name)
+                .beginControlFlow("if ($L != null && !$L.isEmpty())", rawName, rawName)
+                .addStatement("$L = new $T<>($L.size())", name, ArrayList.class, rawName)
+                .beginControlFlow("for (final $T $L : $L)", String.class, valueName, rawName)
+                .beginControlFlow("if ($L != null && !$L.isEmpty())", valueName, valueName)
+                .addStatement("$L.add($L)", name, this.parse(elementType, CodeBlock.of("$L", valueName)))
+                .endControlFlow()
+                .endControlFlow()
+                .nextControlFlow("else");
+
+        if (defaultValue != null) {
+            builder.addStatement("$L = $T.of($L)", name, List.class, this.constant(elementType, defaultValue, description));
+        } else if (required) {
+            builder.addStatement("throw new $T($S)", WebSocketProcessingException.class, requiredMessage(description));
+        } else {
+            builder.addStatement("$L = $T.of()", name, List.class);
+        }
+
+        return builder.endControlFlow().build();
+    }
+
+    private NameAllocator names(final VariableElement parameter) {
+        final NameAllocator names = new NameAllocator();
+        names.newName("context");
+        names.newName("messages");
+
+        ((ExecutableElement) parameter.getEnclosingElement()).getParameters()
+                .forEach(sibling -> names.newName(sibling.getSimpleName().toString()));
+
+        return names;
+    }
+
+    private CodeBlock fallback(final TypeMirror type, final String name, final String defaultValue,
+                               final boolean required, final String description) {
+
+        if (defaultValue != null) {
+            return CodeBlock.builder()
+                    .addStatement("$L = $L", name, this.constant(type, defaultValue, description))
+                    .build();
+        } else if (required) {
+            return CodeBlock.builder()
+                    .addStatement("throw new $T($S)", WebSocketProcessingException.class, requiredMessage(description))
+                    .build();
+        }
+
+        return CodeBlock.builder()
+                .addStatement("$L = $L", name, this.empty(type))
+                .build();
+    }
+
+    private CodeBlock parse(final TypeMirror type, final CodeBlock raw) {
+        if (type.getKind().isPrimitive()) {
+            return switch (type.getKind()) {
+                case BOOLEAN -> CodeBlock.of("$T.parseBoolean($L)", Boolean.class, raw);
+                case BYTE -> CodeBlock.of("$T.parseByte($L)", Byte.class, raw);
+                case SHORT -> CodeBlock.of("$T.parseShort($L)", Short.class, raw);
+                case INT -> CodeBlock.of("$T.parseInt($L)", Integer.class, raw);
+                case LONG -> CodeBlock.of("$T.parseLong($L)", Long.class, raw);
+                case FLOAT -> CodeBlock.of("$T.parseFloat($L)", Float.class, raw);
+                case DOUBLE -> CodeBlock.of("$T.parseDouble($L)", Double.class, raw);
+                case CHAR -> CodeBlock.of("$L.charAt(0)", raw);
+                default -> throw new WebSocketResolverException("Unsupported primitive type %s", type);
+            };
+        }
+
+        final PrimitiveType unboxed = this.unbox(type);
+        if (unboxed != null) {
+            return unboxed.getKind() == TypeKind.CHAR
+                    ? CodeBlock.of("$T.valueOf($L.charAt(0))", Character.class, raw)
+                    : CodeBlock.of("$T.valueOf($L)", TypeName.get(type), raw);
+        }
+
+        if (this.isSame(type, String.class)) {
+            return raw;
+        } else if (this.isSame(type, BigDecimal.class) || this.isSame(type, BigInteger.class)) {
+            return CodeBlock.of("new $T($L)", type, raw);
+        } else if (this.isEnum(type)) {
+            return CodeBlock.of("$T.valueOf($L)", type, raw);
+        }
+
+        return CodeBlock.of("$T.convert($L, $T.class)", TypeUtils.class, raw, this.types.erasure(type));
+    }
+
+    private CodeBlock constant(final TypeMirror type, final String value, final String description) {
+        final PrimitiveType primitive = type.getKind().isPrimitive() ? (PrimitiveType) type : this.unbox(type);
+
+        try {
+            if (primitive != null) {
+                return switch (primitive.getKind()) {
+                    case BOOLEAN -> CodeBlock.of("$L", Boolean.parseBoolean(value));
+                    case BYTE -> CodeBlock.of("(byte) $L", Byte.parseByte(value));
+                    case SHORT -> CodeBlock.of("(short) $L", Short.parseShort(value));
+                    case INT -> CodeBlock.of("$L", Integer.parseInt(value));
+                    case LONG -> CodeBlock.of("$LL", Long.parseLong(value));
+                    case FLOAT -> Float.isFinite(Float.parseFloat(value))
+                            ? CodeBlock.of("$Lf", Float.parseFloat(value))
+                            : CodeBlock.of("$T.parseFloat($S)", Float.class, value);
+                    case DOUBLE -> Double.isFinite(Double.parseDouble(value))
+                            ? CodeBlock.of("$Ld", Double.parseDouble(value))
+                            : CodeBlock.of("$T.parseDouble($S)", Double.class, value);
+                    case CHAR -> CodeBlock.of("(char) $L", (int) value.charAt(0));
+                    default -> throw new WebSocketResolverException("Unsupported primitive type %s", type);
+                };
+            }
+
+            if (this.isSame(type, String.class)) {
+                return CodeBlock.of("$S", value);
+            } else if (this.isSame(type, BigDecimal.class)) {
+                return CodeBlock.of("new $T($S)", type, new BigDecimal(value).toString());
+            } else if (this.isSame(type, BigInteger.class)) {
+                return CodeBlock.of("new $T($S)", type, new BigInteger(value).toString());
+            } else if (this.isEnum(type)) {
+                final boolean present = this.types.asElement(type).getEnclosedElements().stream()
+                        .filter(element -> element.getKind() == ElementKind.ENUM_CONSTANT)
+                        .anyMatch(element -> element.getSimpleName().contentEquals(value));
+
+                if (!present) {
+                    throw new IllegalArgumentException("No enum constant " + value);
+                }
+
+                return CodeBlock.of("$T.$L", type, value);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new WebSocketResolverException("Default value `%s` of %s is not a valid %s",
+                    value, description, type);
+        }
+
+        return CodeBlock.of("$T.convert($S, $T.class)", TypeUtils.class, value, this.types.erasure(type));
+    }
+
+    private CodeBlock empty(final TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> CodeBlock.of("false");
+            case BYTE -> CodeBlock.of("(byte) 0");
+            case SHORT -> CodeBlock.of("(short) 0");
+            case INT -> CodeBlock.of("0");
+            case LONG -> CodeBlock.of("0L");
+            case FLOAT -> CodeBlock.of("0.0f");
+            case DOUBLE -> CodeBlock.of("0.0d");
+            case CHAR -> CodeBlock.of("'\\u0000'");
+            default -> CodeBlock.of("null");
+        };
+    }
+
+    private PrimitiveType unbox(final TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        try {
+            return this.types.unboxedType(type);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isSame(final TypeMirror type, final Class<?> clazz) {
+        final TypeElement element = this.elements.getTypeElement(clazz.getCanonicalName());
+        return element != null && this.types.isSameType(type, element.asType());
+    }
+
+    private boolean isEnum(final TypeMirror type) {
+        if (type instanceof DeclaredType declaredType) {
+            final Element element = declaredType.asElement();
+            return element.getKind() == ElementKind.ENUM;
+        }
+
+        return false;
+    }
+
+    private static String requiredMessage(final String description) {
+        return String.format("%s is marked as required but was not present on request. Default value was not set.",
+                description);
+    }
+}
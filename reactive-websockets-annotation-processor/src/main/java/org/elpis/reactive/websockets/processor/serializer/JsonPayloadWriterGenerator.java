@@ -0,0 +1,417 @@
+package org.elpis.reactive.websockets.processor.serializer;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import org.elpis.reactive.websockets.processor.exception.WebSocketProcessorException;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Generates a reflection-free {@code JsonPayloadWriter} for records and simple POJOs.
+ *
+ * <p>Every supported type gets a static write method with its property names pre-encoded as constants. Properties
+ * of primitive, boxed, {@link CharSequence} and enum types are written directly, properties of other supported types
+ * through their own write methods, and anything else is left to the runtime {@code JsonMapper}.
+ *
+ * @author Alex Zharkov
+ * @since 1.0.0
+ */
+public final class JsonPayloadWriterGenerator {
+    private static final ClassName JSON_OUTPUT = ClassName.bestGuess("org.elpis.reactive.websockets.codec.JsonOutput");
+    private static final ClassName JSON_PAYLOAD_WRITER = ClassName.bestGuess("org.elpis.reactive.websockets.codec.JsonPayloadWriter");
+
+    private static final String JACKSON_ANNOTATIONS = "com.fasterxml.jackson.annotation.";
+    private static final String JSON_PROPERTY = JACKSON_ANNOTATIONS + "JsonProperty";
+    private static final String JSON_IGNORE = JACKSON_ANNOTATIONS + "JsonIgnore";
+
+    private static final Set<String> NUMBER_TYPES = Set.of("java.lang.Byte", "java.lang.Short", "java.lang.Integer",
+            "java.lang.Long", "java.lang.Float", "java.lang.Double", "java.math.BigInteger", "java.math.BigDecimal");
+
+    private final Elements elements;
+    private final Types types;
+
+    private final TypeSpec.Builder writer;
+    private final Map<String, String> writeMethods = new HashMap<>();
+    private final Map<String, String> constants = new HashMap<>();
+
+    public JsonPayloadWriterGenerator(final Elements elements, final Types types, final String className) {
+        this.elements = elements;
+        this.types = types;
+        this.writer = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(JSON_PAYLOAD_WRITER);
+    }
+
+    /**
+     * Generates the writer class for the given payload type.
+     *
+     * @param payloadType type emitted by the mapping method
+     * @return writer class
+     * @throws WebSocketProcessorException if the type is neither a record nor a simple POJO
+     * @since 1.0.0
+     */
+    public TypeSpec generate(final TypeMirror payloadType) {
+        final TypeElement element = this.getBeanElement(payloadType)
+                .orElseThrow(() -> new WebSocketProcessorException("Cannot generate serializer for `%s`. Reason: only " +
+                        "records and simple POJOs with public accessors are supported", payloadType));
+
+        final TypeName payloadTypeName = TypeName.get(this.types.erasure(element.asType()));
+        final String writeMethod = this.getWriteMethod(element);
+
+        return this.writer.addMethod(MethodSpec.methodBuilder("write")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(Object.class, "payload")
+                        .addParameter(JSON_OUTPUT, "output")
+                        .returns(boolean.class)
+                        .beginControlFlow("if (payload == null || payload.getClass() != $T.class)", payloadTypeName)
+                        .addStatement("return false")
+                        .endControlFlow()
+                        .addStatement("$L(output, ($T) payload)", writeMethod, payloadTypeName)
+                        .addStatement("return true")
+                        .build())
+                .build();
+    }
+
+    private String getWriteMethod(final TypeElement element) {
+        final String qualifiedName = element.getQualifiedName().toString();
+        final String existing = this.writeMethods.get(qualifiedName);
+        if (existing != null) {
+            return existing;
+        }
+
+        final String methodName = "write" + this.writeMethods.size();
+        this.writeMethods.put(qualifiedName, methodName);
+
+        final MethodSpec.Builder method = MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(JSON_OUTPUT, "output")
+                .addParameter(TypeName.get(this.types.erasure(element.asType())), "value")
+                .beginControlFlow("if (value == null)")
+                .addStatement("output.nullValue()")
+                .addStatement("return")
+                .endControlFlow();
+
+        final List<Property> properties = this.getProperties(element).orElseThrow();
+        for (int i = 0; i < properties.size(); i++) {
+            final Property property = properties.get(i);
+            final String prefix = (i == 0 ? "{" : ",") + this.quote(property.name()) + ":";
+
+            method.addStatement("output.raw($L)", this.getConstant(prefix));
+            method.addStatement(this.getValueStatement(property.type(), property.accessor()));
+        }
+
+        method.addStatement("output.raw($L)", this.getConstant("}"));
+
+        this.writer.addMethod(method.build());
+
+        return methodName;
+    }
+
+    private CodeBlock getValueStatement(final TypeMirror type, final CodeBlock accessor) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return CodeBlock.of("output.bool($L)", accessor);
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return CodeBlock.of("output.number((long) $L)", accessor);
+            case FLOAT:
+            case DOUBLE:
+                return CodeBlock.of("output.number($L)", accessor);
+            case CHAR:
+                return CodeBlock.of("output.string($L)", accessor);
+            case DECLARED:
+                break;
+            default:
+                return CodeBlock.of("output.value($L)", accessor);
+        }
+
+        final TypeElement element = (TypeElement) this.types.asElement(type);
+        final String qualifiedName = element.getQualifiedName().toString();
+
+        if ("java.lang.Boolean".equals(qualifiedName)) {
+            return CodeBlock.of("output.bool($L)", accessor);
+        } else if (NUMBER_TYPES.contains(qualifiedName)) {
+            return CodeBlock.of("output.number(($T) $L)", Number.class, accessor);
+        } else if (this.isAssignable(type, CharSequence.class)) {
+            return CodeBlock.of("output.string(($T) $L)", CharSequence.class, accessor);
+        } else if (element.getKind() == ElementKind.ENUM && !this.hasJacksonAnnotations(element)) {
+            return CodeBlock.of("output.string(($T) $L)", Enum.class, accessor);
+        }
+
+        return this.getBeanElement(type)
+                .map(bean -> CodeBlock.of("$L(output, $L)", this.getWriteMethod(bean), accessor))
+                .orElseGet(() -> CodeBlock.of("output.value($L)", accessor));
+    }
+
+    private Optional<TypeElement> getBeanElement(final TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return Optional.empty();
+        }
+
+        final TypeElement element = (TypeElement) this.types.asElement(type);
+        final String qualifiedName = element.getQualifiedName().toString();
+
+        if (this.writeMethods.containsKey(qualifiedName)) {
+            return Optional.of(element);
+        }
+
+        if ((element.getKind() != ElementKind.RECORD && element.getKind() != ElementKind.CLASS)
+                || element.getModifiers().contains(Modifier.ABSTRACT)
+                || !element.getModifiers().contains(Modifier.PUBLIC)
+                || qualifiedName.startsWith("java.") || qualifiedName.startsWith("javax.")
+                || this.isAssignable(type, Iterable.class) || this.isAssignable(type, Map.class)
+                || !this.isAccessible(element) || this.hasJacksonAnnotations(element)) {
+
+            return Optional.empty();
+        }
+
+        return this.getProperties(element)
+                .filter(properties -> !properties.isEmpty())
+                .map(properties -> element);
+    }
+
+    private Optional<List<Property>> getProperties(final TypeElement element) {
+        final Map<String, Property> properties = new LinkedHashMap<>();
+
+        if (element.getKind() == ElementKind.RECORD) {
+            for (final RecordComponentElement component : element.getRecordComponents()) {
+                final ExecutableElement accessor = component.getAccessor();
+                final VariableElement field = this.getField(element, component.getSimpleName().toString());
+
+                if (!this.isIgnored(component, accessor, field)) {
+                    final String name = this.getPropertyName(component.getSimpleName().toString(), component,
+                            accessor, field);
+                    properties.putIfAbsent(name, new Property(name, component.asType(),
+                            CodeBlock.of("value.$L()", accessor.getSimpleName())));
+                }
+            }
+
+            return Optional.of(new ArrayList<>(properties.values()));
+        }
+
+        for (TypeElement type = element; type != null && !Object.class.getCanonicalName()
+                .equals(type.getQualifiedName().toString()); type = this.getSuperclass(type)) {
+
+            for (final ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                final String implicitName = this.getGetterName(method);
+                if (implicitName == null || !this.isPublicMember(method)) {
+                    continue;
+                }
+
+                final VariableElement field = this.getField(type, implicitName);
+                if (!this.isIgnored(method, field)) {
+                    final String name = this.getPropertyName(implicitName, method, field);
+                    properties.putIfAbsent(name, new Property(name, method.getReturnType(),
+                            CodeBlock.of("value.$L()", method.getSimpleName())));
+                }
+            }
+
+            for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC) || this.isIgnored(field)) {
+                    continue;
+                }
+
+                final String name = this.getPropertyName(field.getSimpleName().toString(), field);
+                if (properties.containsKey(name)) {
+                    continue;
+                }
+
+                if (field.getModifiers().contains(Modifier.PUBLIC)) {
+                    properties.put(name, new Property(name, field.asType(),
+                            CodeBlock.of("value.$L", field.getSimpleName())));
+                } else if (this.getAnnotation(field, JSON_PROPERTY) != null) {
+                    // explicitly serialized private field that can only be reached through reflection
+                    return Optional.empty();
+                }
+            }
+        }
+
+        return Optional.of(new ArrayList<>(properties.values()));
+    }
+
+    private String getGetterName(final ExecutableElement method) {
+        if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID
+                || !method.getTypeParameters().isEmpty()) {
+
+            return null;
+        }
+
+        final String methodName = method.getSimpleName().toString();
+        if (methodName.startsWith("get") && methodName.length() > 3 && !"getClass".equals(methodName)) {
+            return this.mangle(methodName.substring(3));
+        } else if (methodName.startsWith("is") && methodName.length() > 2
+                && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+
+            return this.mangle(methodName.substring(2));
+        }
+
+        return null;
+    }
+
+    // same as Jackson's default property naming: leading upper case characters are lower cased
+    private String mangle(final String name) {
+        final StringBuilder builder = new StringBuilder(name);
+        for (int i = 0; i < builder.length(); i++) {
+            final char upper = builder.charAt(i);
+            final char lower = Character.toLowerCase(upper);
+            if (upper == lower) {
+                break;
+            }
+
+            builder.setCharAt(i, lower);
+        }
+
+        return builder.toString();
+    }
+
+    private boolean isAccessible(final TypeElement element) {
+        for (Element enclosing = element; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            if (!enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isPublicMember(final Element element) {
+        return element.getModifiers().contains(Modifier.PUBLIC) && !element.getModifiers().contains(Modifier.STATIC);
+    }
+
+    private TypeElement getSuperclass(final TypeElement element) {
+        final TypeMirror superclass = element.getSuperclass();
+
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) this.types.asElement(superclass) : null;
+    }
+
+    private VariableElement getField(final TypeElement element, final String name) {
+        return ElementFilter.fieldsIn(element.getEnclosedElements())
+                .stream()
+                .filter(field -> field.getSimpleName().contentEquals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private boolean isIgnored(final Element... elements) {
+        for (final Element element : elements) {
+            final AnnotationMirror ignore = this.getAnnotation(element, JSON_IGNORE);
+            if (ignore != null && !Boolean.FALSE.equals(this.getValue(ignore))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private String getPropertyName(final String implicitName, final Element... elements) {
+        for (final Element element : elements) {
+            final AnnotationMirror property = this.getAnnotation(element, JSON_PROPERTY);
+            final Object value = property != null ? this.getValue(property) : null;
+
+            if (value instanceof String name && !name.isEmpty()) {
+                return name;
+            }
+        }
+
+        return implicitName;
+    }
+
+    private boolean hasJacksonAnnotations(final TypeElement element) {
+        final List<Element> annotated = new ArrayList<>(element.getEnclosedElements());
+        annotated.add(element);
+
+        return annotated.stream()
+                .flatMap(annotatedElement -> annotatedElement.getAnnotationMirrors().stream())
+                .map(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())
+                .anyMatch(name -> (name.startsWith(JACKSON_ANNOTATIONS) || name.startsWith("com.fasterxml.jackson.databind.annotation."))
+                        && !JSON_PROPERTY.equals(name) && !JSON_IGNORE.equals(name));
+    }
+
+    private AnnotationMirror getAnnotation(final Element element, final String annotationType) {
+        if (element == null) {
+            return null;
+        }
+
+        return element.getAnnotationMirrors()
+                .stream()
+                .filter(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                        .contentEquals(annotationType))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Object getValue(final AnnotationMirror annotation) {
+        return annotation.getElementValues()
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().getSimpleName().contentEquals("value"))
+                .map(Map.Entry::getValue)
+                .map(AnnotationValue::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private boolean isAssignable(final TypeMirror type, final Class<?> target) {
+        final TypeElement targetElement = this.elements.getTypeElement(target.getCanonicalName());
+
+        return this.types.isAssignable(this.types.erasure(type), this.types.erasure(targetElement.asType()));
+    }
+
+    private String getConstant(final String value) {
+        return this.constants.computeIfAbsent(value, key -> {
+            final String name = "JSON_" + this.constants.size();
+            this.writer.addField(FieldSpec.builder(byte[].class, name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$S.getBytes($T.UTF_8)", key, StandardCharsets.class)
+                    .build());
+
+            return name;
+        });
+    }
+
+    private String quote(final String name) {
+        final StringBuilder builder = new StringBuilder("\"");
+        for (final char c : name.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.append('"').toString();
+    }
+
+    private record Property(String name, TypeMirror type, CodeBlock accessor) {
+    }
+}
@@ -0,0 +1,25 @@
+package org.elpis.reactive.websockets.config;
+
+/**
+ * What to do with the outbound messages of a session whose client doesn't keep up.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.web.annotation.OutboundBuffer
+ * @since 1.0.0
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * Evict the oldest buffered message once the buffer is full.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Keep only the latest message not sent yet, buffer size is ignored.
+     */
+    CONFLATE_LATEST,
+
+    /**
+     * Close the session with {@code 1008 POLICY_VIOLATION} once the buffer is full.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,14 @@
+package org.elpis.reactive.websockets.exception;
+
+/**
+ * Exception thrown by codecs if a payload can't be encoded.
+ *
+ * @author Alex Zharkov
+ * @since 1.0.0
+ */
+public class WebSocketCodecException extends RuntimeException {
+
+    public WebSocketCodecException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,6 +2,7 @@ package org.elpis.reactive.websockets.session;
 
 import org.springframework.web.reactive.socket.CloseStatus;
 
+import java.security.Principal;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.function.BiConsumer;
@@ -9,6 +10,8 @@ import java.util.function.BooleanSupplier;
 
 public class ReactiveWebSocketSession {
     private final String sessionId;
+    private final String pathTemplate;
+    private final Principal principal;
 
     private final BooleanSupplier isOpen;
     private final BiConsumer<String, CloseStatus> onClose;
@@ -16,10 +19,14 @@ public class ReactiveWebSocketSession {
     private final Instant timestamp = Instant.now();
 
     private ReactiveWebSocketSession(final String sessionId,
+                                     final String pathTemplate,
+                                     final Principal principal,
                                      final BooleanSupplier isOpen,
                                      final BiConsumer<String, CloseStatus> onClose) {
 
         this.sessionId = sessionId;
+        this.pathTemplate = pathTemplate;
+        this.principal = principal;
         this.isOpen = isOpen;
         this.onClose = onClose;
     }
@@ -40,6 +47,14 @@ public class ReactiveWebSocketSession {
         return sessionId;
     }
 
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    public Principal getPrincipal() {
+        return principal;
+    }
+
     public Instant getTimestamp() {
         return timestamp;
     }
@@ -52,6 +67,8 @@ public class ReactiveWebSocketSession {
         private BooleanSupplier isOpen = () -> true;
         private BiConsumer<String, CloseStatus> onClose;
         private String sessionId;
+        private String pathTemplate;
+        private Principal principal;
 
         public Builder isOpen(BooleanSupplier isOpen) {
             this.isOpen = Optional.ofNullable(isOpen)
@@ -65,13 +82,24 @@ public class ReactiveWebSocketSession {
             return this;
         }
 
+        public Builder pathTemplate(final String pathTemplate) {
+            this.pathTemplate = pathTemplate;
+            return this;
+        }
+
+        public Builder principal(final Principal principal) {
+            this.principal = principal;
+            return this;
+        }
+
         public Builder onClose(final BiConsumer<String, CloseStatus> onClose) {
             this.onClose = onClose;
             return this;
         }
 
         public ReactiveWebSocketSession build() {
-            return new ReactiveWebSocketSession(this.sessionId, this.isOpen, this.onClose);
+            return new ReactiveWebSocketSession(this.sessionId, this.pathTemplate, this.principal,
+                    this.isOpen, this.onClose);
         }
     }
 }
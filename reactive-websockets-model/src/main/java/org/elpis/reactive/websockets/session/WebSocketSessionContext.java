@@ -2,8 +2,10 @@ package org.elpis.reactive.websockets.session;
 
 import org.elpis.reactive.websockets.security.principal.Anonymous;
 import org.elpis.reactive.websockets.util.TypeUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.http.HttpHeaders;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -11,22 +13,39 @@ import org.springframework.util.StringUtils;
 
 import java.security.Principal;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class WebSocketSessionContext {
-    private static final SpelExpressionParser SPEL_EXPRESSION_PARSER = new SpelExpressionParser();
+    private static final SpelExpressionParser SPEL_EXPRESSION_PARSER = new SpelExpressionParser(new SpelParserConfiguration(
+            SpelCompilerMode.MIXED, WebSocketSessionContext.class.getClassLoader()));
 
-    private Map<String, String> pathParameters = new HashMap<>();
+    private static final Map<String, Expression> PRINCIPAL_EXPRESSIONS = new ConcurrentHashMap<>();
 
-    private MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<>();
+    // Parsed on first access from the suppliers, most handlers never read some of them
+    private volatile Map<String, String> pathParameters = new HashMap<>();
+    private Supplier<Map<String, String>> pathParametersSupplier;
 
-    private HttpHeaders headers = new HttpHeaders();
+    private volatile MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<>();
+    private Supplier<MultiValueMap<String, String>> queryParametersSupplier;
+
+    private volatile HttpHeaders headers = new HttpHeaders();
+    private Supplier<HttpHeaders> headersSupplier;
 
     private Principal authentication = new Anonymous();
 
     private String sessionId;
 
+    private String subProtocol;
+
     public Map<String, String> getPathParameters() {
+        Map<String, String> pathParameters = this.pathParameters;
+        if (pathParameters == null && this.pathParametersSupplier != null) {
+            pathParameters = this.pathParametersSupplier.get();
+            this.pathParameters = pathParameters;
+        }
+
         return pathParameters;
     }
 
@@ -34,7 +53,24 @@ public class WebSocketSessionContext {
         this.pathParameters = pathParameters;
     }
 
+    /**
+     * Sets path parameters to be resolved on first access.
+     *
+     * @param pathParametersSupplier path parameters supplier
+     * @since 1.0.0
+     */
+    public void setPathParametersSupplier(Supplier<Map<String, String>> pathParametersSupplier) {
+        this.pathParametersSupplier = pathParametersSupplier;
+        this.pathParameters = null;
+    }
+
     public MultiValueMap<String, String> getQueryParameters() {
+        MultiValueMap<String, String> queryParameters = this.queryParameters;
+        if (queryParameters == null && this.queryParametersSupplier != null) {
+            queryParameters = this.queryParametersSupplier.get();
+            this.queryParameters = queryParameters;
+        }
+
         return queryParameters;
     }
 
@@ -42,7 +78,24 @@ public class WebSocketSessionContext {
         this.queryParameters = queryParameters;
     }
 
+    /**
+     * Sets query parameters to be resolved on first access.
+     *
+     * @param queryParametersSupplier query parameters supplier
+     * @since 1.0.0
+     */
+    public void setQueryParametersSupplier(Supplier<MultiValueMap<String, String>> queryParametersSupplier) {
+        this.queryParametersSupplier = queryParametersSupplier;
+        this.queryParameters = null;
+    }
+
     public HttpHeaders getHeaders() {
+        HttpHeaders headers = this.headers;
+        if (headers == null && this.headersSupplier != null) {
+            headers = this.headersSupplier.get();
+            this.headers = headers;
+        }
+
         return headers;
     }
 
@@ -50,6 +103,17 @@ public class WebSocketSessionContext {
         this.headers = headers;
     }
 
+    /**
+     * Sets headers to be resolved on first access.
+     *
+     * @param headersSupplier headers supplier
+     * @since 1.0.0
+     */
+    public void setHeadersSupplier(Supplier<HttpHeaders> headersSupplier) {
+        this.headersSupplier = headersSupplier;
+        this.headers = null;
+    }
+
     public Principal getAuthentication() {
         return authentication;
     }
@@ -66,20 +130,83 @@ public class WebSocketSessionContext {
         this.sessionId = sessionId;
     }
 
+    public String getSubProtocol() {
+        return subProtocol;
+    }
+
+    public void setSubProtocol(String subProtocol) {
+        this.subProtocol = subProtocol;
+    }
+
+    /**
+     * Returns raw value of the path variable, {@code null} if absent.
+     *
+     * @param name path variable name
+     * @return path variable value
+     * @since 1.0.0
+     */
+    public String getPathVariable(final String name) {
+        return this.getPathParameters().get(name);
+    }
+
+    /**
+     * Returns raw first value of the query parameter, {@code null} if absent.
+     *
+     * @param name query parameter name
+     * @return first query parameter value
+     * @since 1.0.0
+     */
+    public String getQueryParam(final String name) {
+        return this.getQueryParameters().getFirst(name);
+    }
+
+    /**
+     * Returns raw values of the query parameter, {@code null} if absent.
+     *
+     * @param name query parameter name
+     * @return query parameter values
+     * @since 1.0.0
+     */
+    public List<String> getQueryParams(final String name) {
+        return this.getQueryParameters().get(name);
+    }
+
+    /**
+     * Returns raw first value of the header, {@code null} if absent.
+     *
+     * @param name header name
+     * @return first header value
+     * @since 1.0.0
+     */
+    public String getHeader(final String name) {
+        return this.getHeaders().getFirst(name);
+    }
+
+    /**
+     * Returns raw values of the header, {@code null} if absent.
+     *
+     * @param name header name
+     * @return header values
+     * @since 1.0.0
+     */
+    public List<String> getHeaders(final String name) {
+        return this.getHeaders().get(name);
+    }
+
     public <T> Optional<T> getPathVariable(final String header, final Class<T> type) {
-        return Optional.ofNullable(this.pathParameters.get(header))
+        return Optional.ofNullable(this.getPathParameters().get(header))
                 .map(value -> TypeUtils.convert(value, type));
     }
 
     public <T> Optional<T> getQueryParam(final String queryParam, final String defaultValue, final Class<T> type) {
-        return Optional.ofNullable(this.queryParameters.get(queryParam))
+        return Optional.ofNullable(this.getQueryParameters().get(queryParam))
                 .map(h -> h.stream().findFirst())
                 .orElse(Optional.ofNullable(defaultValue))
                 .map(value -> TypeUtils.convert(value, type));
     }
 
     public <T> List<T> getQueryParams(final String queryParam, final String defaultValue, final Class<T> type) {
-        return Optional.ofNullable(this.queryParameters.get(queryParam))
+        return Optional.ofNullable(this.getQueryParameters().get(queryParam))
                 .filter(headerList -> !headerList.isEmpty())
                 .orElse(Optional.ofNullable(defaultValue).map(List::of).orElseGet(List::of))
                 .stream()
@@ -89,14 +216,14 @@ public class WebSocketSessionContext {
     }
 
     public <T> Optional<T> getHeader(final String header, final String defaultValue, final Class<T> type) {
-        return Optional.ofNullable(this.headers.get(header))
+        return Optional.ofNullable(this.getHeaders().get(header))
                 .map(h -> h.stream().findFirst())
                 .orElse(Optional.ofNullable(defaultValue))
                 .map(value -> TypeUtils.convert(value, type));
     }
 
     public <T> List<T> getHeaders(final String header, final String defaultValue, final Class<T> type) {
-        return Optional.ofNullable(this.headers.get(header))
+        return Optional.ofNullable(this.getHeaders().get(header))
                 .filter(headerList -> !headerList.isEmpty())
                 .orElse(Optional.ofNullable(defaultValue).map(List::of).orElseGet(List::of))
                 .stream()
@@ -122,10 +249,9 @@ public class WebSocketSessionContext {
     }
 
     private Principal parseExpression(final String expression) {
-        StandardEvaluationContext context = new StandardEvaluationContext();
-        context.setRootObject(this.getAuthentication());
-        context.setVariable("this", this.getAuthentication());
-        return SPEL_EXPRESSION_PARSER.parseExpression(expression).getValue(context, Principal.class);
+        // Root object is exposed as #this as well, no per-call evaluation context needed
+        return PRINCIPAL_EXPRESSIONS.computeIfAbsent(expression, SPEL_EXPRESSION_PARSER::parseExpression)
+                .getValue(this.getAuthentication(), Principal.class);
     }
 
     public static Builder builder() {
@@ -150,6 +276,21 @@ public class WebSocketSessionContext {
             return this;
         }
 
+        public Builder pathParametersSupplier(Supplier<Map<String, String>> pathParametersSupplier) {
+            this.context.setPathParametersSupplier(pathParametersSupplier);
+            return this;
+        }
+
+        public Builder queryParametersSupplier(Supplier<MultiValueMap<String, String>> queryParametersSupplier) {
+            this.context.setQueryParametersSupplier(queryParametersSupplier);
+            return this;
+        }
+
+        public Builder headersSupplier(Supplier<HttpHeaders> headersSupplier) {
+            this.context.setHeadersSupplier(headersSupplier);
+            return this;
+        }
+
         public Builder authentication(Principal authentication) {
             this.context.setAuthentication(authentication);
             return this;
@@ -160,6 +301,11 @@ public class WebSocketSessionContext {
             return this;
         }
 
+        public Builder subProtocol(String subProtocol) {
+            this.context.setSubProtocol(subProtocol);
+            return this;
+        }
+
         public WebSocketSessionContext build() {
             return this.context;
         }
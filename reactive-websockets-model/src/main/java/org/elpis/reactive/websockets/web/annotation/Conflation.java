@@ -0,0 +1,24 @@
+package org.elpis.reactive.websockets.web.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Sends only the newest message per key to sessions that can't keep up with a "latest value per key" feed, such as
+ * prices or presence. Intermediate messages of a key are dropped while the session is not writable, and pending keys
+ * are flushed once it drains.
+ *
+ * @author Alex Zharkov
+ * @see SocketMapping#conflation()
+ * @since 1.0.0
+ */
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Conflation {
+    /**
+     * SpEL expression evaluated against each payload to get its key, e.g. {@code symbol} or {@code ['symbol']}.
+     */
+    String key() default "";
+
+    boolean enabled() default true;
+}
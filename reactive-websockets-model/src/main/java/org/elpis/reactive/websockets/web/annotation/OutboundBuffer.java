@@ -0,0 +1,28 @@
+package org.elpis.reactive.websockets.web.annotation;
+
+import org.elpis.reactive.websockets.config.SlowConsumerPolicy;
+
+import java.lang.annotation.*;
+
+/**
+ * Puts a bounded buffer between the publisher of a mapping and every session it is sent to. Sessions are drained
+ * independently, so a stalled client neither slows down the others nor makes the server buffer without limit.
+ *
+ * @author Alex Zharkov
+ * @see SocketMapping#outboundBuffer()
+ * @see SlowConsumerPolicy
+ * @since 1.0.0
+ */
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OutboundBuffer {
+    /**
+     * Maximum number of messages buffered per session, the high-water mark for {@link SlowConsumerPolicy#DISCONNECT}.
+     */
+    int size() default 256;
+
+    SlowConsumerPolicy policy() default SlowConsumerPolicy.DROP_OLDEST;
+
+    boolean enabled() default true;
+}
@@ -0,0 +1,35 @@
+package org.elpis.reactive.websockets.web.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Keeps the last {@link #size()} messages broadcast by a {@link SharedPublisher shared publisher} in a ring buffer, so
+ * that a late joiner can ask for recent history in its handshake query instead of the mapping method re-querying it.
+ * Each group of sessions sharing an upstream has a ring of its own, discarded along with the upstream, and messages are
+ * numbered within it starting from {@code 1}. Replayed messages are encoded once per codec and reused for every later joiner.
+ *
+ * <p>E.g. {@code ?replayLast=10} sends the last ten messages before the live ones, {@code ?replaySince=42} sends every
+ * retained message numbered above {@code 42}.
+ *
+ * @author Alex Zharkov
+ * @see SocketMapping#replay()
+ * @since 1.0.0
+ */
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Replay {
+    int size() default 64;
+
+    /**
+     * Query parameter with the number of most recent messages to replay.
+     */
+    String lastParameter() default "replayLast";
+
+    /**
+     * Query parameter with the number of the last message already seen by the client.
+     */
+    String sinceParameter() default "replaySince";
+
+    boolean enabled() default true;
+}
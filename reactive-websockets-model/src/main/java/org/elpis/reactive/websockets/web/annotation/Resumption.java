@@ -0,0 +1,30 @@
+package org.elpis.reactive.websockets.web.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Lets a client that lost its connection reattach to its previous session instead of starting a new one.
+ *
+ * <p>Every handshake is answered with an {@code X-Resume-Token} response header. A client that reconnects within
+ * {@link #ttl()} and presents the token, either in the same header or in the {@code resumeToken} query parameter, gets
+ * back the session it had: same session id, same subscription to the mapping method's publisher, and the messages
+ * published while it was away, which are kept in an outbox of {@link #outboxSize()} messages. A session whose outbox
+ * overflows while no client is attached can no longer be resumed without a gap, so it is dropped right away.
+ *
+ * @author Alex Zharkov
+ * @see SocketMapping#resumption()
+ * @since 1.0.0
+ */
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Resumption {
+    /**
+     * How long a detached session waits for its client to come back, in milliseconds.
+     */
+    long ttl() default 30_000L;
+
+    int outboxSize() default 256;
+
+    boolean enabled() default true;
+}
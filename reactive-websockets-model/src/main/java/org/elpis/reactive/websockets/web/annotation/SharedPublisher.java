@@ -0,0 +1,45 @@
+package org.elpis.reactive.websockets.web.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Makes all sessions of a {@link org.elpis.reactive.websockets.config.Mode#SHARED Mode.SHARED} mapping with equal
+ * values of the listed path variables, query parameters, headers and, optionally, principal share one upstream
+ * publisher. The mapping method is invoked by the first of such sessions only, and the upstream is cancelled once the
+ * last of them disconnects.
+ *
+ * <p>Since every session of a group receives what the method returned for the first one, the method may only bind
+ * values that are part of the key: a parameter bound to anything else, e.g. an unlisted header or the request body, is
+ * rejected at compile time.
+ *
+ * @author Alex Zharkov
+ * @see SocketMapping#sharedPublisher()
+ * @since 1.0.0
+ */
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SharedPublisher {
+    String[] pathVariables() default {};
+
+    String[] queryParameters() default {};
+
+    String[] headers() default {};
+
+    /**
+     * Adds the name of the session principal to the key, so that sessions of different users never share a publisher.
+     *
+     * @since 1.0.0
+     */
+    boolean principal() default false;
+
+    /**
+     * Encodes each message of the shared upstream once for all sessions it is sent to, instead of once per session.
+     * Encoded bytes are kept for the duration of that one emission only.
+     *
+     * @since 1.0.0
+     */
+    boolean encodeOnce() default false;
+
+    boolean enabled() default true;
+}
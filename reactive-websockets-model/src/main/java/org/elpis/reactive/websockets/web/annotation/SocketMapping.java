@@ -14,4 +14,23 @@ public @interface SocketMapping {
     Mode mode();
 
     Ping ping() default @Ping(enabled = false);
+
+    SharedPublisher sharedPublisher() default @SharedPublisher(enabled = false);
+
+    OutboundBuffer outboundBuffer() default @OutboundBuffer(enabled = false);
+
+    Conflation conflation() default @Conflation(enabled = false);
+
+    Replay replay() default @Replay(enabled = false);
+
+    Resumption resumption() default @Resumption(enabled = false);
+
+    /**
+     * Makes the annotation processor generate a reflection-free JSON writer for the records or simple POJOs emitted by
+     * the mapping method. Property names follow {@code @JsonProperty} and {@code @JsonIgnore}, other Jackson settings of
+     * the application mapper are not applied to generated properties.
+     *
+     * @since 1.0.0
+     */
+    boolean generateSerializer() default false;
 }
@@ -0,0 +1,81 @@
+package org.elpis.reactive.websockets.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.elpis.reactive.websockets.exception.WebSocketCodecException;
+import org.elpis.reactive.websockets.mapper.JsonMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link WebSocketCodec} producing binary frames with a Jackson binary dataformat, e.g. CBOR, Smile or MessagePack.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.config.codec.WebSocketCodecConfiguration
+ * @since 1.0.0
+ */
+public class JacksonBinaryWebSocketCodec implements WebSocketCodec {
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final String subProtocol;
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JacksonBinaryWebSocketCodec(final String subProtocol, final ObjectMapper objectMapper) {
+        this.subProtocol = subProtocol;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getSubProtocol() {
+        return this.subProtocol;
+    }
+
+    @Override
+    public WebSocketMessage.Type getMessageType() {
+        return WebSocketMessage.Type.BINARY;
+    }
+
+    @Override
+    public DataBuffer encode(final Object payload, final DataBufferFactory bufferFactory) {
+        final DataBuffer dataBuffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        boolean release = true;
+
+        try (OutputStream outputStream = dataBuffer.asOutputStream()) {
+            this.writers.computeIfAbsent(payload.getClass(), this.objectMapper::writerFor)
+                    .writeValue(outputStream, payload);
+
+            release = false;
+            return dataBuffer;
+        } catch (IOException e) {
+            throw new WebSocketCodecException("Unable to encode " + payload.getClass() + " instance with "
+                    + this.subProtocol + " codec", e);
+        } finally {
+            if (release) {
+                DataBufferUtils.release(dataBuffer);
+            }
+        }
+    }
+
+    @Override
+    public <T> T decode(final DataBuffer dataBuffer, final Type type) {
+        try {
+            return JsonMapper.readValue(this.readers.computeIfAbsent(type, key -> this.objectMapper
+                    .readerFor(this.objectMapper.constructType(key))), dataBuffer);
+        } catch (IOException e) {
+            throw new WebSocketCodecException("Unable to decode " + type.getTypeName() + " instance with "
+                    + this.subProtocol + " codec", e);
+        }
+    }
+
+}
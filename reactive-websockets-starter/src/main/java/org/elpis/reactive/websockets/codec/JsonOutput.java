@@ -0,0 +1,165 @@
+package org.elpis.reactive.websockets.codec;
+
+import org.elpis.reactive.websockets.mapper.JsonMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal JSON output over a {@link DataBuffer}, used by generated {@link JsonPayloadWriter JsonPayloadWriters}.
+ *
+ * <p>The writer knows the structure of its payload at compile time, so it writes property names and separators as
+ * pre-encoded {@link #raw(byte[]) raw} bytes and only values are encoded at runtime. Values of types it doesn't
+ * support are written through the {@link JsonWebSocketCodec} of the output, or {@link JsonMapper} if there is none.
+ *
+ * @author Alex Zharkov
+ * @see JsonPayloadWriter
+ * @since 1.0.0
+ */
+public final class JsonOutput {
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final DataBuffer dataBuffer;
+    private final JsonWebSocketCodec codec;
+
+    public JsonOutput(final DataBuffer dataBuffer) {
+        this(dataBuffer, null);
+    }
+
+    public JsonOutput(final DataBuffer dataBuffer, final JsonWebSocketCodec codec) {
+        this.dataBuffer = dataBuffer;
+        this.codec = codec;
+    }
+
+    public void raw(final byte[] bytes) {
+        this.dataBuffer.write(bytes);
+    }
+
+    public void nullValue() {
+        this.dataBuffer.write(NULL);
+    }
+
+    public void bool(final boolean value) {
+        this.dataBuffer.write(value ? TRUE : FALSE);
+    }
+
+    public void bool(final Boolean value) {
+        if (value == null) {
+            this.nullValue();
+        } else {
+            this.bool(value.booleanValue());
+        }
+    }
+
+    public void number(final long value) {
+        this.dataBuffer.write(Long.toString(value), StandardCharsets.US_ASCII);
+    }
+
+    public void number(final double value) {
+        if (Double.isFinite(value)) {
+            this.dataBuffer.write(Double.toString(value), StandardCharsets.US_ASCII);
+        } else {
+            this.string(Double.toString(value));
+        }
+    }
+
+    public void number(final float value) {
+        if (Float.isFinite(value)) {
+            this.dataBuffer.write(Float.toString(value), StandardCharsets.US_ASCII);
+        } else {
+            this.string(Float.toString(value));
+        }
+    }
+
+    public void number(final Number value) {
+        if (value == null) {
+            this.nullValue();
+        } else if (value instanceof Double doubleValue) {
+            this.number(doubleValue.doubleValue());
+        } else if (value instanceof Float floatValue) {
+            this.number(floatValue.floatValue());
+        } else {
+            this.dataBuffer.write(value.toString(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    public void string(final char value) {
+        this.string(String.valueOf(value));
+    }
+
+    /**
+     * Writes a quoted and escaped string. Runs of characters that need no escaping are encoded to UTF-8 in one go.
+     *
+     * @param value string or {@code null}
+     * @since 1.0.0
+     */
+    public void string(final CharSequence value) {
+        if (value == null) {
+            this.nullValue();
+            return;
+        }
+
+        this.dataBuffer.write((byte) '"');
+
+        int start = 0;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x20 || c == '"' || c == '\\') {
+                if (i > start) {
+                    this.dataBuffer.write(value.subSequence(start, i), StandardCharsets.UTF_8);
+                }
+
+                this.escape(c);
+                start = i + 1;
+            }
+        }
+
+        if (length > start) {
+            this.dataBuffer.write(start == 0 ? value : value.subSequence(start, length), StandardCharsets.UTF_8);
+        }
+
+        this.dataBuffer.write((byte) '"');
+    }
+
+    public void string(final Enum<?> value) {
+        this.string(value != null ? value.name() : null);
+    }
+
+    /**
+     * Writes any other value through the codec of this output, or {@link JsonMapper} if there is none.
+     *
+     * @param value value or {@code null}
+     * @since 1.0.0
+     */
+    public void value(final Object value) {
+        if (value == null) {
+            this.nullValue();
+        } else if (value instanceof CharSequence charSequence) {
+            this.string(charSequence);
+        } else if (this.codec != null) {
+            this.codec.write(value, this.dataBuffer);
+        } else {
+            this.dataBuffer.write(JsonMapper.applyWithFallback(value), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void escape(final char c) {
+        final byte[] escaped = switch (c) {
+            case '"' -> new byte[]{'\\', '"'};
+            case '\\' -> new byte[]{'\\', '\\'};
+            case '\n' -> new byte[]{'\\', 'n'};
+            case '\r' -> new byte[]{'\\', 'r'};
+            case '\t' -> new byte[]{'\\', 't'};
+            case '\b' -> new byte[]{'\\', 'b'};
+            case '\f' -> new byte[]{'\\', 'f'};
+            default -> new byte[]{'\\', 'u', '0', '0', HEX[c >> 4], HEX[c & 0xF]};
+        };
+
+        this.dataBuffer.write(escaped);
+    }
+}
@@ -0,0 +1,23 @@
+package org.elpis.reactive.websockets.codec;
+
+/**
+ * Reflection-free JSON writer of a single payload type, generated by the annotation processor for mappings with
+ * {@link org.elpis.reactive.websockets.web.annotation.SocketMapping#generateSerializer() generateSerializer} enabled.
+ *
+ * @author Alex Zharkov
+ * @see PayloadWriterWebSocketCodec
+ * @since 1.0.0
+ */
+public interface JsonPayloadWriter {
+
+    /**
+     * Writes the payload if it's of the supported type.
+     *
+     * @param payload any payload
+     * @param output  target output
+     * @return {@code false} if the payload isn't supported and nothing was written
+     * @since 1.0.0
+     */
+    boolean write(Object payload, JsonOutput output);
+
+}
@@ -0,0 +1,98 @@
+package org.elpis.reactive.websockets.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.elpis.reactive.websockets.exception.WebSocketCodecException;
+import org.elpis.reactive.websockets.mapper.JsonMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default {@link WebSocketCodec} producing and reading JSON text frames with its own {@link ObjectMapper}.
+ * {@link String} payloads are written as they are, UTF-8 encoded.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.config.codec.WebSocketCodecConfiguration
+ * @since 1.0.0
+ */
+public final class JsonWebSocketCodec implements WebSocketCodec {
+    public static final String SUB_PROTOCOL = "json";
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JsonWebSocketCodec() {
+        this(new ObjectMapper());
+    }
+
+    public JsonWebSocketCodec(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getSubProtocol() {
+        return SUB_PROTOCOL;
+    }
+
+    @Override
+    public WebSocketMessage.Type getMessageType() {
+        return WebSocketMessage.Type.TEXT;
+    }
+
+    @Override
+    public DataBuffer encode(final Object payload, final DataBufferFactory bufferFactory) {
+        final DataBuffer dataBuffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        boolean release = true;
+
+        try {
+            if (payload instanceof String value) {
+                dataBuffer.write(value, StandardCharsets.UTF_8);
+            } else {
+                this.write(payload, dataBuffer);
+            }
+
+            release = false;
+            return dataBuffer;
+        } catch (RuntimeJsonMappingException e) {
+            throw new WebSocketCodecException(e.getMessage(), e);
+        } finally {
+            if (release) {
+                DataBufferUtils.release(dataBuffer);
+            }
+        }
+    }
+
+    @Override
+    public <T> T decode(final DataBuffer dataBuffer, final Type type) {
+        try {
+            return JsonMapper.readValue(this.readers.computeIfAbsent(type, key -> this.objectMapper
+                    .readerFor(this.objectMapper.constructType(key))), dataBuffer);
+        } catch (IOException e) {
+            throw new WebSocketCodecException("Unable to translate DataBuffer.class to " + type.getTypeName(), e);
+        }
+    }
+
+    void write(final Object value, final DataBuffer dataBuffer) {
+        try (OutputStream outputStream = dataBuffer.asOutputStream()) {
+            this.writers.computeIfAbsent(value.getClass(), this.objectMapper::writerFor)
+                    .writeValue(outputStream, value);
+        } catch (IOException e) {
+            throw new RuntimeJsonMappingException("Unable to translate " + value.getClass() + " instance to DataBuffer.class");
+        }
+    }
+
+}
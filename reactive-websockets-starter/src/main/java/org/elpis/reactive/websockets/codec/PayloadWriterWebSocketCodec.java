@@ -0,0 +1,64 @@
+package org.elpis.reactive.websockets.codec;
+
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.elpis.reactive.websockets.exception.WebSocketCodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.lang.reflect.Type;
+
+/**
+ * JSON {@link WebSocketCodec} that encodes payloads supported by a {@link JsonPayloadWriter} with it, and everything
+ * else with the delegate codec.
+ *
+ * @author Alex Zharkov
+ * @see JsonPayloadWriter
+ * @since 1.0.0
+ */
+public final class PayloadWriterWebSocketCodec implements WebSocketCodec {
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final JsonPayloadWriter payloadWriter;
+    private final JsonWebSocketCodec delegate;
+
+    public PayloadWriterWebSocketCodec(final JsonPayloadWriter payloadWriter, final JsonWebSocketCodec delegate) {
+        this.payloadWriter = payloadWriter;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getSubProtocol() {
+        return this.delegate.getSubProtocol();
+    }
+
+    @Override
+    public WebSocketMessage.Type getMessageType() {
+        return this.delegate.getMessageType();
+    }
+
+    @Override
+    public DataBuffer encode(final Object payload, final DataBufferFactory bufferFactory) {
+        final DataBuffer dataBuffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        boolean written = false;
+
+        try {
+            written = this.payloadWriter.write(payload, new JsonOutput(dataBuffer, this.delegate));
+        } catch (RuntimeJsonMappingException e) {
+            throw new WebSocketCodecException(e.getMessage(), e);
+        } finally {
+            if (!written) {
+                DataBufferUtils.release(dataBuffer);
+            }
+        }
+
+        return written ? dataBuffer : this.delegate.encode(payload, bufferFactory);
+    }
+
+    @Override
+    public <T> T decode(final DataBuffer dataBuffer, final Type type) {
+        return this.delegate.decode(dataBuffer, type);
+    }
+
+}
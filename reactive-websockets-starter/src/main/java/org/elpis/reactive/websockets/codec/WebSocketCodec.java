@@ -0,0 +1,60 @@
+package org.elpis.reactive.websockets.codec;
+
+import org.elpis.reactive.websockets.exception.WebSocketCodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.lang.reflect.Type;
+
+/**
+ * Encodes outbound payloads and decodes inbound messages of sessions that negotiated the codec's
+ * {@code Sec-WebSocket-Protocol}.
+ *
+ * @author Alex Zharkov
+ * @see WebSocketCodecRegistry
+ * @since 1.0.0
+ */
+public interface WebSocketCodec {
+
+    /**
+     * Returns the subprotocol name offered to clients during the handshake.
+     *
+     * @return subprotocol name
+     * @since 1.0.0
+     */
+    String getSubProtocol();
+
+    /**
+     * Returns the type of frames produced by this codec, either {@link WebSocketMessage.Type#TEXT TEXT} or
+     * {@link WebSocketMessage.Type#BINARY BINARY}.
+     *
+     * @return message type
+     * @since 1.0.0
+     */
+    WebSocketMessage.Type getMessageType();
+
+    /**
+     * Writes the payload into a buffer allocated by the given factory.
+     *
+     * @param payload       payload to encode
+     * @param bufferFactory session buffer factory
+     * @return encoded payload
+     * @throws WebSocketCodecException if the payload can't be encoded
+     * @since 1.0.0
+     */
+    DataBuffer encode(Object payload, DataBufferFactory bufferFactory);
+
+    /**
+     * Reads a value of the given type from the payload of an inbound message, leaving its read position untouched.
+     *
+     * @param dataBuffer message payload
+     * @param type       target type
+     * @param <T>        target type
+     * @return decoded value
+     * @throws WebSocketCodecException if the payload can't be decoded
+     * @since 1.0.0
+     */
+    <T> T decode(DataBuffer dataBuffer, Type type);
+
+}
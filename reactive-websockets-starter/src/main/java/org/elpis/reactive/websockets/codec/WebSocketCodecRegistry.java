@@ -0,0 +1,63 @@
+package org.elpis.reactive.websockets.codec;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of {@link WebSocketCodec codecs} available for {@code Sec-WebSocket-Protocol} negotiation.
+ *
+ * <p>The handshake picks the first subprotocol requested by the client that has a codec. Sessions that requested
+ * none, or only unknown ones, use the default codec.
+ *
+ * @author Alex Zharkov
+ * @see org.springframework.web.reactive.socket.WebSocketHandler#getSubProtocols()
+ * @since 1.0.0
+ */
+public final class WebSocketCodecRegistry {
+    private final WebSocketCodec defaultCodec;
+    private final Map<String, WebSocketCodec> codecs = new LinkedHashMap<>();
+    private final List<String> subProtocols;
+
+    public WebSocketCodecRegistry() {
+        this(new JsonWebSocketCodec(), List.of());
+    }
+
+    /**
+     * Creates a registry with the given default codec and additional codecs, in order of preference.
+     *
+     * @param defaultCodec codec used when no subprotocol was negotiated
+     * @param codecs       additional codecs
+     * @since 1.0.0
+     */
+    public WebSocketCodecRegistry(final WebSocketCodec defaultCodec, final List<WebSocketCodec> codecs) {
+        this.defaultCodec = defaultCodec;
+
+        this.codecs.put(defaultCodec.getSubProtocol(), defaultCodec);
+        codecs.forEach(codec -> this.codecs.putIfAbsent(codec.getSubProtocol(), codec));
+
+        this.subProtocols = List.copyOf(this.codecs.keySet());
+    }
+
+    /**
+     * Returns the codec of the negotiated subprotocol.
+     *
+     * @param subProtocol negotiated subprotocol, may be {@code null}
+     * @return matching codec or the default one
+     * @since 1.0.0
+     */
+    public WebSocketCodec getCodec(final String subProtocol) {
+        return subProtocol != null
+                ? this.codecs.getOrDefault(subProtocol, this.defaultCodec)
+                : this.defaultCodec;
+    }
+
+    public WebSocketCodec getDefaultCodec() {
+        return this.defaultCodec;
+    }
+
+    public List<String> getSubProtocols() {
+        return this.subProtocols;
+    }
+
+}
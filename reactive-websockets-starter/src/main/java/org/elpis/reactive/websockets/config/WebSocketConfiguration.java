@@ -1,29 +1,30 @@
 package org.elpis.reactive.websockets.config;
 
+import org.elpis.reactive.websockets.config.codec.WebSocketCodecConfiguration;
 import org.elpis.reactive.websockets.config.event.WebSocketEventConfiguration;
 import org.elpis.reactive.websockets.config.handler.route.WebSocketRouteConfiguration;
-import org.elpis.reactive.websockets.exception.WebSocketMappingException;
+import org.elpis.reactive.websockets.config.heartbeat.WebSocketHeartbeatConfiguration;
 import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.handler.SessionResumption;
 import org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunction;
 import org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunctions;
+import org.elpis.reactive.websockets.handler.route.WebSocketHandlerMapping;
 import org.elpis.reactive.websockets.handler.route.WebSocketHandlerRouteResolver;
+import org.elpis.reactive.websockets.handler.route.WebSocketRouteRegistry;
+import org.elpis.reactive.websockets.session.WebSocketSessionIdGenerator;
 import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
 import org.elpis.reactive.websockets.web.annotation.SocketMapping;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.web.reactive.HandlerMapping;
-import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
-import org.springframework.web.reactive.socket.WebSocketHandler;
 import org.springframework.web.server.WebFilter;
-import org.springframework.web.server.WebSession;
 import reactor.util.context.Context;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Stream;
 
 /**
@@ -37,11 +38,14 @@ import java.util.stream.Stream;
 @Configuration
 @Import({WebSocketSessionRegistry.class,
         WebSocketEventConfiguration.class,
+        WebSocketHeartbeatConfiguration.class,
+        WebSocketCodecConfiguration.class,
         WebSocketRouteConfiguration.class})
 @ComponentScan("org.elpis.reactive.websockets.generated")
 public class WebSocketConfiguration {
 
     private static final int HANDLER_ORDER = 10;
+    private static final String WEBSOCKET_UPGRADE = "websocket";
 
     @Bean
     @ConditionalOnMissingBean(WebSocketHandlerFunction.class)
@@ -50,32 +54,81 @@ public class WebSocketConfiguration {
     }
 
     @Bean
-    public WebFilter sessionFilter() {
-        return (exchange, chain) -> chain.filter(exchange)
-                .contextWrite(Context.of("sessionId", exchange.getSession().map(WebSession::getId)));
+    @ConditionalOnMissingBean
+    public WebSocketSessionIdGenerator webSocketSessionIdGenerator() {
+        return new WebSocketSessionIdGenerator();
     }
 
     /**
-     * {@link HandlerMapping} bean with all {@link SocketMapping @SocketMapping} resource.
+     * Assigns session ids to WebSocket handshakes of mapped paths, other requests pass through untouched. Ids come from
+     * {@link WebSocketSessionIdGenerator}, so no {@link org.springframework.web.server.WebSession WebSession} is
+     * created for a connection. Handshakes of handlers with {@link org.elpis.reactive.websockets.web.annotation.Resumption
+     * resumption} enabled are also issued a resume token, sent back in the {@link SessionResumption#TOKEN_HEADER}
+     * response header. Both are passed to the handler through the reactor context.
      *
-     * @return {@link HandlerMapping}
+     * @return {@link WebFilter}
      * @since 0.1.0
      */
     @Bean
-    public HandlerMapping handlerMapping(final List<BaseWebSocketHandler> annotatedHandlers,
-                                         final WebSocketHandlerRouteResolver routeResolver) {
+    public WebFilter sessionFilter(@Qualifier("handlerMapping") final WebSocketHandlerMapping handlerMapping,
+                                   final WebSocketSessionIdGenerator sessionIdGenerator) {
 
-        final Map<String, WebSocketHandler> handlerMap = new HashMap<>();
+        return (exchange, chain) -> {
+            if (!WEBSOCKET_UPGRADE.equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+                return chain.filter(exchange);
+            }
 
-        final List<BaseWebSocketHandler> routeHandlers = routeResolver.resolve();
-        Stream.concat(annotatedHandlers.stream(), routeHandlers.stream())
-                .forEach(handler -> {
-                    if (handlerMap.putIfAbsent(handler.getPathTemplate(), handler) != null) {
-                        throw new WebSocketMappingException("WebSocketHandler with path %s was already registered", handler.getPathTemplate());
-                    }
-                });
+            return handlerMapping.getMatch(exchange)
+                    .map(match -> {
+                        final Context context = Context.of(BaseWebSocketHandler.SESSION_ID_CONTEXT_KEY,
+                                sessionIdGenerator.next(), BaseWebSocketHandler.PATH_VARIABLES_CONTEXT_KEY,
+                                match.variables());
 
-        return new SimpleUrlHandlerMapping(handlerMap, HANDLER_ORDER);
+                        return match.handler().getSessionResumption()
+                                .map(resumption -> {
+                                    final String token = resumption.issueToken(SessionResumption
+                                            .getPresentedToken(exchange.getRequest()));
+                                    exchange.getResponse().getHeaders().set(SessionResumption.TOKEN_HEADER, token);
+
+                                    return context.put(SessionResumption.TOKEN_CONTEXT_KEY, token);
+                                })
+                                .orElse(context);
+                    })
+                    .map(context -> chain.filter(exchange).contextWrite(context))
+                    .orElseGet(() -> chain.filter(exchange));
+        };
+    }
+
+    /**
+     * {@link HandlerMapping} bean with all {@link SocketMapping @SocketMapping} and {@link WebSocketHandlerFunction}
+     * resources, compiled into a single {@link org.elpis.reactive.websockets.handler.route.WebSocketRouteTrie
+     * WebSocketRouteTrie}.
+     *
+     * @return {@link WebSocketHandlerMapping}
+     * @since 0.1.0
+     */
+    @Bean
+    public WebSocketHandlerMapping handlerMapping(final List<BaseWebSocketHandler> annotatedHandlers,
+                                                  final WebSocketHandlerRouteResolver routeResolver) {
+
+        final List<BaseWebSocketHandler> handlers = Stream.concat(annotatedHandlers.stream(), routeResolver.resolve().stream())
+                .toList();
+
+        return new WebSocketHandlerMapping(handlers, HANDLER_ORDER);
+    }
+
+    /**
+     * {@link WebSocketRouteRegistry} bean to add and remove {@link WebSocketHandlerFunction} routes at runtime.
+     *
+     * @return {@link WebSocketRouteRegistry}
+     * @since 1.0.0
+     */
+    @Bean
+    public WebSocketRouteRegistry webSocketRouteRegistry(@Qualifier("handlerMapping") final WebSocketHandlerMapping handlerMapping,
+                                                         final WebSocketHandlerRouteResolver routeResolver,
+                                                         final WebSocketSessionRegistry sessionRegistry) {
+
+        return new WebSocketRouteRegistry(handlerMapping, routeResolver, sessionRegistry);
     }
 
 }
@@ -0,0 +1,78 @@
+package org.elpis.reactive.websockets.config.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.elpis.reactive.websockets.codec.JacksonBinaryWebSocketCodec;
+import org.elpis.reactive.websockets.codec.JsonWebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Registers the JSON codec and the binary codecs whose Jackson dataformat is on the classpath. The JSON codec uses the
+ * application's {@link ObjectMapper} bean, if any, and binary codecs are built from the application's
+ * {@link Jackson2ObjectMapperBuilder}, so they share its modules and settings.
+ *
+ * @author Alex Zharkov
+ * @see WebSocketCodecRegistry
+ * @since 1.0.0
+ */
+@Configuration
+public class WebSocketCodecConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public WebSocketCodecRegistry webSocketCodecRegistry(final ObjectProvider<ObjectMapper> objectMapper,
+                                                         final ObjectProvider<WebSocketCodec> codecs) {
+
+        return new WebSocketCodecRegistry(new JsonWebSocketCodec(objectMapper.getIfUnique(ObjectMapper::new)),
+                codecs.orderedStream().toList());
+    }
+
+    private static ObjectMapper getObjectMapper(final ObjectProvider<Jackson2ObjectMapperBuilder> builder,
+                                                final JsonFactory factory) {
+
+        return builder.getIfAvailable(Jackson2ObjectMapperBuilder::new)
+                .factory(factory)
+                .build();
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.cbor.CBORFactory")
+    static class CborCodecConfiguration {
+
+        @Bean
+        public WebSocketCodec cborWebSocketCodec(final ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+            return new JacksonBinaryWebSocketCodec("cbor", getObjectMapper(builder, new CBORFactory()));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.smile.SmileFactory")
+    static class SmileCodecConfiguration {
+
+        @Bean
+        public WebSocketCodec smileWebSocketCodec(final ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+            return new JacksonBinaryWebSocketCodec("smile", getObjectMapper(builder, new SmileFactory()));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.msgpack.jackson.dataformat.MessagePackFactory")
+    static class MessagePackCodecConfiguration {
+
+        @Bean
+        public WebSocketCodec messagePackWebSocketCodec(final ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+            return new JacksonBinaryWebSocketCodec("msgpack", getObjectMapper(builder, new MessagePackFactory()));
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.elpis.reactive.websockets.config.event;
 
 import org.elpis.reactive.websockets.config.WebSocketCloseStatus;
+import org.elpis.reactive.websockets.event.executor.CloseStatusHandlerExecutor;
 import org.elpis.reactive.websockets.event.matcher.EventSelectorMatcher;
 import org.elpis.reactive.websockets.event.annotation.CloseStatusHandler;
 import org.elpis.reactive.websockets.event.annotation.EventSelector;
@@ -11,21 +12,23 @@ import org.elpis.reactive.websockets.event.model.impl.ClientSessionClosedEvent;
 import org.elpis.reactive.websockets.exception.WebSocketConfigurationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.util.LinkedMultiValueMap;
-import reactor.core.scheduler.Schedulers;
-import reactor.util.concurrent.Queues;
+import org.springframework.util.MultiValueMap;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Arrays;
-import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -42,16 +45,21 @@ import java.util.stream.Stream;
 public class ClosedConnectionHandlerConfiguration {
     private static final Logger log = LoggerFactory.getLogger(ClosedConnectionHandlerConfiguration.class);
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(Queues.XS_BUFFER_SIZE);
-
     @Bean
-    public EventSelectorMatcher<ClientSessionClosedEvent> closedEventSelectorMatcher() {
+    public ClosedSessionEventSelectorMatcher closedEventSelectorMatcher() {
         return new ClosedSessionEventSelectorMatcher();
     }
 
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnMissingBean
+    public CloseStatusHandlerExecutor closeStatusHandlerExecutor() {
+        return new CloseStatusHandlerExecutor();
+    }
+
     @Bean
     public ClosedEventHandlers closedEventHandlers(final ApplicationContext context) {
-        final ClosedEventHandlers handlers = new ClosedEventHandlers();
+        final MultiValueMap<Integer, Consumer<ClientSessionClosedEvent>> handlers = new LinkedMultiValueMap<>();
+        final ClosedSessionEventSelectorMatcher closedEventSelectorMatcher = this.closedEventSelectorMatcher();
 
         context.getBeansWithAnnotation(CloseStatusHandler.class)
                 .values()
@@ -64,55 +72,115 @@ public class ClosedConnectionHandlerConfiguration {
                                         closeStatusHandler.getClass().getSimpleName(), method.getName());
                             }
 
+                            if (method.getParameterCount() == 1
+                                    && !method.getParameterTypes()[0].isAssignableFrom(ClientSessionClosedEvent.class)) {
+                                throw new WebSocketConfigurationException("Parameter of @SessionCloseStatus `%s.%s(...)` " +
+                                        "should be assignable from %s", closeStatusHandler.getClass().getSimpleName(),
+                                        method.getName(), ClientSessionClosedEvent.class.getSimpleName());
+                            }
+
+                            final EventSelector eventSelector = method.getAnnotation(EventSelector.class);
+                            if (eventSelector != null) {
+                                closedEventSelectorMatcher.getExpression(eventSelector.value());
+                            }
+
                             final SessionCloseStatus sessionCloseStatus = method.getAnnotation(SessionCloseStatus.class);
                             final int[] closeCodes = this.getWebSocketCloseCodes(sessionCloseStatus.value(), sessionCloseStatus.code());
 
+                            final Consumer<ClientSessionClosedEvent> function = this.getClientSessionClosedEventFunction(closeStatusHandler,
+                                    method, eventSelector, closedEventSelectorMatcher);
+
                             IntStream.of(closeCodes)
-                                    .forEach(closeCode -> handlers.add(closeCode, this.getClientSessionClosedEventFunction(closeStatusHandler, method)));
+                                    .forEach(closeCode -> handlers.add(closeCode, function));
                         }));
 
-        return handlers;
+        return new ClosedEventHandlers(handlers);
     }
 
     @Bean
     public ApplicationListener<ApplicationReadyEvent> closedSessionListener(final ClosedEventHandlers closedEventHandlers,
-                                                                            final WebSocketEventManagerFactory eventManagerFactory) {
+                                                                            final WebSocketEventManagerFactory eventManagerFactory,
+                                                                            final CloseStatusHandlerExecutor closeStatusHandlerExecutor) {
 
         return event -> eventManagerFactory.getEventManager(ClientSessionClosedEvent.class)
                 .asFlux()
-                .parallel()
-                .runOn(Schedulers.fromExecutorService(executorService))
-                .subscribe(clientSessionClosedEvent -> {
-                    Optional.ofNullable(closedEventHandlers.get(clientSessionClosedEvent.payload().getCloseStatus().getCode()))
-                        .ifPresent(functions -> functions.forEach(clientSessionClosedEventConsumer -> clientSessionClosedEventConsumer
-                            .accept(clientSessionClosedEvent)));
-
-                    Optional.ofNullable(closedEventHandlers.get(WebSocketCloseStatus.ALL.getStatusCode()))
-                            .ifPresent(functions -> functions.forEach(clientSessionClosedEventConsumer -> clientSessionClosedEventConsumer
-                                    .accept(clientSessionClosedEvent)));
-                });
+                .subscribe(clientSessionClosedEvent -> closeStatusHandlerExecutor
+                        .execute(() -> closedEventHandlers.dispatch(clientSessionClosedEvent)));
     }
 
-    private Consumer<ClientSessionClosedEvent> getClientSessionClosedEventFunction(final Object closeStatusHandler, final Method method) {
+    private Consumer<ClientSessionClosedEvent> getClientSessionClosedEventFunction(final Object closeStatusHandler, final Method method,
+                                                                                   final EventSelector eventSelector,
+                                                                                   final EventSelectorMatcher<ClientSessionClosedEvent> matcher) {
+        final Consumer<ClientSessionClosedEvent> invoker = this.getInvoker(closeStatusHandler, method);
+
         return event -> {
             try {
-                final boolean isValid = !method.isAnnotationPresent(EventSelector.class) ||
-                        this.closedEventSelectorMatcher().process(event, method.getAnnotation(EventSelector.class));
-
-                if (isValid) {
-                    if (method.getParameterCount() == 0) {
-                        method.invoke(closeStatusHandler);
-                    } else {
-                        method.invoke(closeStatusHandler, event);
-                    }
+                if (eventSelector == null || matcher.process(event, eventSelector)) {
+                    invoker.accept(event);
                 }
-            } catch (IllegalAccessException | InvocationTargetException exception) {
+            } catch (Exception exception) {
                 log.error(String.format("Cannot call `@SessionCloseStatus %s.%s()` due occurred exception",
                         closeStatusHandler.getClass().getSimpleName(), method.getName()), exception);
             }
         };
     }
 
+    /**
+     * Binds handler method to its bean via {@link LambdaMetafactory}, so the call site is a plain interface call
+     * instead of {@link Method#invoke(Object, Object...)}. Falls back to a bound {@link MethodHandle} when a lambda
+     * cannot be spun for the declaring class (e.g. it is not visible from this class loader).
+     */
+    @SuppressWarnings("unchecked")
+    private Consumer<ClientSessionClosedEvent> getInvoker(final Object closeStatusHandler, final Method method) {
+        final MethodHandle methodHandle;
+        final MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            methodHandle = lookup.unreflect(method);
+        } catch (IllegalAccessException exception) {
+            throw new WebSocketConfigurationException("Cannot access @SessionCloseStatus `%s.%s(...)`",
+                    closeStatusHandler.getClass().getSimpleName(), method.getName());
+        }
+
+        final boolean hasParameter = method.getParameterCount() == 1;
+        try {
+            if (hasParameter) {
+                return (Consumer<ClientSessionClosedEvent>) LambdaMetafactory.metafactory(lookup, "accept",
+                                MethodType.methodType(Consumer.class, method.getDeclaringClass()),
+                                MethodType.methodType(void.class, Object.class), methodHandle,
+                                MethodType.methodType(void.class, method.getParameterTypes()[0]))
+                        .getTarget()
+                        .invoke(closeStatusHandler);
+            }
+
+            final Runnable runnable = (Runnable) LambdaMetafactory.metafactory(lookup, "run",
+                            MethodType.methodType(Runnable.class, method.getDeclaringClass()),
+                            MethodType.methodType(void.class), methodHandle, MethodType.methodType(void.class))
+                    .getTarget()
+                    .invoke(closeStatusHandler);
+
+            return event -> runnable.run();
+        } catch (Throwable throwable) {
+            log.debug("Cannot create lambda for @SessionCloseStatus `{}.{}()`, falling back to method handle",
+                    closeStatusHandler.getClass().getSimpleName(), method.getName(), throwable);
+        }
+
+        final MethodHandle boundHandle = methodHandle.bindTo(closeStatusHandler);
+        final MethodHandle invoker = (hasParameter
+                ? boundHandle.asType(MethodType.methodType(void.class, ClientSessionClosedEvent.class))
+                : MethodHandles.dropArguments(boundHandle.asType(MethodType.methodType(void.class)), 0, ClientSessionClosedEvent.class));
+
+        return event -> {
+            try {
+                invoker.invokeExact(event);
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new UndeclaredThrowableException(throwable);
+            }
+        };
+    }
+
     private int[] getWebSocketCloseCodes(final WebSocketCloseStatus[] webSocketCloseStatuses, final int[] manualCodes) {
         if (manualCodes.length > 0) {
             IntStream.of(manualCodes)
@@ -133,7 +201,59 @@ public class ClosedConnectionHandlerConfiguration {
         return new int[]{WebSocketCloseStatus.ALL.getStatusCode()};
     }
 
-    public static class ClosedEventHandlers extends LinkedMultiValueMap<Integer, Consumer<ClientSessionClosedEvent>> {
-        //Shortener
+    /**
+     * Close status dispatch table. Handlers are kept in a dense array indexed by close code with
+     * {@link WebSocketCloseStatus#ALL} handlers already appended to every slot, so dispatching a close event is a
+     * single array lookup.
+     *
+     * @since 0.1.0
+     */
+    public static final class ClosedEventHandlers {
+        private static final int MIN_CODE = 1000;
+        private static final int MAX_CODE = 4999;
+
+        private final Consumer<ClientSessionClosedEvent>[][] handlers;
+        private final Consumer<ClientSessionClosedEvent>[] allHandlers;
+
+        @SuppressWarnings("unchecked")
+        public ClosedEventHandlers(final MultiValueMap<Integer, Consumer<ClientSessionClosedEvent>> handlers) {
+            final List<Consumer<ClientSessionClosedEvent>> all = handlers.getOrDefault(WebSocketCloseStatus.ALL.getStatusCode(), List.of());
+
+            this.allHandlers = all.toArray(Consumer[]::new);
+            this.handlers = new Consumer[MAX_CODE - MIN_CODE + 1][];
+
+            Arrays.fill(this.handlers, this.allHandlers);
+            handlers.forEach((code, consumers) -> {
+                if (WebSocketCloseStatus.isValidCode(code)) {
+                    this.handlers[code - MIN_CODE] = Stream.concat(consumers.stream(), all.stream())
+                            .toArray(Consumer[]::new);
+                }
+            });
+        }
+
+        /**
+         * Returns handlers to be called for given close code, {@link WebSocketCloseStatus#ALL} ones included.
+         *
+         * @param code close code
+         * @return handlers in call order, never {@code null}
+         * @since 1.0.0
+         */
+        public Consumer<ClientSessionClosedEvent>[] get(final int code) {
+            return code >= MIN_CODE && code <= MAX_CODE
+                    ? this.handlers[code - MIN_CODE]
+                    : this.allHandlers;
+        }
+
+        /**
+         * Calls every handler registered for the event close code.
+         *
+         * @param event session closed event
+         * @since 1.0.0
+         */
+        public void dispatch(final ClientSessionClosedEvent event) {
+            for (final Consumer<ClientSessionClosedEvent> handler : this.get(event.payload().getCloseStatus().getCode())) {
+                handler.accept(event);
+            }
+        }
     }
 }
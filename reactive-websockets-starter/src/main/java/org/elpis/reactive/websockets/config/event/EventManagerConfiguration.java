@@ -3,12 +3,15 @@ package org.elpis.reactive.websockets.config.event;
 import org.elpis.reactive.websockets.event.manager.EventManagers;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManager;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
+import org.elpis.reactive.websockets.event.manager.impl.BroadcastEventManager;
 import org.elpis.reactive.websockets.event.model.impl.ClientSessionClosedEvent;
 import org.elpis.reactive.websockets.event.model.impl.ServerSessionClosedEvent;
 import org.elpis.reactive.websockets.event.model.impl.SessionConnectedEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Configuration of all system-supported {@link WebSocketEventManager}.
  *
@@ -27,27 +30,31 @@ public class EventManagerConfiguration {
      */
     @Bean
     public WebSocketEventManager<SessionConnectedEvent> connectedEventWebSocketEventManager() {
-        return EventManagers.multicast();
+        return EventManagers.broadcast(WebSocketEventManager.MEDIUM_EVENT_QUEUE_SIZE);
     }
 
     /**
-     * {@link WebSocketEventManager} to observe {@link ClientSessionClosedEvent}.
+     * {@link WebSocketEventManager} to observe {@link ClientSessionClosedEvent}. A listener that falls behind doesn't lose queued
+     * close events: new ones are rejected instead and reported by the handler that fired them.
      *
      * @author Alex Zharkov
      */
     @Bean
     public WebSocketEventManager<ClientSessionClosedEvent> clientClosedEventWebSocketEventManager() {
-        return EventManagers.multicast(WebSocketEventManager.MEDIUM_EVENT_QUEUE_SIZE);
+        return EventManagers.broadcast(WebSocketEventManager.LARGE_EVENT_QUEUE_SIZE,
+                BroadcastEventManager.OverflowPolicy.FAIL, Duration.ZERO);
     }
 
     /**
-     * {@link WebSocketEventManager} to observe {@link ServerSessionClosedEvent}.
+     * {@link WebSocketEventManager} to observe {@link ServerSessionClosedEvent}. A listener that falls behind doesn't lose queued
+     * close events: new ones are rejected instead and reported by the handler that fired them.
      *
      * @author Alex Zharkov
      */
     @Bean
     public WebSocketEventManager<ServerSessionClosedEvent> serverClosedEventWebSocketEventManager() {
-        return EventManagers.multicast(WebSocketEventManager.MEDIUM_EVENT_QUEUE_SIZE);
+        return EventManagers.broadcast(WebSocketEventManager.LARGE_EVENT_QUEUE_SIZE,
+                BroadcastEventManager.OverflowPolicy.FAIL, Duration.ZERO);
     }
 
     @Bean
@@ -2,6 +2,8 @@ package org.elpis.reactive.websockets.config.handler.route;
 
 import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
 import org.elpis.reactive.websockets.handler.route.WebSocketHandlerFunction;
 import org.elpis.reactive.websockets.handler.route.WebSocketHandlerRouteResolver;
 import org.springframework.context.annotation.Bean;
@@ -14,8 +16,10 @@ public class WebSocketRouteConfiguration {
     @Bean
     public WebSocketHandlerRouteResolver webSocketHandlerRouteResolver(final WebSocketEventManagerFactory eventManagerFactory,
                                                                        final WebSocketSessionRegistry sessionRegistry,
+                                                                       final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                                                       final WebSocketCodecRegistry codecRegistry,
                                                                        final List<WebSocketHandlerFunction> handlerFunctions) {
 
-        return new WebSocketHandlerRouteResolver(eventManagerFactory, sessionRegistry, handlerFunctions);
+        return new WebSocketHandlerRouteResolver(eventManagerFactory, sessionRegistry, heartbeatScheduler, codecRegistry, handlerFunctions);
     }
 }
@@ -0,0 +1,17 @@
+package org.elpis.reactive.websockets.config.heartbeat;
+
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WebSocketHeartbeatConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnMissingBean
+    public WebSocketHeartbeatScheduler webSocketHeartbeatScheduler() {
+        return new WebSocketHeartbeatScheduler();
+    }
+
+}
@@ -12,7 +12,7 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
 import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
-import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.elpis.reactive.websockets.handler.route.WebSocketHandlerMapping;
 import org.springframework.web.reactive.socket.server.support.WebSocketHandlerAdapter;
 
 /**
@@ -50,7 +50,7 @@ public class WebSocketSecurityConfiguration {
     }
 
     /**
-     * Setups a {@link SecurityWebFilterChain} that allows all websocket connections per {@link SimpleUrlHandlerMapping} paths registered. Disabled by default. If needed to be enabled set:
+     * Setups a {@link SecurityWebFilterChain} that allows all websocket connections per {@link WebSocketHandlerMapping} paths registered. Disabled by default. If needed to be enabled set:
      * {@code spring.reactive.websocket.security.excludeWebFilterChains = true} at your .properties file or at .yml:
      * <pre>
      * spring:
@@ -65,12 +65,12 @@ public class WebSocketSecurityConfiguration {
     @Bean("defaultWebSocketFilterChain")
     @ConditionalOnProperty(value = "spring.reactive.websocket.security.excludeWebFilterChains", havingValue = "true")
     public SecurityWebFilterChain defaultWebSocketFilterChain(final ServerHttpSecurity security, final ApplicationContext context) {
-        final SimpleUrlHandlerMapping handlerMapping = context.getBean("handlerMapping", SimpleUrlHandlerMapping.class);
+        final WebSocketHandlerMapping handlerMapping = context.getBean("handlerMapping", WebSocketHandlerMapping.class);
 
         return security.securityMatcher(new NegatedServerWebExchangeMatcher(
-                ServerWebExchangeMatchers.pathMatchers(handlerMapping.getUrlMap().keySet()
+                ServerWebExchangeMatchers.pathMatchers(handlerMapping.getPathTemplates()
                         .stream()
-                        .map(url -> url + "/**")
+                        .map(url -> url.endsWith("**") || url.contains("{*") ? url : url + "/**")
                         .toArray(String[]::new))
         )).build();
     }
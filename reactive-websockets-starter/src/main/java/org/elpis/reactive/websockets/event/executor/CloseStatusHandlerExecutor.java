@@ -0,0 +1,285 @@
+package org.elpis.reactive.websockets.event.executor;
+
+import org.elpis.reactive.websockets.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link org.elpis.reactive.websockets.event.annotation.SessionCloseStatus @SessionCloseStatus} handlers.
+ *
+ * <p>Handlers are allowed to block (e.g. persist something on disconnect), so by default they are executed on
+ * virtual threads when the runtime provides them, and on a dedicated bounded elastic scheduler otherwise. Each
+ * close event is a separate task, so a slow handler never holds back events of other sessions. The executor keeps
+ * track of queued tasks along with queueing and execution latencies, and is shut down gracefully together with the
+ * application context.
+ *
+ * <p>To change the mode, declare a bean of this type:
+ * <pre class="code">
+ * &#064;Bean(destroyMethod = "dispose")
+ * public CloseStatusHandlerExecutor closeStatusHandlerExecutor() {
+ *     return new CloseStatusHandlerExecutor(CloseStatusHandlerExecutor.Mode.BOUNDED_ELASTIC);
+ * }
+ * </pre>
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.config.event.ClosedConnectionHandlerConfiguration
+ * @since 1.0.0
+ */
+public final class CloseStatusHandlerExecutor implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(CloseStatusHandlerExecutor.class);
+
+    private static final String THREAD_NAME = "websocket-close-handler";
+    private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Mode mode;
+    private final Scheduler scheduler;
+    private final Duration shutdownTimeout;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram queueTimes = new LatencyHistogram();
+    private final LatencyHistogram executionTimes = new LatencyHistogram();
+
+    public CloseStatusHandlerExecutor() {
+        this(isVirtualThreadsSupported() ? Mode.VIRTUAL_THREADS : Mode.BOUNDED_ELASTIC);
+    }
+
+    public CloseStatusHandlerExecutor(final Mode mode) {
+        this(mode, Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+                DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * Creates an executor running handlers in the given mode.
+     *
+     * @param mode            execution mode
+     * @param threadCap       maximum number of threads, used by {@link Mode#BOUNDED_ELASTIC} only
+     * @param queuedTaskCap   maximum number of queued tasks, used by {@link Mode#BOUNDED_ELASTIC} only
+     * @param shutdownTimeout time to let queued handlers finish on {@link #dispose()}
+     * @since 1.0.0
+     */
+    public CloseStatusHandlerExecutor(final Mode mode, final int threadCap, final int queuedTaskCap,
+                                      final Duration shutdownTimeout) {
+
+        if (mode == Mode.VIRTUAL_THREADS && !isVirtualThreadsSupported()) {
+            throw new IllegalArgumentException("Virtual threads are not supported by the current runtime");
+        }
+
+        this.mode = mode;
+        this.shutdownTimeout = shutdownTimeout;
+        this.scheduler = switch (mode) {
+            case VIRTUAL_THREADS -> Schedulers.fromExecutorService(newVirtualThreadExecutor(), THREAD_NAME);
+            case BOUNDED_ELASTIC -> Schedulers.fromExecutorService(newBoundedElasticExecutor(threadCap, queuedTaskCap),
+                    THREAD_NAME);
+            case CALLER -> Schedulers.immediate();
+        };
+    }
+
+    /**
+     * Submits handler task. Failures of the task are logged and counted, tasks rejected because of a saturated
+     * queue or a disposed executor are dropped.
+     *
+     * @param task task to run
+     * @since 1.0.0
+     */
+    public void execute(final Runnable task) {
+        final long queuedAt = System.nanoTime();
+
+        this.pending.incrementAndGet();
+        try {
+            this.scheduler.schedule(() -> this.run(task, queuedAt));
+        } catch (RejectedExecutionException e) {
+            this.pending.decrementAndGet();
+            this.rejected.increment();
+
+            log.warn("Close status handler task has been rejected: {}", e.getMessage());
+        }
+    }
+
+    private void run(final Runnable task, final long queuedAt) {
+        final long startedAt = System.nanoTime();
+
+        this.pending.decrementAndGet();
+        this.queueTimes.record(startedAt - queuedAt);
+        try {
+            task.run();
+            this.completed.increment();
+        } catch (Throwable throwable) {
+            this.failed.increment();
+
+            log.error("Close status handler task failed", throwable);
+        } finally {
+            this.executionTimes.record(System.nanoTime() - startedAt);
+        }
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Returns number of submitted tasks not started yet.
+     *
+     * @return queue depth
+     * @since 1.0.0
+     */
+    public int getPendingTasks() {
+        return this.pending.get();
+    }
+
+    /**
+     * Returns number of tasks that finished normally.
+     *
+     * @return completed task count
+     * @since 1.0.0
+     */
+    public long getCompletedTasks() {
+        return this.completed.sum();
+    }
+
+    /**
+     * Returns number of tasks that threw an exception.
+     *
+     * @return failed task count
+     * @since 1.0.0
+     */
+    public long getFailedTasks() {
+        return this.failed.sum();
+    }
+
+    /**
+     * Returns number of tasks dropped because executor was saturated or disposed.
+     *
+     * @return rejected task count
+     * @since 1.0.0
+     */
+    public long getRejectedTasks() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * Returns histogram of time tasks spent waiting for a thread.
+     *
+     * @return queue time histogram
+     * @since 1.0.0
+     */
+    public LatencyHistogram getQueueTimes() {
+        return this.queueTimes;
+    }
+
+    /**
+     * Returns histogram of task execution times.
+     *
+     * @return execution time histogram
+     * @since 1.0.0
+     */
+    public LatencyHistogram getExecutionTimes() {
+        return this.executionTimes;
+    }
+
+    /**
+     * Stops accepting new tasks and waits up to the shutdown timeout for queued ones to finish.
+     */
+    @Override
+    public void dispose() {
+        if (this.mode == Mode.CALLER) {
+            return;
+        }
+
+        try {
+            this.scheduler.disposeGracefully()
+                    .timeout(this.shutdownTimeout)
+                    .block();
+        } catch (RuntimeException e) {
+            log.warn("Close status handlers haven't finished within {}, {} task(s) dropped", this.shutdownTimeout,
+                    this.pending.get());
+        } finally {
+            this.scheduler.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.mode != Mode.CALLER && this.scheduler.isDisposed();
+    }
+
+    /**
+     * Checks whether current runtime supports virtual threads, i.e. runs on Java 21 or newer.
+     *
+     * @return {@code true} if virtual threads are available
+     * @since 1.0.0
+     */
+    public static boolean isVirtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Unlike {@link Schedulers#newBoundedElastic(int, int, String)}, which pins directly scheduled tasks to a
+     * single worker, all threads here share one queue, so a blocked handler doesn't hold back the tasks behind it.
+     */
+    private static ExecutorService newBoundedElasticExecutor(final int threadCap, final int queuedTaskCap) {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCap, threadCap, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queuedTaskCap), runnable -> {
+                    final Thread thread = new Thread(runnable, THREAD_NAME + "-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+
+                    return thread;
+                });
+
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Close status handler execution modes.
+     *
+     * @since 1.0.0
+     */
+    public enum Mode {
+        /**
+         * Every task runs on its own virtual thread. Requires Java 21+.
+         */
+        VIRTUAL_THREADS,
+
+        /**
+         * Tasks run on a dedicated bounded elastic scheduler.
+         */
+        BOUNDED_ELASTIC,
+
+        /**
+         * Tasks run on the thread that fired close event. Suitable for non-blocking handlers only.
+         */
+        CALLER
+    }
+}
@@ -1,8 +1,11 @@
 package org.elpis.reactive.websockets.event.manager;
 
+import org.elpis.reactive.websockets.event.manager.impl.BroadcastEventManager;
 import org.elpis.reactive.websockets.event.manager.impl.MulticastEventManager;
 import org.elpis.reactive.websockets.event.model.WebSocketEvent;
 
+import java.time.Duration;
+
 /**
  * Utils class with some pre-implemented {@link WebSocketEventManager}.
  *
@@ -20,7 +23,9 @@ public class EventManagers {
      *
      * @return {@link MulticastEventManager}
      * @since 0.1.0
+     * @deprecated drops events under load, use {@link #broadcast(int)} instead
      */
+    @Deprecated(since = "1.0.0")
     public static <T extends WebSocketEvent<?>> MulticastEventManager<T> multicast() {
         return new MulticastEventManager<>() {
         };
@@ -31,9 +36,38 @@ public class EventManagers {
      *
      * @return {@link MulticastEventManager}
      * @since 0.1.0
+     * @deprecated drops events under load, use {@link #broadcast(int)} instead
      */
+    @Deprecated(since = "1.0.0")
     public static <T extends WebSocketEvent<?>> MulticastEventManager<T> multicast(final int eventQueueSize) {
         return new MulticastEventManager<>(eventQueueSize) {
         };
     }
+
+    /**
+     * Creates {@link BroadcastEventManager} which drops the oldest queued event of a listener that falls behind.
+     *
+     * @param eventQueueSize per-listener queue size
+     * @return {@link BroadcastEventManager}
+     * @since 1.0.0
+     */
+    public static <T extends WebSocketEvent<?>> BroadcastEventManager<T> broadcast(final int eventQueueSize) {
+        return new BroadcastEventManager<>(eventQueueSize);
+    }
+
+    /**
+     * Creates {@link BroadcastEventManager} with custom overflow policy.
+     *
+     * @param eventQueueSize per-listener queue size
+     * @param overflowPolicy what to do when a listener queue is full
+     * @param blockTimeout   how long to wait for a free slot with {@link BroadcastEventManager.OverflowPolicy#BLOCK}
+     * @return {@link BroadcastEventManager}
+     * @since 1.0.0
+     */
+    public static <T extends WebSocketEvent<?>> BroadcastEventManager<T> broadcast(final int eventQueueSize,
+                                                                                  final BroadcastEventManager.OverflowPolicy overflowPolicy,
+                                                                                  final Duration blockTimeout) {
+
+        return new BroadcastEventManager<>(eventQueueSize, overflowPolicy, blockTimeout);
+    }
 }
@@ -0,0 +1,350 @@
+package org.elpis.reactive.websockets.event.manager.impl;
+
+import org.elpis.reactive.websockets.event.manager.WebSocketEventManager;
+import org.elpis.reactive.websockets.event.model.WebSocketEvent;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link WebSocketEventManager} that broadcasts events to every listener through a bounded queue of its own.
+ *
+ * <p>{@link #fire(WebSocketEvent)} is safe to call from any number of threads at once. A slow listener only fills up
+ * its own queue, and what happens then is decided by the {@link OverflowPolicy}. Each manager serves a single event
+ * type and counts emitted, delivered and dropped events, so losses under load are visible instead of silent.
+ *
+ * <p>Events fired while there are no listeners are dropped and reported as
+ * {@link Sinks.EmitResult#FAIL_ZERO_SUBSCRIBER}.
+ *
+ * @author Alex Zharkov
+ * @see WebSocketEventManager
+ * @see OverflowPolicy
+ * @since 1.0.0
+ */
+public class BroadcastEventManager<T extends WebSocketEvent<?>> implements WebSocketEventManager<T> {
+    @SuppressWarnings("rawtypes")
+    private static final BroadcastSubscription[] EMPTY = new BroadcastSubscription[0];
+
+    private final int queueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final Flux<T> flux = Flux.from((Publisher<T>) this::subscribe);
+
+    @SuppressWarnings("unchecked")
+    private volatile BroadcastSubscription<T>[] subscriptions = EMPTY;
+
+    /**
+     * Creates manager that drops the oldest queued event of a listener whose queue is full.
+     *
+     * @param queueSize per-listener queue size
+     * @since 1.0.0
+     */
+    public BroadcastEventManager(final int queueSize) {
+        this(queueSize, OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+    }
+
+    /**
+     * Creates manager with the given overflow policy.
+     *
+     * @param queueSize      per-listener queue size
+     * @param overflowPolicy what to do when a listener queue is full
+     * @param blockTimeout   how long to wait for a free slot, used by {@link OverflowPolicy#BLOCK} only
+     * @since 1.0.0
+     */
+    public BroadcastEventManager(final int queueSize, final OverflowPolicy overflowPolicy, final Duration blockTimeout) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("Queue size should be positive, got " + queueSize);
+        }
+
+        this.queueSize = queueSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+    }
+
+    /**
+     * See {@link WebSocketEventManager#fire(WebSocketEvent)}
+     *
+     * @return {@link Sinks.EmitResult#OK} if every listener has accepted the event without losing another one,
+     * {@link Sinks.EmitResult#FAIL_OVERFLOW} if at least one of them has not accepted it or, with
+     * {@link OverflowPolicy#DROP_OLDEST}, has evicted an older event to accept it, or
+     * {@link Sinks.EmitResult#FAIL_ZERO_SUBSCRIBER} if there are no listeners
+     * @since 1.0.0
+     */
+    @Override
+    public Sinks.EmitResult fire(final T t) {
+        this.emitted.increment();
+
+        final BroadcastSubscription<T>[] current = this.subscriptions;
+        if (current.length == 0) {
+            this.dropped.increment();
+            return Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER;
+        }
+
+        Sinks.EmitResult result = Sinks.EmitResult.OK;
+        for (final BroadcastSubscription<T> subscription : current) {
+            if (subscription.offer(t).isFailure()) {
+                result = Sinks.EmitResult.FAIL_OVERFLOW;
+            }
+
+            subscription.drain();
+        }
+
+        return result;
+    }
+
+    /**
+     * See {@link WebSocketEventManager#listen()}
+     *
+     * @since 1.0.0
+     */
+    @Override
+    public Publisher<T> listen() {
+        return this.flux;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    /**
+     * Returns number of events passed to {@link #fire(WebSocketEvent)}.
+     *
+     * @return emitted event count
+     * @since 1.0.0
+     */
+    public long getEmitted() {
+        return this.emitted.sum();
+    }
+
+    /**
+     * Returns number of events handed to listeners. An event delivered to two listeners is counted twice.
+     *
+     * @return delivered event count
+     * @since 1.0.0
+     */
+    public long getDelivered() {
+        return this.delivered.sum();
+    }
+
+    /**
+     * Returns number of events lost either for a listener (overflow) or for all of them (no listeners).
+     *
+     * @return dropped event count
+     * @since 1.0.0
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Returns number of current listeners.
+     *
+     * @return listener count
+     * @since 1.0.0
+     */
+    public int getSubscriberCount() {
+        return this.subscriptions.length;
+    }
+
+    /**
+     * Returns number of events waiting in listener queues.
+     *
+     * @return queued event count
+     * @since 1.0.0
+     */
+    public int getQueued() {
+        int queued = 0;
+        for (final BroadcastSubscription<T> subscription : this.subscriptions) {
+            queued += subscription.queue.size();
+        }
+
+        return queued;
+    }
+
+    private void subscribe(final Subscriber<? super T> subscriber) {
+        final BroadcastSubscription<T> subscription = new BroadcastSubscription<>(this,
+                Operators.toCoreSubscriber(subscriber), new ArrayBlockingQueue<>(this.queueSize));
+
+        this.add(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private synchronized void add(final BroadcastSubscription<T> subscription) {
+        final BroadcastSubscription<T>[] current = this.subscriptions;
+        final BroadcastSubscription<T>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = subscription;
+
+        this.subscriptions = next;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void remove(final BroadcastSubscription<T> subscription) {
+        final BroadcastSubscription<T>[] current = this.subscriptions;
+        final int index = Arrays.asList(current).indexOf(subscription);
+        if (index < 0) {
+            return;
+        }
+
+        if (current.length == 1) {
+            this.subscriptions = EMPTY;
+            return;
+        }
+
+        final BroadcastSubscription<T>[] next = new BroadcastSubscription[current.length - 1];
+        System.arraycopy(current, 0, next, 0, index);
+        System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+
+        this.subscriptions = next;
+    }
+
+    /**
+     * Behaviour of {@link #fire(WebSocketEvent)} when a listener queue is full.
+     *
+     * @since 1.0.0
+     */
+    public enum OverflowPolicy {
+        /**
+         * Evict the oldest queued event of the listener to make room for the new one, and report
+         * {@link Sinks.EmitResult#FAIL_OVERFLOW} for the loss.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Wait up to the configured timeout for the listener to free a slot, then drop the new event. Blocks the
+         * firing thread, so it must not be used with events fired from event loop threads.
+         */
+        BLOCK,
+
+        /**
+         * Drop the new event immediately and report {@link Sinks.EmitResult#FAIL_OVERFLOW}.
+         */
+        FAIL
+    }
+
+    private static final class BroadcastSubscription<T extends WebSocketEvent<?>> implements Subscription {
+        private final BroadcastEventManager<T> parent;
+        private final CoreSubscriber<? super T> actual;
+        private final BlockingQueue<T> queue;
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private BroadcastSubscription(final BroadcastEventManager<T> parent, final CoreSubscriber<? super T> actual,
+                                      final BlockingQueue<T> queue) {
+
+            this.parent = parent;
+            this.actual = actual;
+            this.queue = queue;
+        }
+
+        private Sinks.EmitResult offer(final T t) {
+            final boolean lost = switch (this.parent.overflowPolicy) {
+                case DROP_OLDEST -> {
+                    boolean evicted = false;
+                    while (!this.queue.offer(t)) {
+                        if (this.queue.poll() != null) {
+                            this.parent.dropped.increment();
+                            evicted = true;
+                        }
+                    }
+
+                    yield evicted;
+                }
+                case BLOCK -> {
+                    try {
+                        yield !this.queue.offer(t, this.parent.blockTimeoutNanos, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        yield true;
+                    }
+                }
+                case FAIL -> !this.queue.offer(t);
+            };
+
+            if (lost && this.parent.overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+                this.parent.dropped.increment();
+            }
+
+            return lost ? Sinks.EmitResult.FAIL_OVERFLOW : Sinks.EmitResult.OK;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (Operators.validate(n)) {
+                this.requested.getAndUpdate(current -> Operators.addCap(current, n));
+                this.drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!this.cancelled) {
+                this.cancelled = true;
+                this.parent.remove(this);
+
+                if (this.wip.getAndIncrement() == 0) {
+                    this.queue.clear();
+                }
+            }
+        }
+
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                final long requested = this.requested.get();
+                long emitted = 0;
+
+                while (emitted != requested) {
+                    if (this.cancelled) {
+                        this.queue.clear();
+                        return;
+                    }
+
+                    final T t = this.queue.poll();
+                    if (t == null) {
+                        break;
+                    }
+
+                    this.actual.onNext(t);
+                    this.parent.delivered.increment();
+                    emitted++;
+                }
+
+                if (this.cancelled) {
+                    this.queue.clear();
+                    return;
+                }
+
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    this.requested.addAndGet(-emitted);
+                }
+
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -13,7 +13,9 @@ import reactor.util.concurrent.Queues;
  * @see Sinks#many()
  * @see WebSocketEventManager
  * @since 0.1.0
+ * @deprecated ignores overflow of slow listeners, use {@link BroadcastEventManager} instead
  */
+@Deprecated(since = "1.0.0")
 public abstract class MulticastEventManager<T extends WebSocketEvent<?>> implements WebSocketEventManager<T> {
     private final Sinks.Many<T> sink;
 
@@ -4,23 +4,51 @@ import org.elpis.reactive.websockets.config.SessionCloseInfo;
 import org.elpis.reactive.websockets.event.matcher.EventSelectorMatcher;
 import org.elpis.reactive.websockets.event.annotation.EventSelector;
 import org.elpis.reactive.websockets.event.model.impl.ClientSessionClosedEvent;
-import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link EventSelectorMatcher} for {@link ClientSessionClosedEvent} that evaluates {@link EventSelector#value()}
+ * against the closed session.
+ * <p>
+ * Selector expressions are parsed once and cached. The parser runs in {@link SpelCompilerMode#MIXED} mode, so
+ * frequently evaluated selectors are compiled to bytecode, falling back to interpretation whenever compilation
+ * is not possible.
+ *
+ * @author Alex Zharkov
+ * @see EventSelector
+ * @since 0.1.0
+ */
 public class ClosedSessionEventSelectorMatcher implements EventSelectorMatcher<ClientSessionClosedEvent> {
-    private final ExpressionParser expressionParser = new SpelExpressionParser();
+    private final ExpressionParser expressionParser = new SpelExpressionParser(new SpelParserConfiguration(
+            SpelCompilerMode.MIXED, ClosedSessionEventSelectorMatcher.class.getClassLoader()));
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
 
     @Override
     public Boolean process(final ClientSessionClosedEvent event, final EventSelector annotation) {
         final SessionCloseInfo sessionCloseInfo = event.payload();
-        final Expression expression = expressionParser.parseExpression(annotation.value());
-        final EvaluationContext context = new StandardEvaluationContext(SessionCloseInfo.builder()
+
+        return this.getExpression(annotation.value()).getValue(SessionCloseInfo.builder()
                 .session(sessionCloseInfo.getSession())
-                .build());
+                .build(), Boolean.class);
+    }
 
-        return expression.getValue(context, Boolean.class);
+    /**
+     * Parses and caches given selector expression, so that syntax errors are reported before the first event
+     * is dispatched.
+     *
+     * @param expression selector expression
+     * @return parsed expression
+     * @since 1.0.0
+     */
+    public Expression getExpression(final String expression) {
+        return expressions.computeIfAbsent(expression, expressionParser::parseExpression);
     }
 }
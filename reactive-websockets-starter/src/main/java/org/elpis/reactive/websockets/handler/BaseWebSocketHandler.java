@@ -1,13 +1,21 @@
 package org.elpis.reactive.websockets.handler;
 
+import org.elpis.reactive.websockets.codec.JsonPayloadWriter;
+import org.elpis.reactive.websockets.codec.JsonWebSocketCodec;
+import org.elpis.reactive.websockets.codec.PayloadWriterWebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
 import org.elpis.reactive.websockets.config.CloseInitiator;
 import org.elpis.reactive.websockets.config.SessionCloseInfo;
+import org.elpis.reactive.websockets.config.SlowConsumerPolicy;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManager;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
+import org.elpis.reactive.websockets.event.model.WebSocketEvent;
 import org.elpis.reactive.websockets.event.model.impl.ClientSessionClosedEvent;
 import org.elpis.reactive.websockets.event.model.impl.ServerSessionClosedEvent;
 import org.elpis.reactive.websockets.event.model.impl.SessionConnectedEvent;
-import org.elpis.reactive.websockets.mapper.JsonMapper;
+import org.elpis.reactive.websockets.exception.WebSocketCodecException;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
 import org.elpis.reactive.websockets.security.principal.Anonymous;
 import org.elpis.reactive.websockets.session.ReactiveWebSocketSession;
 import org.elpis.reactive.websockets.session.WebSocketSessionContext;
@@ -17,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.HandshakeInfo;
 import org.springframework.web.reactive.socket.WebSocketHandler;
@@ -25,31 +34,55 @@ import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.web.util.UriTemplate;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.net.URI;
 import java.nio.channels.Channels;
 import java.security.Principal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public abstract class BaseWebSocketHandler implements WebSocketHandler {
+    public static final String SESSION_ID_CONTEXT_KEY = "sessionId";
+    public static final String PATH_VARIABLES_CONTEXT_KEY = "pathVariables";
+
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final WebSocketEventManagerFactory eventManagerFactory;
     private final WebSocketSessionRegistry sessionRegistry;
+    private final WebSocketHeartbeatScheduler heartbeatScheduler;
+    private final WebSocketCodecRegistry codecRegistry;
+
+    private volatile WebSocketCodec payloadWriterCodec;
+    private SessionOutboundBuffers outboundBuffers;
+    private KeyedConflation conflation;
+    private SessionResumption resumption;
 
     private final String pathTemplate;
+    private final UriTemplate uriTemplate;
     private final boolean pingEnabled;
     private final long pingInterval;
 
     protected BaseWebSocketHandler(final WebSocketEventManagerFactory eventManagerFactory,
                                    final WebSocketSessionRegistry sessionRegistry,
+                                   final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                   final WebSocketCodecRegistry codecRegistry,
                                    final String pathTemplate,
                                    final boolean pingEnabled,
                                    final long pingInterval) {
 
         this.eventManagerFactory = eventManagerFactory;
         this.sessionRegistry = sessionRegistry;
+        this.heartbeatScheduler = heartbeatScheduler;
+        this.codecRegistry = codecRegistry;
 
         this.pathTemplate = pathTemplate;
+        this.uriTemplate = new UriTemplate(pathTemplate);
         this.pingEnabled = pingEnabled;
         this.pingInterval = pingInterval;
     }
@@ -63,55 +96,68 @@ public abstract class BaseWebSocketHandler implements WebSocketHandler {
         final WebSocketEventManager<SessionConnectedEvent> sessionConnectedEventManager = this.eventManagerFactory
                 .getEventManager(SessionConnectedEvent.class);
 
-        return Mono.deferContextual(Mono::just)
-                .flatMap(contextView -> (Mono<String>) contextView.get("sessionId"))
+        return Mono.deferContextual(contextView -> {
+                    final String sessionId = contextView.getOrDefault(SESSION_ID_CONTEXT_KEY, session.getId());
+
+                    return Mono.just(this.resumption != null && contextView.hasKey(SessionResumption.TOKEN_CONTEXT_KEY)
+                            ? this.resumption.bind(contextView.get(SessionResumption.TOKEN_CONTEXT_KEY), sessionId)
+                            : sessionId);
+                })
                 .flatMap(sessionId -> {
                     final HandshakeInfo handshakeInfo = session.getHandshakeInfo();
 
                     log.trace("Establishing WebSocketSession: id => {}, uri => {}, address => {}", sessionId,
                             handshakeInfo.getUri(), handshakeInfo.getRemoteAddress());
 
-                    final ReactiveWebSocketSession reactiveWebSocketSession = ReactiveWebSocketSession.builder()
-                            .isOpen(session::isOpen)
-                            .sessionId(sessionId)
-                            .onClose((eventSessionId, closeStatus) -> {
-                                final ServerSessionClosedEvent event = this
-                                        .getServerClosedEvent(eventSessionId, closeStatus);
-                                serverSessionClosedEventManager.fire(event);
-                            })
-                            .build();
+                    return handshakeInfo.getPrincipal()
+                            .switchIfEmpty(Mono.just(new Anonymous()))
+                            .flatMapMany(principal -> {
+                                final ReactiveWebSocketSession reactiveWebSocketSession = ReactiveWebSocketSession.builder()
+                                        .isOpen(session::isOpen)
+                                        .sessionId(sessionId)
+                                        .pathTemplate(pathTemplate)
+                                        .principal(principal)
+                                        .onClose((eventSessionId, closeStatus) -> {
+                                            if (this.resumption != null) {
+                                                this.resumption.end(eventSessionId);
+                                            }
+
+                                            if (this.sessionRegistry.close(eventSessionId, closeStatus)) {
+                                                final ServerSessionClosedEvent event = this
+                                                        .getServerClosedEvent(eventSessionId, closeStatus);
+                                                this.fire(serverSessionClosedEventManager, event);
+                                            }
+                                        })
+                                        .build();
 
-                    sessionConnectedEventManager.fire(SessionConnectedEvent.builder()
-                            .webSocketSessionInfo(reactiveWebSocketSession)
-                            .build());
+                                this.fire(sessionConnectedEventManager, SessionConnectedEvent.builder()
+                                        .webSocketSessionInfo(reactiveWebSocketSession)
+                                        .build());
 
-                    this.sessionRegistry.save(reactiveWebSocketSession);
+                                this.sessionRegistry.save(reactiveWebSocketSession);
 
-                    final Mono<Void> clientClosedSessionListener = session.closeStatus()
-                            .doOnNext(closeStatus -> {
-                                this.sessionRegistry.remove(sessionId);
+                                final Mono<Void> serverClosedSessionListener = this.sessionRegistry.closeSignal(reactiveWebSocketSession)
+                                        .flatMap(session::close);
 
-                                final SessionCloseInfo sessionCloseInfo = SessionCloseInfo.builder()
-                                        .closeStatus(closeStatus)
-                                        .session(reactiveWebSocketSession)
-                                        .build();
-                                final ClientSessionClosedEvent event = new ClientSessionClosedEvent(sessionCloseInfo);
+                                final Mono<Void> clientClosedSessionListener = session.closeStatus()
+                                        .doOnNext(closeStatus -> {
+                                            this.sessionRegistry.remove(sessionId, reactiveWebSocketSession);
 
-                                closedEventManager.fire(event);
-                            }).then();
+                                            final SessionCloseInfo sessionCloseInfo = SessionCloseInfo.builder()
+                                                    .closeStatus(closeStatus)
+                                                    .session(reactiveWebSocketSession)
+                                                    .build();
+                                            final ClientSessionClosedEvent event = new ClientSessionClosedEvent(sessionCloseInfo);
 
-                    final Flux<Void> serverClosedSessionListener = serverSessionClosedEventManager
-                            .asFlux()
-                            .map(ServerSessionClosedEvent::payload)
-                            .filter(sessionCloseInfo -> sessionCloseInfo.getSession().getSessionId().equals(sessionId))
-                            .flatMap(sessionCloseInfo -> session.close(sessionCloseInfo.getCloseStatus()));
+                                            this.fire(closedEventManager, event);
+                                        }).then();
 
-                    return session.getHandshakeInfo().getPrincipal()
-                            .switchIfEmpty(Mono.just(new Anonymous()))
-                            .flatMapMany(principal -> {
-                                final WebSocketSessionContext webSocketSessionContext =
-                                        this.getSessionContext(pathTemplate, sessionId, handshakeInfo, principal);
-                                final Flux<Void> chain = this.buildChain(session, webSocketSessionContext);
+                                final Flux<Void> chain = Flux.deferContextual(contextView -> {
+                                    final WebSocketSessionContext webSocketSessionContext = this.getSessionContext(sessionId,
+                                            handshakeInfo, principal, contextView.getOrDefault(PATH_VARIABLES_CONTEXT_KEY, null));
+
+                                    return this.buildChain(session, webSocketSessionContext);
+                                });
 
                                 return Flux.merge(chain, clientClosedSessionListener, serverClosedSessionListener);
                             })
@@ -121,6 +167,14 @@ public abstract class BaseWebSocketHandler implements WebSocketHandler {
                 });
     }
 
+    private <E extends WebSocketEvent<?>> void fire(final WebSocketEventManager<E> eventManager, final E event) {
+        final Sinks.EmitResult result = eventManager.fire(event);
+
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("{} has not been delivered to all listeners: {}", event.getClass().getSimpleName(), result);
+        }
+    }
+
     private ServerSessionClosedEvent getServerClosedEvent(final String sessionId, final CloseStatus closeStatus) {
         final ReactiveWebSocketSession webSocketSession = ReactiveWebSocketSession.builder()
                 .sessionId(sessionId)
@@ -135,7 +189,14 @@ public abstract class BaseWebSocketHandler implements WebSocketHandler {
        return new ServerSessionClosedEvent(sessionCloseInfo);
     }
 
+    @Override
+    public List<String> getSubProtocols() {
+        return this.codecRegistry.getSubProtocols();
+    }
+
     Flux<WebSocketMessage> mapOutput(final org.springframework.web.reactive.socket.WebSocketSession session, final Publisher<?> publisher) {
+        final WebSocketCodec codec = this.getOutboundCodec(session.getHandshakeInfo().getSubProtocol());
+
         return Flux.from(publisher)
                 .flatMap(any -> {
                     if (any instanceof WebSocketMessage webSocketMessage) {
@@ -149,10 +210,211 @@ public abstract class BaseWebSocketHandler implements WebSocketHandler {
                                 .map(dataBuffer -> session.binaryMessage(factory -> dataBuffer));
                     }
 
-                    return JsonMapper.applyWithFlux(any).map(session::textMessage);
+                    return this.mapPayload(session, codec, any);
                 });
     }
 
+    /**
+     * Returns the generated writer of the payloads emitted by this handler, if any.
+     *
+     * @return payload writer or {@code null}
+     * @since 1.0.0
+     */
+    protected JsonPayloadWriter getPayloadWriter() {
+        return null;
+    }
+
+    /**
+     * Bounds outbound messages buffered per session, called by generated handlers of mappings with
+     * {@link org.elpis.reactive.websockets.web.annotation.OutboundBuffer @OutboundBuffer} enabled.
+     *
+     * @param policy what to do once a session buffer is full
+     * @param size   buffer size per session
+     * @since 1.0.0
+     */
+    protected void enableOutboundBuffer(final SlowConsumerPolicy policy, final int size) {
+        this.outboundBuffers = new SessionOutboundBuffers(policy, size);
+    }
+
+    /**
+     * Conflates outbound messages per session by the given key, called by generated handlers of mappings with
+     * {@link org.elpis.reactive.websockets.web.annotation.Conflation @Conflation} enabled and by the routing DSL.
+     *
+     * @param conflation keyed conflation
+     * @since 1.0.0
+     */
+    protected void enableConflation(final KeyedConflation conflation) {
+        this.conflation = conflation;
+    }
+
+    /**
+     * Keeps sessions resumable after their connection drops, called by generated handlers of mappings with
+     * {@link org.elpis.reactive.websockets.web.annotation.Resumption @Resumption} enabled.
+     *
+     * @param ttl        how long a detached session waits for its client, in milliseconds
+     * @param outboxSize messages kept per session while its client is away
+     * @since 1.0.0
+     */
+    protected void enableResumption(final long ttl, final int outboxSize) {
+        this.resumption = new SessionResumption(Duration.ofMillis(ttl), outboxSize);
+    }
+
+    /**
+     * Returns session resumption of this handler, if enabled.
+     *
+     * @return session resumption or {@link Optional#empty()}
+     * @since 1.0.0
+     */
+    public Optional<SessionResumption> getSessionResumption() {
+        return Optional.ofNullable(this.resumption);
+    }
+
+    /**
+     * Returns keyed conflation of this handler, if enabled.
+     *
+     * @return keyed conflation or {@link Optional#empty()}
+     * @since 1.0.0
+     */
+    public Optional<KeyedConflation> getConflation() {
+        return Optional.ofNullable(this.conflation);
+    }
+
+    private Publisher<?> getOutbound(final org.springframework.web.reactive.socket.WebSocketSession session,
+                                     final WebSocketSessionContext context,
+                                     final Publisher<?> publisher) {
+
+        if (this.conflation != null) {
+            return this.conflation.apply(publisher);
+        }
+
+        return this.outboundBuffers != null
+                ? this.outboundBuffers.apply(context.getSessionId(), publisher, session::close)
+                : publisher;
+    }
+
+    /**
+     * Returns per-session outbound buffers of this handler, if enabled.
+     *
+     * @return outbound buffers or {@link Optional#empty()}
+     * @since 1.0.0
+     */
+    public Optional<SessionOutboundBuffers> getOutboundBuffers() {
+        return Optional.ofNullable(this.outboundBuffers);
+    }
+
+    WebSocketCodec getOutboundCodec(final String subProtocol) {
+        final WebSocketCodec codec = this.codecRegistry.getCodec(subProtocol);
+        final JsonPayloadWriter payloadWriter = this.getPayloadWriter();
+
+        if (payloadWriter == null || !(codec instanceof JsonWebSocketCodec jsonCodec)) {
+            return codec;
+        }
+
+        if (this.payloadWriterCodec == null) {
+            this.payloadWriterCodec = new PayloadWriterWebSocketCodec(payloadWriter, jsonCodec);
+        }
+
+        return this.payloadWriterCodec;
+    }
+
+    Publisher<WebSocketMessage> mapPayload(final org.springframework.web.reactive.socket.WebSocketSession session,
+                                           final WebSocketCodec codec,
+                                           final Object payload) {
+
+        try {
+            return Mono.just(new WebSocketMessage(codec.getMessageType(), codec.encode(payload, session.bufferFactory())));
+        } catch (WebSocketCodecException e) {
+            log.error(e.getMessage());
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * Decodes inbound messages with the codec negotiated by the session. {@link String} messages are passed as they
+     * are, messages that can't be decoded are logged and skipped.
+     *
+     * @param context  session context
+     * @param messages inbound messages
+     * @param type     target type
+     * @param <T>      target type
+     * @return decoded messages
+     * @since 1.0.0
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> Flux<T> decode(final WebSocketSessionContext context, final Flux<WebSocketMessage> messages,
+                                 final Type type) {
+
+        if (type == String.class) {
+            return (Flux<T>) messages.map(WebSocketMessage::getPayloadAsText);
+        }
+
+        final WebSocketCodec codec = this.codecRegistry.getCodec(context.getSubProtocol());
+
+        return messages.handle((message, sink) -> {
+            try {
+                sink.next(codec.decode(message.getPayload(), type));
+            } catch (WebSocketCodecException e) {
+                log.error(e.getMessage());
+            }
+        });
+    }
+
+    Flux<WebSocketMessage> getMessages(final org.springframework.web.reactive.socket.WebSocketSession session,
+                                       final WebSocketSessionContext webSocketSessionContext,
+                                       final Flux<WebSocketMessage> socketMessageFlux,
+                                       final SessionPings serverPings) {
+
+        final Flux<WebSocketMessage> inbound = socketMessageFlux
+                .filter(webSocketMessage -> webSocketMessage.getType() == WebSocketMessage.Type.TEXT
+                        || webSocketMessage.getType() == WebSocketMessage.Type.BINARY);
+
+        if (this.resumption != null && this.resumption.isBound(webSocketSessionContext.getSessionId())) {
+            final Flux<WebSocketMessage> messages = this.mapOutput(session, this.resumption.attach(webSocketSessionContext,
+                    inbound, session.closeStatus(), resumedInbound -> this.getPublisher(webSocketSessionContext, resumedInbound)));
+            return serverPings != null ? Flux.merge(messages, serverPings.asFlux()) : messages;
+        }
+
+        final Publisher<?> publisher = this.getPublisher(webSocketSessionContext, inbound);
+
+        if (publisher != null) {
+            final Flux<WebSocketMessage> messages = this.mapOutput(session, this.getOutbound(session,
+                    webSocketSessionContext, publisher));
+            return serverPings != null ? Flux.merge(messages, serverPings.asFlux()) : messages;
+        } else {
+            this.run(webSocketSessionContext, socketMessageFlux);
+        }
+
+        return serverPings != null ? serverPings.asFlux() : null;
+    }
+
+    SessionPings getServerPings(final org.springframework.web.reactive.socket.WebSocketSession session) {
+        return this.isPingEnabled()
+                ? new SessionPings(session, this.heartbeatScheduler, Duration.ofMillis(this.getPingInterval()))
+                : null;
+    }
+
+    Flux<WebSocketMessage> receive(final org.springframework.web.reactive.socket.WebSocketSession session,
+                                   final SessionPings serverPings) {
+
+        return session.receive()
+                .doOnNext(webSocketMessage -> {
+                    if (serverPings != null && webSocketMessage.getType() == WebSocketMessage.Type.PONG) {
+                        serverPings.pong(webSocketMessage);
+                    }
+                })
+                .filter(webSocketMessage -> webSocketMessage.getType() != WebSocketMessage.Type.PING
+                        && webSocketMessage.getType() != WebSocketMessage.Type.PONG)
+                .doFinally(signalType -> {
+                    if (serverPings != null) {
+                        serverPings.dispose();
+                    }
+                });
+    }
+
+    Publisher<?> getPublisher(final WebSocketSessionContext context, final Flux<WebSocketMessage> messages) {
+        return this.apply(context, messages);
+    }
+
     public Publisher<?> apply(final WebSocketSessionContext context, final Flux<WebSocketMessage> messages) {
         //do nothing, waiting for override
         return null;
@@ -165,25 +427,25 @@ public abstract class BaseWebSocketHandler implements WebSocketHandler {
     abstract Flux<Void> buildChain(final org.springframework.web.reactive.socket.WebSocketSession webSocketSession,
                                    final WebSocketSessionContext webSocketSessionContext);
 
-    private WebSocketSessionContext getSessionContext(final String pathTemplate,
-                                                      final String sessionId,
+    private WebSocketSessionContext getSessionContext(final String sessionId,
                                                       final HandshakeInfo handshakeInfo,
-                                                      final Principal principal) {
-
-        final String uriPath = handshakeInfo.getUri().getPath();
-        final UriTemplate uriTemplate = new UriTemplate(pathTemplate);
+                                                      final Principal principal,
+                                                      final Map<String, String> pathVariables) {
 
-        final var pathParameters = uriTemplate.match(uriPath);
-        final var queryParameters = UriComponentsBuilder.fromUri(handshakeInfo.getUri()).build()
-                .getQueryParams();
-        final var headers = handshakeInfo.getHeaders();
+        final URI uri = handshakeInfo.getUri();
 
+        // Variables captured by the handler mapping are reused, the template is matched only for unrouted sessions
         return WebSocketSessionContext.builder()
                 .authentication(principal)
-                .pathParameters(pathParameters)
-                .queryParameters(queryParameters)
-                .headers(headers)
+                .pathParametersSupplier(pathVariables != null ? () -> pathVariables : () -> this.uriTemplate.getVariableNames().isEmpty()
+                        ? Collections.emptyMap()
+                        : this.uriTemplate.match(uri.getPath()))
+                .queryParametersSupplier(() -> uri.getRawQuery() != null
+                        ? UriComponentsBuilder.fromUri(uri).build().getQueryParams()
+                        : new LinkedMultiValueMap<>())
+                .headersSupplier(handshakeInfo::getHeaders)
                 .sessionId(sessionId)
+                .subProtocol(handshakeInfo.getSubProtocol())
                 .build();
     }
 
@@ -202,4 +464,12 @@ public abstract class BaseWebSocketHandler implements WebSocketHandler {
     protected WebSocketSessionRegistry getSessionRegistry() {
         return sessionRegistry;
     }
+
+    protected WebSocketHeartbeatScheduler getHeartbeatScheduler() {
+        return heartbeatScheduler;
+    }
+
+    protected WebSocketCodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
 }
@@ -3,68 +3,163 @@ package org.elpis.reactive.websockets.handler;
 import org.elpis.reactive.websockets.session.WebSocketSessionContext;
 import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.elpis.reactive.websockets.codec.WebSocketCodec;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
 import org.reactivestreams.Publisher;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
 
-import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 public abstract class BroadcastWebSocketResourceHandler extends BaseWebSocketHandler {
 
-    private final Sinks.Many<WebSocketMessage> sink = Sinks.many()
-            .multicast()
-            .onBackpressureBuffer();
+    private final MultiProducerMessageSink sink = new MultiProducerMessageSink();
+    private final SharedPublisherCache publisherCache;
+    private SharedPayloadEncoder payloadEncoder;
+    private ReplayBuffers replayBuffers;
 
-    private final Sinks.Many<WebSocketMessage> pongMessages = Sinks.many()
-            .multicast()
-            .onBackpressureBuffer();
+    protected BroadcastWebSocketResourceHandler(final WebSocketEventManagerFactory eventManagerFactory,
+                                                final WebSocketSessionRegistry webSocketSessionRegistry,
+                                                final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                                final WebSocketCodecRegistry codecRegistry,
+                                                final String pathTemplate,
+                                                final boolean pingEnabled,
+                                                final long pingInterval) {
 
+        this(eventManagerFactory, webSocketSessionRegistry, heartbeatScheduler, codecRegistry, pathTemplate, pingEnabled, pingInterval, null);
+    }
 
     protected BroadcastWebSocketResourceHandler(final WebSocketEventManagerFactory eventManagerFactory,
                                                 final WebSocketSessionRegistry webSocketSessionRegistry,
+                                                final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                                final WebSocketCodecRegistry codecRegistry,
                                                 final String pathTemplate,
                                                 final boolean pingEnabled,
-                                                final long pingInterval) {
+                                                final long pingInterval,
+                                                final SharedPublisherCache publisherCache) {
 
-        super(eventManagerFactory, webSocketSessionRegistry, pathTemplate, pingEnabled, pingInterval);
+        super(eventManagerFactory, webSocketSessionRegistry, heartbeatScheduler, codecRegistry, pathTemplate, pingEnabled, pingInterval);
+        this.publisherCache = publisherCache;
     }
 
     @Override
     protected Flux<Void> buildChain(WebSocketSession session, WebSocketSessionContext webSocketSessionContext) {
         final Flux<WebSocketMessage> socketMessageFlux = this.sink.asFlux().share();
 
-        final Flux<WebSocketMessage> messages = this.getMessages(session, webSocketSessionContext, socketMessageFlux);
+        final SessionPings serverPings = this.getServerPings(session);
+        final Flux<WebSocketMessage> messages = this.getMessages(session, webSocketSessionContext, socketMessageFlux,
+                serverPings);
 
-        final Mono<Void> input = session.receive()
-                .filter(webSocketMessage -> webSocketMessage.getType() != WebSocketMessage.Type.PING
-                        && webSocketMessage.getType() != WebSocketMessage.Type.PONG)
-                .doOnNext(sink::tryEmitNext).then();
+        final Mono<Void> input = this.receive(session, serverPings)
+                .doOnNext(this.sink::emit).then();
 
         return messages != null ? Flux.merge(input, session.send(messages)) : input.flux();
     }
 
-    private Flux<WebSocketMessage> getMessages(final WebSocketSession session,
-                                               final WebSocketSessionContext webSocketSessionContext,
-                                               final Flux<WebSocketMessage> socketMessageFlux) {
-
-        final Publisher<?> publisher = this.apply(webSocketSessionContext, socketMessageFlux
-                .filter(webSocketMessage -> webSocketMessage.getType() == WebSocketMessage.Type.TEXT
-                        || webSocketMessage.getType() == WebSocketMessage.Type.BINARY));
-
-        final Flux<WebSocketMessage> serverPings = Flux.interval(Duration.ofMillis(this.getPingInterval()))
-                .map(aLong -> session.pingMessage(dataBufferFactory -> session.bufferFactory().allocateBuffer(256)));
-        final Flux<WebSocketMessage> pongs = this.pongMessages.asFlux();
-        if (publisher != null) {
-            final Flux<WebSocketMessage> messages = this.mapOutput(session, publisher);
-            return this.isPingEnabled() ? Flux.merge(messages, serverPings, pongs) : messages;
-        } else {
-            this.run(webSocketSessionContext, socketMessageFlux);
+    @Override
+    Publisher<?> getPublisher(final WebSocketSessionContext context, final Flux<WebSocketMessage> messages) {
+        if (this.publisherCache == null) {
+            return super.getPublisher(context, messages);
         }
 
-        return this.isPingEnabled() ? Flux.merge(serverPings, pongs) : null;
+        if (this.replayBuffers == null) {
+            return this.publisherCache.share(context, () -> this.share(this.apply(context, messages)));
+        }
+
+        final List<Object> key = this.publisherCache.getKey(context);
+        final Flux<ReplayBuffers.Frame> live = this.publisherCache
+                .share(context, () -> this.replayBuffers.record(key, this.share(this.apply(context, messages))))
+                .cast(ReplayBuffers.Frame.class);
+
+        return this.replayBuffers.replay(key, context, this.getOutboundCodec(context.getSubProtocol()), live);
+    }
+
+    /**
+     * Retains recently broadcast messages for late joiners, called by generated handlers of mappings with
+     * {@link org.elpis.reactive.websockets.web.annotation.Replay @Replay} enabled.
+     *
+     * @param size           messages retained per shared publisher
+     * @param lastParameter  query parameter with the number of messages to replay
+     * @param sinceParameter query parameter with the number of the last message seen
+     * @since 1.0.0
+     */
+    protected void enableReplay(final int size, final String lastParameter, final String sinceParameter) {
+        if (this.publisherCache == null) {
+            throw new IllegalStateException("Replay requires a shared publisher: " + this.getPathTemplate());
+        }
+
+        this.replayBuffers = new ReplayBuffers(size, lastParameter, sinceParameter);
+    }
+
+    /**
+     * Encodes every message of the shared publisher once for all sessions it is sent to, called by generated handlers
+     * of mappings with {@link org.elpis.reactive.websockets.web.annotation.SharedPublisher#encodeOnce()} enabled.
+     *
+     * @since 1.0.0
+     */
+    protected void enableEncodeOnce() {
+        if (this.publisherCache == null) {
+            throw new IllegalStateException("Encode-once requires a shared publisher: " + this.getPathTemplate());
+        }
+
+        this.payloadEncoder = new SharedPayloadEncoder();
+    }
+
+    @Override
+    Publisher<WebSocketMessage> mapPayload(final WebSocketSession session, final WebSocketCodec codec,
+                                           final Object payload) {
+
+        return this.payloadEncoder != null
+                ? this.payloadEncoder.encode(session.bufferFactory(), codec, payload)
+                : super.mapPayload(session, codec, payload);
+    }
+
+    private Publisher<?> share(final Publisher<?> upstream) {
+        return this.payloadEncoder != null ? this.payloadEncoder.share(upstream) : upstream;
+    }
+
+    /**
+     * Returns the inbound sink shared by all connections of this handler, e.g. to read its throughput and drop counters.
+     *
+     * @return inbound sink
+     * @since 1.0.0
+     */
+    public MultiProducerMessageSink getInboundSink() {
+        return this.sink;
+    }
+
+    /**
+     * Returns the encoder that shares encoded payloads between the connections of this handler, if enabled.
+     *
+     * @return payload encoder or {@link Optional#empty()}
+     * @since 1.0.0
+     */
+    public Optional<SharedPayloadEncoder> getPayloadEncoder() {
+        return Optional.ofNullable(this.payloadEncoder);
+    }
+
+    /**
+     * Returns the cache of upstream publishers shared between connections, if enabled for this handler.
+     *
+     * @return publisher cache or {@link Optional#empty()}
+     * @since 1.0.0
+     */
+    public Optional<SharedPublisherCache> getPublisherCache() {
+        return Optional.ofNullable(this.publisherCache);
+    }
+
+    /**
+     * Returns the ring buffers of recently broadcast messages, if enabled for this handler.
+     *
+     * @return replay buffers or {@link Optional#empty()}
+     * @since 1.0.0
+     */
+    public Optional<ReplayBuffers> getReplayBuffers() {
+        return Optional.ofNullable(this.replayBuffers);
     }
 
 }
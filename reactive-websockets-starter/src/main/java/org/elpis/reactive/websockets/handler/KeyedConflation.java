@@ -0,0 +1,267 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Outbound stage that keeps only the newest message per key while a session can't take more.
+ *
+ * <p>Every session requests from the handler publisher without limit. Messages the session has no demand for are
+ * kept in insertion order of their keys, and a newer message replaces the pending one of the same key in place. Once
+ * the session drains, pending keys are flushed oldest first. Memory held per session is thereby bounded by the number
+ * of distinct keys rather than by the update rate.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.web.annotation.Conflation
+ * @since 1.0.0
+ */
+public final class KeyedConflation {
+    private static final SpelExpressionParser SPEL_EXPRESSION_PARSER = new SpelExpressionParser(new SpelParserConfiguration(
+            SpelCompilerMode.MIXED, KeyedConflation.class.getClassLoader()));
+
+    private static final Object NULL_KEY = new Object();
+
+    private final Function<Object, ?> keyExtractor;
+    private final LongAdder conflated = new LongAdder();
+
+    public KeyedConflation(final Function<Object, ?> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Creates conflation keyed by a SpEL expression evaluated against each payload, e.g. {@code symbol} or
+     * {@code ['symbol']} for maps. The expression is parsed once.
+     *
+     * @param expression key expression
+     * @return keyed conflation
+     * @since 1.0.0
+     */
+    public static KeyedConflation byExpression(final String expression) {
+        final Expression keyExpression = SPEL_EXPRESSION_PARSER.parseExpression(expression);
+
+        return new KeyedConflation(keyExpression::getValue);
+    }
+
+    /**
+     * Conflates the given publisher for a single session.
+     *
+     * @param publisher handler publisher
+     * @return conflated publisher
+     * @since 1.0.0
+     */
+    public Flux<Object> apply(final Publisher<?> publisher) {
+        return Flux.from((Publisher<Object>) subscriber -> Flux.from(publisher)
+                .subscribe(new ConflatingSubscriber(Operators.toCoreSubscriber(subscriber), this)));
+    }
+
+    /**
+     * Returns number of messages replaced by a newer message of the same key before being sent.
+     *
+     * @return conflated message count
+     * @since 1.0.0
+     */
+    public long getConflated() {
+        return this.conflated.sum();
+    }
+
+    private static final class ConflatingSubscriber implements CoreSubscriber<Object>, Subscription {
+        private final CoreSubscriber<? super Object> actual;
+        private final KeyedConflation parent;
+        private final Map<Object, Object> pending = new LinkedHashMap<>();
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Subscription upstream;
+        private Throwable error;
+
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        private ConflatingSubscriber(final CoreSubscriber<? super Object> actual, final KeyedConflation parent) {
+            this.actual = actual;
+            this.parent = parent;
+        }
+
+        @Override
+        public Context currentContext() {
+            return this.actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            if (Operators.validate(this.upstream, subscription)) {
+                this.upstream = subscription;
+                this.actual.onSubscribe(this);
+
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(final Object payload) {
+            if (this.done) {
+                Operators.onNextDropped(payload, this.currentContext());
+                return;
+            }
+
+            final Object key;
+            try {
+                key = this.parent.keyExtractor.apply(SharedPayloadEncoder.unwrap(payload));
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                this.onError(Operators.onOperatorError(this.upstream, throwable, payload, this.currentContext()));
+                return;
+            }
+
+            synchronized (this.pending) {
+                if (this.pending.put(key != null ? key : NULL_KEY, payload) != null) {
+                    this.parent.conflated.increment();
+                }
+            }
+
+            this.drain();
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            if (this.done) {
+                Operators.onErrorDropped(throwable, this.currentContext());
+                return;
+            }
+
+            this.error = throwable;
+            this.done = true;
+            this.drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (!this.done) {
+                this.done = true;
+                this.drain();
+            }
+        }
+
+        @Override
+        public void request(final long n) {
+            if (Operators.validate(n)) {
+                this.requested.getAndUpdate(current -> Operators.addCap(current, n));
+                this.drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!this.cancelled) {
+                this.cancelled = true;
+                this.upstream.cancel();
+
+                if (this.wip.getAndIncrement() == 0) {
+                    this.clear();
+                }
+            }
+        }
+
+        private Object poll() {
+            synchronized (this.pending) {
+                final Iterator<Object> iterator = this.pending.values().iterator();
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+
+                final Object payload = iterator.next();
+                iterator.remove();
+
+                return payload;
+            }
+        }
+
+        private boolean isEmpty() {
+            synchronized (this.pending) {
+                return this.pending.isEmpty();
+            }
+        }
+
+        private void clear() {
+            synchronized (this.pending) {
+                this.pending.clear();
+            }
+        }
+
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                final long requested = this.requested.get();
+                long emitted = 0;
+
+                while (emitted != requested) {
+                    if (this.cancelled) {
+                        this.clear();
+                        return;
+                    }
+
+                    final boolean terminated = this.done;
+                    final Object payload = this.poll();
+
+                    if (payload == null) {
+                        if (terminated) {
+                            this.terminate();
+                            return;
+                        }
+
+                        break;
+                    }
+
+                    this.actual.onNext(payload);
+                    emitted++;
+                }
+
+                if (this.cancelled) {
+                    this.clear();
+                    return;
+                }
+
+                if (this.done && this.isEmpty()) {
+                    this.terminate();
+                    return;
+                }
+
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    this.requested.addAndGet(-emitted);
+                }
+
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void terminate() {
+            if (this.error != null) {
+                this.actual.onError(this.error);
+            } else {
+                this.actual.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inbound sink shared by all connections of a {@link BroadcastWebSocketResourceHandler}.
+ *
+ * <p>Connections are read by different event-loop threads, while {@link Sinks.Many} rejects concurrent emission with
+ * {@link Sinks.EmitResult#FAIL_NON_SERIALIZED}. Producers therefore only offer messages to a lock-free MPSC queue, and
+ * whichever producer wins the work-in-progress counter drains it into the sink on behalf of all others. No message is
+ * lost to contention.
+ *
+ * <p>Every subscriber reads through a bounded buffer of its own, so the sink always has demand and one subscriber
+ * without demand can't make the sink overflow for all others. Once the buffer of a lagging subscriber is full, further
+ * messages are dropped for that subscriber only, logged and counted.
+ *
+ * <p>Messages offered while no connection is subscribed are dropped and counted as well rather than buffered, so that a
+ * connection subscribing later doesn't get stale messages of others. The sink outlives its subscribers, so it keeps
+ * working once a connection subscribes again.
+ *
+ * <p>The payload is copied to the heap when offered: the transport releases its buffer as soon as the producer returns,
+ * while the sink may hold a message for any number of subscribers for as long as they take to consume it.
+ *
+ * @author Alex Zharkov
+ * @see BroadcastWebSocketResourceHandler
+ * @since 1.0.0
+ */
+public final class MultiProducerMessageSink {
+    private static final Logger log = LoggerFactory.getLogger(MultiProducerMessageSink.class);
+
+    private final Sinks.Many<WebSocketMessage> sink = Sinks.many()
+            .multicast()
+            .onBackpressureBuffer(Queues.SMALL_BUFFER_SIZE, false);
+
+    private final Queue<WebSocketMessage> queue = Queues.<WebSocketMessage>unboundedMultiproducer().get();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Offers a message to the sink. Safe to call from any number of threads at once.
+     *
+     * @param message inbound message
+     * @since 1.0.0
+     */
+    public void emit(final WebSocketMessage message) {
+        this.received.increment();
+        this.queue.offer(copy(message));
+
+        this.drain();
+    }
+
+    /**
+     * Returns the {@link Flux} view of the sink.
+     *
+     * @return all emitted messages
+     * @since 1.0.0
+     */
+    public Flux<WebSocketMessage> asFlux() {
+        return this.sink.asFlux()
+                .onBackpressureBuffer(Queues.SMALL_BUFFER_SIZE, this::onOverflow, BufferOverflowStrategy.DROP_LATEST);
+    }
+
+    /**
+     * Returns the number of messages offered by producers.
+     *
+     * @return received messages count
+     * @since 1.0.0
+     */
+    public long getReceivedCount() {
+        return this.received.sum();
+    }
+
+    /**
+     * Returns the number of messages accepted by the sink.
+     *
+     * @return emitted messages count
+     * @since 1.0.0
+     */
+    public long getEmittedCount() {
+        return this.emitted.sum();
+    }
+
+    /**
+     * Returns the number of messages dropped, either for lack of subscribers or for a subscriber whose buffer was full.
+     *
+     * @return dropped messages count
+     * @since 1.0.0
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Returns the number of messages waiting to be drained.
+     *
+     * @return pending messages count
+     * @since 1.0.0
+     */
+    public int getPendingCount() {
+        return this.queue.size();
+    }
+
+    private void drain() {
+        if (this.wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            WebSocketMessage message;
+            while ((message = this.queue.poll()) != null) {
+                final Sinks.EmitResult result = this.sink.currentSubscriberCount() == 0
+                        ? Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER
+                        : this.sink.tryEmitNext(message);
+
+                if (result.isSuccess()) {
+                    this.emitted.increment();
+                } else if (result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+                    this.dropped.increment();
+                    log.debug("Inbound message dropped: {}", result);
+                } else {
+                    this.dropped.increment();
+                    log.warn("Inbound message dropped: {}", result);
+                }
+            }
+
+            missed = this.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void onOverflow(final WebSocketMessage message) {
+        this.dropped.increment();
+        log.warn("Inbound message dropped: subscriber buffer is full");
+    }
+
+    static WebSocketMessage copy(final WebSocketMessage message) {
+        final DataBuffer payload = message.getPayload();
+        final byte[] bytes = new byte[payload.readableByteCount()];
+        payload.toByteBuffer(payload.readPosition(), ByteBuffer.wrap(bytes), 0, bytes.length);
+
+        return new WebSocketMessage(message.getType(), DefaultDataBufferFactory.sharedInstance.wrap(bytes));
+    }
+}
@@ -0,0 +1,298 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.elpis.reactive.websockets.codec.WebSocketCodec;
+import org.elpis.reactive.websockets.exception.WebSocketCodecException;
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ring buffers of recently broadcast messages, one per group of sessions of a {@link SharedPublisherCache}.
+ *
+ * <p>Messages are numbered as the shared upstream emits them and the last {@code size} of them are retained. A session
+ * that asks for history in its handshake query first gets the retained messages it asked for, then the live ones, with
+ * no gap or duplicate in between: the session joins the live stream before the ring is read and skips live messages
+ * the snapshot already covered. Replayed messages are encoded lazily, once per codec, and the encoded bytes are
+ * wrapped, not copied, for every later joiner.
+ *
+ * <p>A ring lives as long as the upstream of its group: it is created when the upstream is subscribed and evicted once
+ * the upstream terminates or is cancelled along with the last session of the group, so a session joining after
+ * everyone else has left starts a fresh ring numbered from {@code 1}. Rings also grow up to {@code size} as messages
+ * are recorded, so memory is bounded by the messages of groups that currently have sessions, however many distinct
+ * groups clients ask for.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.web.annotation.Replay
+ * @since 1.0.0
+ */
+public final class ReplayBuffers {
+    private static final Logger log = LoggerFactory.getLogger(ReplayBuffers.class);
+
+    private final int size;
+    private final String lastParameter;
+    private final String sinceParameter;
+
+    private final Map<List<Object>, Ring> rings = new ConcurrentHashMap<>();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder encoded = new LongAdder();
+
+    public ReplayBuffers(final int size, final String lastParameter, final String sinceParameter) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Replay buffer size should be positive, got " + size);
+        }
+
+        this.size = size;
+        this.lastParameter = lastParameter;
+        this.sinceParameter = sinceParameter;
+    }
+
+    /**
+     * Numbers and retains the messages of the upstream shared by the given group. Must be applied before the upstream
+     * is multicast, so that every message is recorded once.
+     *
+     * @param key      group key
+     * @param upstream handler publisher
+     * @return numbered messages
+     * @since 1.0.0
+     */
+    public Flux<Frame> record(final List<Object> key, final Publisher<?> upstream) {
+        return Flux.defer(() -> {
+            final Ring ring = new Ring(this.size);
+            this.rings.put(key, ring);
+
+            return Flux.from(upstream)
+                    .map(ring::append)
+                    .doFinally(signalType -> this.rings.remove(key, ring));
+        });
+    }
+
+    /**
+     * Prepends the history requested by the session to the live messages of its group.
+     *
+     * @param key     group key
+     * @param context session context to read the requested history from
+     * @param codec   codec negotiated by the session
+     * @param live    numbered messages shared by the group
+     * @return replayed {@link WebSocketMessage WebSocketMessages} followed by live payloads
+     * @since 1.0.0
+     */
+    public Flux<Object> replay(final List<Object> key, final WebSocketSessionContext context, final WebSocketCodec codec,
+                               final Flux<Frame> live) {
+
+        final long last = this.getParameter(context, this.lastParameter);
+        final long since = this.getParameter(context, this.sinceParameter);
+
+        if (last < 0 && since < 0) {
+            return live.map(Frame::payload);
+        }
+
+        return Flux.defer(() -> {
+            final Sinks.Many<Frame> pending = Sinks.many().unicast().onBackpressureBuffer();
+            final Disposable subscription = live.subscribe(pending::tryEmitNext, pending::tryEmitError,
+                    pending::tryEmitComplete);
+
+            final Ring ring = this.rings.get(key);
+            final Snapshot snapshot = ring != null
+                    ? ring.snapshot(since < 0 ? 0 : since, last < 0 ? this.size : last)
+                    : new Snapshot(0, List.of());
+
+            final Flux<Object> replayed = Flux.fromIterable(snapshot.frames())
+                    .handle((frame, sink) -> {
+                        final WebSocketMessage message = this.toMessage(frame, codec);
+                        if (message != null) {
+                            this.replayed.increment();
+                            sink.next(message);
+                        }
+                    });
+
+            return replayed.concatWith(pending.asFlux()
+                            .filter(frame -> frame.sequence() < 0 || frame.sequence() > snapshot.sequence())
+                            .map(Frame::payload))
+                    .doFinally(signalType -> subscription.dispose());
+        });
+    }
+
+    /**
+     * Returns the number of the last message recorded for the given group.
+     *
+     * @param key group key
+     * @return last message number, {@code 0} if nothing has been recorded
+     * @since 1.0.0
+     */
+    public long getSequence(final List<Object> key) {
+        final Ring ring = this.rings.get(key);
+        return ring != null ? ring.getSequence() : 0;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of groups with a ring buffer.
+     *
+     * @return ring buffer count
+     * @since 1.0.0
+     */
+    public int getRingCount() {
+        return this.rings.size();
+    }
+
+    /**
+     * Returns the number of messages sent from ring buffers to late joiners.
+     *
+     * @return replayed message count
+     * @since 1.0.0
+     */
+    public long getReplayed() {
+        return this.replayed.sum();
+    }
+
+    /**
+     * Returns the number of times a retained message has been encoded. Stays below {@link #getReplayed()} as long as
+     * encoded messages are reused.
+     *
+     * @return encoded message count
+     * @since 1.0.0
+     */
+    public long getEncoded() {
+        return this.encoded.sum();
+    }
+
+    private long getParameter(final WebSocketSessionContext context, final String name) {
+        final String value = context.getQueryParameters().getFirst(name);
+        if (value == null) {
+            return -1;
+        }
+
+        try {
+            return Math.max(Long.parseLong(value), 0);
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring `{}` replay parameter of session {}: `{}` is not a number", name,
+                    context.getSessionId(), value);
+            return -1;
+        }
+    }
+
+    private WebSocketMessage toMessage(final Frame frame, final WebSocketCodec codec) {
+        if (frame.payload() instanceof byte[] binary) {
+            return new WebSocketMessage(WebSocketMessage.Type.BINARY, DefaultDataBufferFactory.sharedInstance.wrap(binary));
+        }
+
+        Encoded encoded = frame.encoded;
+        if (encoded == null || encoded.codec() != codec) {
+            final DataBuffer buffer;
+            try {
+                buffer = codec.encode(SharedPayloadEncoder.unwrap(frame.payload()),
+                        DefaultDataBufferFactory.sharedInstance);
+            } catch (WebSocketCodecException e) {
+                log.error(e.getMessage());
+                return null;
+            }
+
+            final byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            DataBufferUtils.release(buffer);
+
+            encoded = new Encoded(codec, bytes);
+            frame.encoded = encoded;
+            this.encoded.increment();
+        }
+
+        return new WebSocketMessage(codec.getMessageType(), DefaultDataBufferFactory.sharedInstance.wrap(encoded.bytes()));
+    }
+
+    /**
+     * Message of a shared upstream with its number, {@code -1} for messages that can't be replayed, e.g. raw
+     * {@link WebSocketMessage WebSocketMessages} whose buffer is consumed once sent.
+     *
+     * @since 1.0.0
+     */
+    public static final class Frame {
+        private final long sequence;
+        private final Object payload;
+
+        private volatile Encoded encoded;
+
+        private Frame(final long sequence, final Object payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long sequence() {
+            return this.sequence;
+        }
+
+        public Object payload() {
+            return this.payload;
+        }
+    }
+
+    private record Encoded(WebSocketCodec codec, byte[] bytes) {
+    }
+
+    private record Snapshot(long sequence, List<Frame> frames) {
+    }
+
+    private static final class Ring {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final int size;
+        private Frame[] frames;
+        private long sequence;
+
+        private Ring(final int size) {
+            this.size = size;
+            this.frames = new Frame[Math.min(size, INITIAL_CAPACITY)];
+        }
+
+        private synchronized Frame append(final Object payload) {
+            if (payload instanceof WebSocketMessage || payload instanceof InputStream || payload instanceof CloseStatus) {
+                return new Frame(-1, payload);
+            }
+
+            // Until the ring is full-sized no slot has been reused yet, so frames keep their index when it grows
+            if (this.sequence + 1 >= this.frames.length && this.frames.length < this.size) {
+                this.frames = Arrays.copyOf(this.frames, Math.min(this.frames.length * 2, this.size));
+            }
+
+            final Frame frame = new Frame(++this.sequence, payload);
+            this.frames[(int) (this.sequence % this.frames.length)] = frame;
+
+            return frame;
+        }
+
+        private synchronized long getSequence() {
+            return this.sequence;
+        }
+
+        private synchronized Snapshot snapshot(final long since, final long last) {
+            final long retained = Math.max(this.sequence - this.frames.length, 0);
+            final long from = Math.min(Math.max(Math.max(since, this.sequence - last), retained), this.sequence);
+            final List<Frame> history = new ArrayList<>((int) (this.sequence - from));
+
+            for (long sequence = from + 1; sequence <= this.sequence; sequence++) {
+                history.add(this.frames[(int) (sequence % this.frames.length)]);
+            }
+
+            return new Snapshot(this.sequence, history);
+        }
+    }
+}
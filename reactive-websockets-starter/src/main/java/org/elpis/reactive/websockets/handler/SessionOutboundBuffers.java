@@ -0,0 +1,154 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.elpis.reactive.websockets.config.SlowConsumerPolicy;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.socket.CloseStatus;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded per-session buffers for the outbound messages of a handler.
+ *
+ * <p>Each session requests from the handler publisher without limit and keeps what its client hasn't taken yet in a
+ * buffer of its own, bounded according to the {@link SlowConsumerPolicy}. A stalled client therefore doesn't hold
+ * back a publisher shared with other sessions, nor grows the heap past the buffer size. The number of messages
+ * buffered for every open session is exposed as a gauge.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.web.annotation.OutboundBuffer
+ * @since 1.0.0
+ */
+public final class SessionOutboundBuffers {
+    private static final Logger log = LoggerFactory.getLogger(SessionOutboundBuffers.class);
+
+    private final SlowConsumerPolicy policy;
+    private final int size;
+
+    private final Map<String, AtomicInteger> queueDepths = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    public SessionOutboundBuffers(final SlowConsumerPolicy policy, final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Outbound buffer size should be positive, got " + size);
+        }
+
+        this.policy = policy;
+        this.size = size;
+    }
+
+    /**
+     * Buffers the given publisher for a single session.
+     *
+     * @param sessionId session id to report queue depth for
+     * @param publisher handler publisher
+     * @param close     closes the session, used by {@link SlowConsumerPolicy#DISCONNECT}
+     * @return buffered publisher
+     * @since 1.0.0
+     */
+    public Flux<Object> apply(final String sessionId, final Publisher<?> publisher,
+                              final Function<CloseStatus, Mono<Void>> close) {
+
+        return Flux.defer(() -> {
+            final AtomicInteger depth = new AtomicInteger();
+            this.queueDepths.put(sessionId, depth);
+
+            final Flux<Object> upstream = Flux.<Object>from(publisher)
+                    .doOnNext(payload -> depth.incrementAndGet());
+
+            final Flux<Object> buffered = switch (this.policy) {
+                case DROP_OLDEST -> upstream.onBackpressureBuffer(this.size, payload -> this.onDropped(depth),
+                        BufferOverflowStrategy.DROP_OLDEST);
+                case CONFLATE_LATEST -> upstream.onBackpressureLatest()
+                        .doOnDiscard(Object.class, payload -> this.onDropped(depth));
+                case DISCONNECT -> {
+                    // Overflow error of onBackpressureBuffer waits for demand, which a stalled client never signals
+                    final Sinks.Empty<Void> overflow = Sinks.empty();
+
+                    yield upstream.onBackpressureBuffer(this.size, payload -> {
+                                depth.decrementAndGet();
+
+                                if (overflow.tryEmitEmpty().isSuccess()) {
+                                    this.disconnected.increment();
+                                    log.warn("Closing session {}: more than {} outbound messages are pending", sessionId,
+                                            this.size);
+
+                                    close.apply(CloseStatus.POLICY_VIOLATION).subscribe();
+                                }
+                            }, BufferOverflowStrategy.DROP_LATEST)
+                            .takeUntilOther(overflow.asMono());
+                }
+            };
+
+            return buffered.doOnNext(payload -> depth.decrementAndGet())
+                    .doFinally(signalType -> this.queueDepths.remove(sessionId, depth));
+        });
+    }
+
+    private void onDropped(final AtomicInteger depth) {
+        depth.decrementAndGet();
+        this.dropped.increment();
+    }
+
+    public SlowConsumerPolicy getPolicy() {
+        return this.policy;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns number of messages buffered for the given session.
+     *
+     * @param sessionId session id
+     * @return queue depth, {@code 0} for unknown sessions
+     * @since 1.0.0
+     */
+    public int getQueueDepth(final String sessionId) {
+        final AtomicInteger depth = this.queueDepths.get(sessionId);
+        return depth != null ? Math.max(depth.get(), 0) : 0;
+    }
+
+    /**
+     * Returns live view of the number of messages buffered for every open session.
+     *
+     * @return session id to queue depth gauge
+     * @since 1.0.0
+     */
+    public Map<String, AtomicInteger> getQueueDepths() {
+        return Collections.unmodifiableMap(this.queueDepths);
+    }
+
+    /**
+     * Returns number of messages evicted by {@link SlowConsumerPolicy#DROP_OLDEST} or
+     * {@link SlowConsumerPolicy#CONFLATE_LATEST}.
+     *
+     * @return dropped message count
+     * @since 1.0.0
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Returns number of sessions closed by {@link SlowConsumerPolicy#DISCONNECT}.
+     *
+     * @return disconnected session count
+     * @since 1.0.0
+     */
+    public long getDisconnected() {
+        return this.disconnected.sum();
+    }
+}
@@ -0,0 +1,75 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeat;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * Server pings of a single session.
+ *
+ * <p>Pings are emitted by the shared {@link WebSocketHeartbeatScheduler} into a one-slot sink, so a session that
+ * can't keep up never queues more than one ping. Inbound pongs are correlated with the outstanding pings by their
+ * payload, and a session that stops answering is closed with {@link CloseStatus#GOING_AWAY}.
+ *
+ * @author Alex Zharkov
+ * @see WebSocketHeartbeat
+ * @since 1.0.0
+ */
+final class SessionPings implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(SessionPings.class);
+
+    private final Sinks.Many<WebSocketMessage> pings = Sinks.many()
+            .unicast()
+            .onBackpressureBuffer(Queues.<WebSocketMessage>one().get());
+
+    private final WebSocketHeartbeat heartbeat;
+
+    SessionPings(final WebSocketSession session, final WebSocketHeartbeatScheduler heartbeatScheduler,
+                 final Duration interval) {
+
+        this.heartbeat = heartbeatScheduler.schedule(interval,
+                payload -> this.pings.tryEmitNext(session.pingMessage(dataBufferFactory ->
+                        dataBufferFactory.wrap(ByteBuffer.allocate(Long.BYTES).putLong(0, payload)))),
+                () -> {
+                    log.debug("Closing WebSocketSession without pongs: id => {}", session.getId());
+                    session.close(CloseStatus.GOING_AWAY).subscribe();
+                });
+    }
+
+    Flux<WebSocketMessage> asFlux() {
+        return this.pings.asFlux();
+    }
+
+    void pong(final WebSocketMessage message) {
+        final DataBuffer payload = message.getPayload();
+
+        if (payload.readableByteCount() == Long.BYTES) {
+            final byte[] bytes = new byte[Long.BYTES];
+            payload.toByteBuffer(payload.readPosition(), ByteBuffer.wrap(bytes), 0, Long.BYTES);
+
+            this.heartbeat.pong(ByteBuffer.wrap(bytes).getLong());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        this.heartbeat.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.heartbeat.isDisposed();
+    }
+}
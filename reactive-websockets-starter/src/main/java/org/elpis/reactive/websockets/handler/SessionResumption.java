@@ -0,0 +1,562 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.elpis.reactive.websockets.exception.WebSocketProcessingException;
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.security.Principal;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Logical sessions of a handler that outlive their connection for a while, so that a client can reattach after a
+ * reconnect without losing its subscription or the messages published meanwhile.
+ *
+ * <p>Each handshake is given a resume token. The first connection presenting a token creates a logical session, which
+ * subscribes to the handler publisher on its own behalf and keeps what the connection hasn't taken yet in a bounded
+ * outbox. When the connection drops the subscription stays, messages keep piling up in the outbox, and a connection
+ * presenting the same token within the TTL gets the outbox first and the live messages after it. Inbound messages of
+ * every connection are forwarded to the publisher the logical session was created with.
+ *
+ * <p>A logical session ends once its publisher terminates and the outbox is drained, once its attached connection is
+ * closed by the client with {@link CloseStatus#NORMAL} or {@link CloseStatus#GOING_AWAY}, once its TTL expires, or once
+ * its outbox overflows while no connection is attached. Only connections closed otherwise are expected to come back,
+ * and in the last case the client could only resume with a gap, so it gets a fresh session instead. While a connection
+ * is attached but slow, the oldest outbox messages are dropped.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.web.annotation.Resumption
+ * @since 1.0.0
+ */
+public final class SessionResumption {
+    public static final String TOKEN_HEADER = "X-Resume-Token";
+    public static final String TOKEN_PARAMETER = "resumeToken";
+    public static final String TOKEN_CONTEXT_KEY = "resumeToken";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Duration ttl;
+    private final int outboxSize;
+
+    private final Map<String, LogicalSession> byToken = new ConcurrentHashMap<>();
+    private final Map<String, LogicalSession> bySessionId = new ConcurrentHashMap<>();
+
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public SessionResumption(final Duration ttl, final int outboxSize) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Resumption TTL should be positive, got " + ttl);
+        }
+
+        if (outboxSize < 1) {
+            throw new IllegalArgumentException("Outbox size should be positive, got " + outboxSize);
+        }
+
+        this.ttl = ttl;
+        this.outboxSize = outboxSize;
+    }
+
+    /**
+     * Reads the resume token presented by a handshake request, either from {@link #TOKEN_HEADER} or from
+     * {@link #TOKEN_PARAMETER}.
+     *
+     * @param request handshake request
+     * @return presented token or {@code null}
+     * @since 1.0.0
+     */
+    public static String getPresentedToken(final ServerHttpRequest request) {
+        final String token = request.getHeaders().getFirst(TOKEN_HEADER);
+        return token != null ? token : request.getQueryParams().getFirst(TOKEN_PARAMETER);
+    }
+
+    /**
+     * Returns the token to issue to a handshake: the presented one if it still belongs to a logical session, a new
+     * random one otherwise.
+     *
+     * @param presented token presented by the client, may be {@code null}
+     * @return token to issue
+     * @since 1.0.0
+     */
+    public String issueToken(final String presented) {
+        if (presented != null && this.byToken.containsKey(presented)) {
+            return presented;
+        }
+
+        final byte[] token = new byte[16];
+        RANDOM.nextBytes(token);
+
+        return TOKEN_ENCODER.encodeToString(token);
+    }
+
+    /**
+     * Binds a connection to the logical session of the given token, creating one if there's none.
+     *
+     * @param token     issued token
+     * @param sessionId id of the connecting session
+     * @return id of the logical session, i.e. the id of the first connection that presented the token
+     * @since 1.0.0
+     */
+    public String bind(final String token, final String sessionId) {
+        return this.byToken.computeIfAbsent(token, key -> {
+            final LogicalSession session = new LogicalSession(key, sessionId);
+            this.bySessionId.put(sessionId, session);
+
+            return session;
+        }).sessionId;
+    }
+
+    /**
+     * Checks whether the given session id belongs to a logical session.
+     *
+     * @param sessionId session id
+     * @return {@code true} if bound
+     * @since 1.0.0
+     */
+    public boolean isBound(final String sessionId) {
+        return this.bySessionId.containsKey(sessionId);
+    }
+
+    /**
+     * Attaches a connection to its logical session.
+     *
+     * @param context   session context, the one of the first connection is passed to the publisher
+     * @param inbound     inbound messages of the connection
+     * @param closeStatus close status of the connection, a clean one ends the logical session
+     * @param publisher   creates the handler publisher from the inbound messages of the logical session
+     * @return outbox messages followed by the live ones
+     * @since 1.0.0
+     */
+    public Flux<Object> attach(final WebSocketSessionContext context, final Flux<WebSocketMessage> inbound,
+                               final Mono<CloseStatus> closeStatus,
+                               final Function<Flux<WebSocketMessage>, Publisher<?>> publisher) {
+
+        final LogicalSession session = this.bySessionId.get(context.getSessionId());
+
+        return session != null
+                ? Flux.from((Publisher<Object>) subscriber -> session.attach(Operators.toCoreSubscriber(subscriber),
+                context, inbound, closeStatus, publisher))
+                : Flux.from(publisher.apply(inbound));
+    }
+
+    /**
+     * Ends the logical session with the given id, e.g. when the server closes it on purpose.
+     *
+     * @param sessionId logical session id
+     * @since 1.0.0
+     */
+    public void end(final String sessionId) {
+        final LogicalSession session = this.bySessionId.get(sessionId);
+        if (session != null) {
+            session.end(false);
+        }
+    }
+
+    public Duration getTtl() {
+        return this.ttl;
+    }
+
+    public int getOutboxSize() {
+        return this.outboxSize;
+    }
+
+    /**
+     * Returns the number of logical sessions, attached or not.
+     *
+     * @return logical session count
+     * @since 1.0.0
+     */
+    public int getSessionCount() {
+        return this.byToken.size();
+    }
+
+    /**
+     * Returns the number of messages waiting in the outbox of the given logical session.
+     *
+     * @param sessionId logical session id
+     * @return outbox depth, {@code 0} for unknown sessions
+     * @since 1.0.0
+     */
+    public int getOutboxDepth(final String sessionId) {
+        final LogicalSession session = this.bySessionId.get(sessionId);
+        if (session == null) {
+            return 0;
+        }
+
+        synchronized (session) {
+            return session.outbox.size();
+        }
+    }
+
+    /**
+     * Returns the number of connections that reattached to an existing logical session.
+     *
+     * @return resumed connection count
+     * @since 1.0.0
+     */
+    public long getResumed() {
+        return this.resumed.sum();
+    }
+
+    /**
+     * Returns the number of logical sessions dropped by TTL or by outbox overflow while detached.
+     *
+     * @return expired session count
+     * @since 1.0.0
+     */
+    public long getExpired() {
+        return this.expired.sum();
+    }
+
+    /**
+     * Returns the number of outbox messages dropped for slow attached connections.
+     *
+     * @return dropped message count
+     * @since 1.0.0
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    private final class LogicalSession {
+        private final String token;
+        private final String sessionId;
+
+        private final Sinks.Many<WebSocketMessage> inbound = Sinks.many().multicast().onBackpressureBuffer();
+        private final ArrayDeque<Object> outbox = new ArrayDeque<>();
+
+        // guarded by this
+        private Attachment attachment;
+        private Attachment detached;
+        private Disposable forward;
+        private Disposable expiry;
+        private String principalName;
+        private boolean started;
+        private boolean done;
+        private Throwable error;
+        private boolean ended;
+
+        private volatile Disposable upstream;
+
+        private LogicalSession(final String token, final String sessionId) {
+            this.token = token;
+            this.sessionId = sessionId;
+            this.expiry = this.scheduleExpiry();
+        }
+
+        private void attach(final CoreSubscriber<? super Object> actual, final WebSocketSessionContext context,
+                            final Flux<WebSocketMessage> inbound, final Mono<CloseStatus> closeStatus,
+                            final Function<Flux<WebSocketMessage>, Publisher<?>> publisher) {
+
+            final Attachment next = new Attachment(actual);
+            final String principalName = this.getPrincipalName(context.getAuthentication());
+            final Attachment previous;
+            final boolean resumed;
+
+            synchronized (this) {
+                if (this.ended) {
+                    Operators.error(actual, new WebSocketProcessingException("Session %s can no longer be resumed",
+                            this.sessionId));
+                    return;
+                }
+
+                if (this.started && !Objects.equals(this.principalName, principalName)) {
+                    Operators.error(actual, new WebSocketProcessingException("Resume token of session %s has been " +
+                            "presented by another principal", this.sessionId));
+                    return;
+                }
+
+                resumed = this.started;
+                previous = this.attachment;
+
+                this.started = true;
+                this.detached = null;
+                this.principalName = principalName;
+                this.attachment = next;
+
+                if (this.expiry != null) {
+                    this.expiry.dispose();
+                    this.expiry = null;
+                }
+
+                if (this.forward != null) {
+                    this.forward.dispose();
+                }
+            }
+
+            actual.onSubscribe(next);
+
+            closeStatus.filter(status -> status.equalsCode(CloseStatus.NORMAL)
+                            || status.equalsCode(CloseStatus.GOING_AWAY))
+                    .subscribe(status -> this.release(next));
+
+            // a connection that hasn't noticed it was dropped yet gives way to the new one
+            if (previous != null) {
+                previous.supersede();
+            }
+
+            final Disposable forward = inbound.subscribe(this.inbound::tryEmitNext);
+            synchronized (this) {
+                if (this.attachment == next) {
+                    this.forward = forward;
+                } else {
+                    forward.dispose();
+                }
+            }
+
+            if (resumed) {
+                SessionResumption.this.resumed.increment();
+            } else {
+                this.upstream = Flux.from(publisher.apply(this.inbound.asFlux()))
+                        .subscribe(this::onNext, this::onError, this::onComplete);
+
+                synchronized (this) {
+                    if (this.ended) {
+                        this.upstream.dispose();
+                    }
+                }
+            }
+
+            next.drain();
+        }
+
+        private void onNext(final Object payload) {
+            final Attachment current;
+
+            synchronized (this) {
+                if (this.ended) {
+                    return;
+                }
+
+                if (this.outbox.size() >= SessionResumption.this.outboxSize) {
+                    if (this.attachment == null) {
+                        this.end(true);
+                        return;
+                    }
+
+                    this.outbox.poll();
+                    SessionResumption.this.dropped.increment();
+                }
+
+                this.outbox.offer(payload);
+                current = this.attachment;
+            }
+
+            if (current != null) {
+                current.drain();
+            }
+        }
+
+        private void onError(final Throwable throwable) {
+            this.terminate(throwable);
+        }
+
+        private void onComplete() {
+            this.terminate(null);
+        }
+
+        private void terminate(final Throwable throwable) {
+            final Attachment current;
+
+            synchronized (this) {
+                this.done = true;
+                this.error = throwable;
+                current = this.attachment;
+            }
+
+            if (current != null) {
+                current.drain();
+            }
+        }
+
+        private void detach(final Attachment attachment) {
+            synchronized (this) {
+                if (this.attachment != attachment || this.ended) {
+                    return;
+                }
+
+                this.attachment = null;
+                this.detached = attachment;
+
+                if (this.forward != null) {
+                    this.forward.dispose();
+                    this.forward = null;
+                }
+
+                this.expiry = this.scheduleExpiry();
+            }
+        }
+
+        private void release(final Attachment attachment) {
+            synchronized (this) {
+                // a superseded connection going away doesn't take the logical session with it
+                if (this.attachment != attachment && this.detached != attachment) {
+                    return;
+                }
+            }
+
+            this.end(false);
+        }
+
+        private void end(final boolean expired) {
+            synchronized (this) {
+                if (this.ended) {
+                    return;
+                }
+
+                this.ended = true;
+                this.outbox.clear();
+
+                if (this.forward != null) {
+                    this.forward.dispose();
+                }
+
+                if (this.expiry != null) {
+                    this.expiry.dispose();
+                }
+            }
+
+            SessionResumption.this.byToken.remove(this.token, this);
+            SessionResumption.this.bySessionId.remove(this.sessionId, this);
+
+            final Disposable upstream = this.upstream;
+            if (upstream != null) {
+                upstream.dispose();
+            }
+
+            this.inbound.tryEmitComplete();
+
+            if (expired) {
+                SessionResumption.this.expired.increment();
+            }
+        }
+
+        private Disposable scheduleExpiry() {
+            return Schedulers.parallel().schedule(() -> this.end(true), SessionResumption.this.ttl.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        private String getPrincipalName(final Principal principal) {
+            return principal != null ? principal.getName() : null;
+        }
+
+        private final class Attachment implements Subscription {
+            private final CoreSubscriber<? super Object> actual;
+
+            private final AtomicLong requested = new AtomicLong();
+            private final AtomicInteger wip = new AtomicInteger();
+
+            private volatile boolean cancelled;
+            private volatile boolean superseded;
+
+            private Attachment(final CoreSubscriber<? super Object> actual) {
+                this.actual = actual;
+            }
+
+            @Override
+            public void request(final long n) {
+                if (Operators.validate(n)) {
+                    this.requested.getAndUpdate(current -> Operators.addCap(current, n));
+                    this.drain();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                if (!this.cancelled) {
+                    this.cancelled = true;
+                    LogicalSession.this.detach(this);
+                }
+            }
+
+            private void supersede() {
+                this.superseded = true;
+                this.drain();
+            }
+
+            private void drain() {
+                if (this.wip.getAndIncrement() != 0) {
+                    return;
+                }
+
+                int missed = 1;
+                do {
+                    final long requested = this.requested.get();
+                    long emitted = 0;
+
+                    while (true) {
+                        if (this.cancelled) {
+                            return;
+                        }
+
+                        if (this.superseded) {
+                            this.cancelled = true;
+                            this.actual.onComplete();
+                            return;
+                        }
+
+                        final Object payload;
+                        final boolean terminated;
+                        final Throwable error;
+
+                        synchronized (LogicalSession.this) {
+                            payload = emitted != requested ? LogicalSession.this.outbox.poll() : null;
+                            terminated = LogicalSession.this.done && LogicalSession.this.outbox.isEmpty();
+                            error = LogicalSession.this.error;
+                        }
+
+                        if (payload != null) {
+                            this.actual.onNext(payload);
+                            emitted++;
+                            continue;
+                        }
+
+                        if (terminated) {
+                            this.cancelled = true;
+                            LogicalSession.this.end(false);
+
+                            if (error != null) {
+                                this.actual.onError(error);
+                            } else {
+                                this.actual.onComplete();
+                            }
+
+                            return;
+                        }
+
+                        break;
+                    }
+
+                    if (emitted != 0 && requested != Long.MAX_VALUE) {
+                        this.requested.addAndGet(-emitted);
+                    }
+
+                    missed = this.wip.addAndGet(-missed);
+                } while (missed != 0);
+            }
+        }
+    }
+}
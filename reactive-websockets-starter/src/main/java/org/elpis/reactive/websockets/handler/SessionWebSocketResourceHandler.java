@@ -0,0 +1,93 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link BaseWebSocketHandler} implementation for {@link org.elpis.reactive.websockets.config.Mode#SESSION Mode.SESSION}.
+ *
+ * <p>Each connection gets its own inbound sink, so the messages passed to {@link #apply} or {@link #run} are only the
+ * ones received by that connection. Since a single connection is always read by one event-loop thread and its
+ * messages are consumed by one handler, the sink is a unicast one with exactly one producer and one consumer, and
+ * sessions never contend with each other.
+ *
+ * <p>Payloads are copied to the heap before they are buffered, because the transport releases its buffer as soon as the
+ * message is emitted, while the handler may consume it later, e.g. after {@code publishOn}. Messages that don't fit
+ * into the bounded buffer of a handler that lags behind are logged and counted as dropped.
+ *
+ * @author Alex Zharkov
+ * @see BroadcastWebSocketResourceHandler
+ * @since 1.0.0
+ */
+public abstract class SessionWebSocketResourceHandler extends BaseWebSocketHandler {
+    private static final Logger log = LoggerFactory.getLogger(SessionWebSocketResourceHandler.class);
+
+    private final LongAdder droppedMessages = new LongAdder();
+
+    protected SessionWebSocketResourceHandler(final WebSocketEventManagerFactory eventManagerFactory,
+                                              final WebSocketSessionRegistry webSocketSessionRegistry,
+                                              final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                              final WebSocketCodecRegistry codecRegistry,
+                                              final String pathTemplate,
+                                              final boolean pingEnabled,
+                                              final long pingInterval) {
+
+        super(eventManagerFactory, webSocketSessionRegistry, heartbeatScheduler, codecRegistry, pathTemplate, pingEnabled, pingInterval);
+    }
+
+    @Override
+    protected Flux<Void> buildChain(WebSocketSession session, WebSocketSessionContext webSocketSessionContext) {
+        final Sinks.Many<WebSocketMessage> sink = Sinks.many()
+                .unicast()
+                .onBackpressureBuffer(Queues.<WebSocketMessage>get(Queues.SMALL_BUFFER_SIZE).get());
+
+        final SessionPings serverPings = this.getServerPings(session);
+        final Flux<WebSocketMessage> messages = this.getMessages(session, webSocketSessionContext, sink.asFlux(),
+                serverPings);
+
+        final Mono<Void> input = this.receive(session, serverPings)
+                .doOnNext(message -> this.emit(sink, message))
+                .doFinally(signalType -> sink.tryEmitComplete())
+                .then();
+
+        return messages != null ? Flux.merge(input, session.send(messages)) : input.flux();
+    }
+
+    /**
+     * Returns the number of inbound messages dropped because the handler didn't keep up with them.
+     *
+     * @return dropped messages count
+     * @since 1.0.0
+     */
+    public long getDroppedMessagesCount() {
+        return this.droppedMessages.sum();
+    }
+
+    private void emit(final Sinks.Many<WebSocketMessage> sink, final WebSocketMessage message) {
+        final Sinks.EmitResult result = sink.tryEmitNext(MultiProducerMessageSink.copy(message));
+
+        if (result.isFailure()) {
+            this.droppedMessages.increment();
+
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                log.warn("Inbound message of {} dropped: handler buffer is full", this.getPathTemplate());
+            } else {
+                log.debug("Inbound message of {} dropped: {}", this.getPathTemplate(), result);
+            }
+        }
+    }
+
+}
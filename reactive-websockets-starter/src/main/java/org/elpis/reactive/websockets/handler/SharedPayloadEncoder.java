@@ -0,0 +1,159 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.elpis.reactive.websockets.codec.WebSocketCodec;
+import org.elpis.reactive.websockets.exception.WebSocketCodecException;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.InputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encode-once for payloads fanned out by the shared upstream of a {@link BroadcastWebSocketResourceHandler}.
+ *
+ * <p>Every payload the upstream emits is wrapped, before it is multicast, into a holder of its own. The first session
+ * that sends it encodes it into the holder, and every other session of the same emission wraps the encoded bytes, not
+ * copies them. Encoded bytes thereby live exactly as long as the emission itself: nothing is cached across emissions,
+ * so a payload instance that is mutated and emitted again is encoded again.
+ *
+ * <p>A holder keeps the bytes of the last codec only, so sessions negotiating different codecs share less.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.web.annotation.SharedPublisher#encodeOnce()
+ * @since 1.0.0
+ */
+public final class SharedPayloadEncoder {
+    private static final Logger log = LoggerFactory.getLogger(SharedPayloadEncoder.class);
+
+    private final LongAdder encoded = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Wraps the payloads of the upstream, so that each of them is encoded once however many sessions it is sent to.
+     * Must be applied before the upstream is multicast. Raw messages, binary and stream payloads are passed as they are.
+     *
+     * @param upstream handler publisher
+     * @return wrapped payloads
+     * @since 1.0.0
+     */
+    public Flux<Object> share(final Publisher<?> upstream) {
+        return Flux.from(upstream)
+                .map(payload -> payload instanceof WebSocketMessage || payload instanceof byte[]
+                        || payload instanceof InputStream || payload instanceof CloseStatus
+                        ? payload
+                        : new SharedPayload(payload));
+    }
+
+    /**
+     * Converts payload to a {@link WebSocketMessage} of the given codec. A payload wrapped by {@link #share(Publisher)}
+     * reuses the bytes encoded for another session, any other payload is encoded for this session only.
+     *
+     * @param bufferFactory buffer factory of the target session
+     * @param codec         codec negotiated by the target session
+     * @param payload       any object
+     * @return {@link Mono} with the message, or {@link Mono#empty()} if the payload can't be encoded
+     * @since 1.0.0
+     */
+    public Mono<WebSocketMessage> encode(final DataBufferFactory bufferFactory, final WebSocketCodec codec,
+                                         final Object payload) {
+
+        return Mono.fromSupplier(() -> payload instanceof SharedPayload sharedPayload
+                ? this.encodeShared(bufferFactory, codec, sharedPayload)
+                : this.encodeSingle(bufferFactory, codec, payload));
+    }
+
+    /**
+     * Returns the payload wrapped by {@link #share(Publisher)}, or the given object if it isn't wrapped.
+     *
+     * @param payload possibly wrapped payload
+     * @return payload emitted by the handler
+     * @since 1.0.0
+     */
+    public static Object unwrap(final Object payload) {
+        return payload instanceof SharedPayload sharedPayload ? sharedPayload.payload : payload;
+    }
+
+    /**
+     * Returns the number of payloads serialized by this encoder.
+     *
+     * @return encoded payloads count
+     * @since 1.0.0
+     */
+    public long getEncodedCount() {
+        return this.encoded.sum();
+    }
+
+    /**
+     * Returns the number of messages that reused an already encoded payload.
+     *
+     * @return shared payloads count
+     * @since 1.0.0
+     */
+    public long getSharedCount() {
+        return this.shared.sum();
+    }
+
+    private WebSocketMessage encodeShared(final DataBufferFactory bufferFactory, final WebSocketCodec codec,
+                                          final SharedPayload payload) {
+
+        Encoded encoded = payload.encoded;
+        if (encoded != null && encoded.codec() == codec) {
+            this.shared.increment();
+        } else {
+            final DataBuffer buffer;
+            try {
+                buffer = codec.encode(payload.payload, DefaultDataBufferFactory.sharedInstance);
+            } catch (WebSocketCodecException e) {
+                log.error(e.getMessage());
+                return null;
+            }
+
+            final byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            DataBufferUtils.release(buffer);
+
+            encoded = new Encoded(codec, bytes);
+            payload.encoded = encoded;
+            this.encoded.increment();
+        }
+
+        return new WebSocketMessage(codec.getMessageType(), bufferFactory.wrap(encoded.bytes()));
+    }
+
+    private WebSocketMessage encodeSingle(final DataBufferFactory bufferFactory, final WebSocketCodec codec,
+                                          final Object payload) {
+
+        try {
+            final WebSocketMessage message = new WebSocketMessage(codec.getMessageType(),
+                    codec.encode(payload, bufferFactory));
+            this.encoded.increment();
+
+            return message;
+        } catch (WebSocketCodecException e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    private record Encoded(WebSocketCodec codec, byte[] bytes) {
+    }
+
+    private static final class SharedPayload {
+        private final Object payload;
+
+        private volatile Encoded encoded;
+
+        private SharedPayload(final Object payload) {
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.elpis.reactive.websockets.handler;
+
+import org.elpis.reactive.websockets.session.WebSocketSessionContext;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates upstream publishers of a {@link BroadcastWebSocketResourceHandler}.
+ *
+ * <p>Sessions are grouped by the values of the selected path variables, query parameters, headers and, optionally, the
+ * name of the principal. The first session of a group creates the upstream, which is multicast to every other session
+ * of the group. Each group counts its subscribers, and once the last one leaves the upstream is cancelled and the group
+ * is evicted, so the next session starts a fresh upstream.
+ *
+ * <p>The upstream is created lazily, when the group is first subscribed, so that the handler method never runs while
+ * the group is being looked up and may itself share other publishers.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.web.annotation.SharedPublisher
+ * @since 1.0.0
+ */
+public final class SharedPublisherCache {
+    private final List<String> pathVariables;
+    private final List<String> queryParameters;
+    private final List<String> headers;
+    private final boolean principal;
+
+    private final Map<List<Object>, Entry> publishers = new ConcurrentHashMap<>();
+
+    public SharedPublisherCache(final List<String> pathVariables, final List<String> queryParameters) {
+        this(pathVariables, queryParameters, List.of(), false);
+    }
+
+    public SharedPublisherCache(final List<String> pathVariables, final List<String> queryParameters,
+                                final List<String> headers, final boolean principal) {
+
+        this.pathVariables = List.copyOf(pathVariables);
+        this.queryParameters = List.copyOf(queryParameters);
+        this.headers = List.copyOf(headers);
+        this.principal = principal;
+    }
+
+    /**
+     * Returns the publisher shared by all sessions with the same key as the given context.
+     *
+     * @param context  session context to derive the key from
+     * @param upstream creates the upstream publisher when the key has no subscribers yet
+     * @return shared publisher
+     * @since 1.0.0
+     */
+    public Flux<?> share(final WebSocketSessionContext context, final Supplier<Publisher<?>> upstream) {
+        final List<Object> key = this.getKey(context);
+
+        return Flux.defer(() -> {
+            final Entry entry = this.publishers.compute(key, (k, current) -> {
+                final Entry subscribed = current != null
+                        ? current
+                        : new Entry(Flux.defer(() -> Flux.from(upstream.get())).publish().refCount());
+                subscribed.subscribers++;
+
+                return subscribed;
+            });
+
+            return entry.publisher.doFinally(signalType -> this.publishers.computeIfPresent(key, (k, current) ->
+                    current == entry && --current.subscribers == 0 ? null : current));
+        });
+    }
+
+    /**
+     * Returns the number of upstream publishers that currently have subscribers.
+     *
+     * @return active upstream count
+     * @since 1.0.0
+     */
+    public int size() {
+        return this.publishers.size();
+    }
+
+    List<Object> getKey(final WebSocketSessionContext context) {
+        final List<Object> key = new ArrayList<>(this.pathVariables.size() + this.queryParameters.size()
+                + this.headers.size() + 1);
+
+        this.pathVariables.forEach(name -> key.add(context.getPathParameters().get(name)));
+        this.queryParameters.forEach(name -> key.add(context.getQueryParameters().get(name)));
+        this.headers.forEach(name -> key.add(context.getHeaders().get(name)));
+
+        if (this.principal) {
+            key.add(Optional.ofNullable(context.getAuthentication()).map(Principal::getName).orElse(null));
+        }
+
+        return key;
+    }
+
+    private static final class Entry {
+        private final Flux<?> publisher;
+        private int subscribers;
+
+        private Entry(final Flux<?> publisher) {
+            this.publisher = publisher;
+        }
+    }
+}
@@ -2,13 +2,21 @@ package org.elpis.reactive.websockets.handler.route;
 
 import org.elpis.reactive.websockets.config.Mode;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
 import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.handler.KeyedConflation;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
 import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
 
+import java.util.function.Function;
+
 @FunctionalInterface
 public interface WebSocketHandlerFunction {
     BaseWebSocketHandler register(final WebSocketEventManagerFactory eventManagerFactory,
-                                  final WebSocketSessionRegistry sessionRegistry);
+                                  final WebSocketSessionRegistry sessionRegistry,
+                                  final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                  final WebSocketCodecRegistry codecRegistry);
 
     default <T> WebSocketHandlerFunction handle(final String path,
                                                 final Mode mode,
@@ -54,6 +62,19 @@ public interface WebSocketHandlerFunction {
         return webSocketHandlerFunction.setNext(this);
     }
 
+    /**
+     * Keeps only the newest message per key for sessions of the last declared route that can't keep up.
+     *
+     * @param keyExtractor returns the key of an outbound payload
+     * @return this function
+     * @throws WebSocketMappingException if the last declared route doesn't return a publisher
+     * @see KeyedConflation
+     * @since 1.0.0
+     */
+    default WebSocketHandlerFunction conflate(final Function<Object, ?> keyExtractor) {
+        throw new WebSocketMappingException("Only routes returning a publisher can be conflated");
+    }
+
     default WebSocketHandlerFunction and(final WebSocketHandlerFunction another) {
         WebSocketHandlerFunctions.DefaultRouterFunction webSocketHandlerFunction = (WebSocketHandlerFunctions.DefaultRouterFunction) another;
         while (webSocketHandlerFunction.getNext() != null) {
@@ -3,8 +3,13 @@ package org.elpis.reactive.websockets.handler.route;
 import org.elpis.reactive.websockets.config.Mode;
 import org.elpis.reactive.websockets.session.WebSocketSessionContext;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
 import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
 import org.elpis.reactive.websockets.handler.BroadcastWebSocketResourceHandler;
+import org.elpis.reactive.websockets.handler.KeyedConflation;
+import org.elpis.reactive.websockets.handler.SessionWebSocketResourceHandler;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
 import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
 import org.reactivestreams.Publisher;
 import org.springframework.web.reactive.socket.WebSocketMessage;
@@ -12,6 +17,7 @@ import reactor.core.publisher.Flux;
 
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public final class WebSocketHandlerFunctions {
     private WebSocketHandlerFunctions() {
@@ -53,7 +59,9 @@ public final class WebSocketHandlerFunctions {
         return new DefaultRouterFunction(null, false, -1L, null) {
             @Override
             public BaseWebSocketHandler register(final WebSocketEventManagerFactory eventManagerFactory,
-                                                 final WebSocketSessionRegistry sessionRegistry) {
+                                                 final WebSocketSessionRegistry sessionRegistry,
+                                                 final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                                 final WebSocketCodecRegistry codecRegistry) {
                 return null;
             }
         };
@@ -91,6 +99,8 @@ public final class WebSocketHandlerFunctions {
     private static final class HandleRouterFunction<U> extends DefaultRouterFunction {
         private final WebSocketMessageHandlerFunction<U> handlerFunction;
 
+        private KeyedConflation conflation = null;
+
         private HandleRouterFunction(String path,
                                      boolean pingEnabled,
                                      long pingInterval,
@@ -101,19 +111,41 @@ public final class WebSocketHandlerFunctions {
             this.handlerFunction = handlerFunction;
         }
 
+        @Override
+        public WebSocketHandlerFunction conflate(final Function<Object, ?> keyExtractor) {
+            this.conflation = new KeyedConflation(keyExtractor);
+            return this;
+        }
+
         @Override
         public BaseWebSocketHandler register(final WebSocketEventManagerFactory eventManagerFactory,
-                                             final WebSocketSessionRegistry sessionRegistry) {
+                                             final WebSocketSessionRegistry sessionRegistry,
+                                             final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                             final WebSocketCodecRegistry codecRegistry) {
 
             return switch (this.mode) {
                 case SHARED ->
-                        new BroadcastWebSocketResourceHandler(eventManagerFactory, sessionRegistry, path, pingEnabled, pingInterval) {
+                        new BroadcastWebSocketResourceHandler(eventManagerFactory, sessionRegistry, heartbeatScheduler, codecRegistry, path, pingEnabled, pingInterval) {
+                            {
+                                this.enableConflation(HandleRouterFunction.this.conflation);
+                            }
+
+                            @Override
+                            public Publisher<?> apply(WebSocketSessionContext context, Flux<WebSocketMessage> messages) {
+                                return handlerFunction.apply(context, messages);
+                            }
+                        };
+                case SESSION ->
+                        new SessionWebSocketResourceHandler(eventManagerFactory, sessionRegistry, heartbeatScheduler, codecRegistry, path, pingEnabled, pingInterval) {
+                            {
+                                this.enableConflation(HandleRouterFunction.this.conflation);
+                            }
+
                             @Override
                             public Publisher<?> apply(WebSocketSessionContext context, Flux<WebSocketMessage> messages) {
                                 return handlerFunction.apply(context, messages);
                             }
                         };
-                case SESSION -> null;
             };
         }
     }
@@ -131,18 +163,31 @@ public final class WebSocketHandlerFunctions {
             this.handlerFunction = handlerFunction;
         }
 
+        @Override
+        public WebSocketHandlerFunction conflate(final Function<Object, ?> keyExtractor) {
+            throw new WebSocketMappingException("Route %s doesn't return a publisher, so it can't be conflated", this.path);
+        }
+
         @Override
         public BaseWebSocketHandler register(final WebSocketEventManagerFactory eventManagerFactory,
-                                             final WebSocketSessionRegistry sessionRegistry) {
+                                             final WebSocketSessionRegistry sessionRegistry,
+                                             final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                             final WebSocketCodecRegistry codecRegistry) {
             return switch (this.mode) {
                 case SHARED ->
-                        new BroadcastWebSocketResourceHandler(eventManagerFactory, sessionRegistry, path, pingEnabled, pingInterval) {
+                        new BroadcastWebSocketResourceHandler(eventManagerFactory, sessionRegistry, heartbeatScheduler, codecRegistry, path, pingEnabled, pingInterval) {
+                            @Override
+                            public void run(WebSocketSessionContext context, Flux<WebSocketMessage> messages) {
+                                handlerFunction.accept(context, messages);
+                            }
+                        };
+                case SESSION ->
+                        new SessionWebSocketResourceHandler(eventManagerFactory, sessionRegistry, heartbeatScheduler, codecRegistry, path, pingEnabled, pingInterval) {
                             @Override
                             public void run(WebSocketSessionContext context, Flux<WebSocketMessage> messages) {
                                 handlerFunction.accept(context, messages);
                             }
                         };
-                case SESSION -> null;
             };
         }
     }
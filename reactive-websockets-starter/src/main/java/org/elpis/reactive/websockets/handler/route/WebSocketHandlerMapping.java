@@ -0,0 +1,173 @@
+package org.elpis.reactive.websockets.handler.route;
+
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
+import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.AbstractHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link HandlerMapping} of all {@link BaseWebSocketHandler WebSocket handlers}, resolved through a single
+ * {@link WebSocketRouteTrie}.
+ *
+ * <p>A path is matched at most once per exchange: the match is kept as an exchange attribute, so that looking the
+ * handler up from a {@link org.springframework.web.server.WebFilter WebFilter} and again from the dispatcher costs a
+ * single trie walk. Captured variables are exposed under {@link HandlerMapping#URI_TEMPLATE_VARIABLES_ATTRIBUTE} as
+ * well, so they can be handed to the session context without matching the template again.
+ *
+ * <p>Handlers can be added and removed at runtime. Every change builds a new trie off to the side and swaps it in, so
+ * lookups never lock and never see a half-built table, while changes are serialized and cost a rebuild of all routes.
+ * Only handlers added at runtime can be removed, the ones the mapping was created with, e.g. annotated ones, stay.
+ *
+ * @author Alex Zharkov
+ * @since 1.0.0
+ */
+public class WebSocketHandlerMapping extends AbstractHandlerMapping {
+    public static final String MATCH_ATTRIBUTE = WebSocketHandlerMapping.class.getName() + ".match";
+
+    private final Object lock = new Object();
+    private final Set<BaseWebSocketHandler> runtimeHandlers = new HashSet<>();
+
+    private volatile List<BaseWebSocketHandler> handlers;
+    private volatile WebSocketRouteTrie<BaseWebSocketHandler> routes;
+
+    public WebSocketHandlerMapping(final Collection<? extends BaseWebSocketHandler> handlers, final int order) {
+        this.handlers = List.copyOf(handlers);
+        this.routes = build(this.handlers);
+        this.setOrder(order);
+    }
+
+    /**
+     * Adds handlers to the mapping. Either all of them are added or, if any of them clashes with a registered handler
+     * or with another one of them, none.
+     *
+     * @param handlers handlers to add
+     * @throws org.elpis.reactive.websockets.exception.WebSocketMappingException if a path template clashes
+     * @since 1.0.0
+     */
+    public void register(final Collection<? extends BaseWebSocketHandler> handlers) {
+        synchronized (this.lock) {
+            final List<BaseWebSocketHandler> updated = new ArrayList<>(this.handlers);
+            updated.addAll(handlers);
+
+            this.routes = build(updated);
+            this.handlers = List.copyOf(updated);
+            this.runtimeHandlers.addAll(handlers);
+        }
+    }
+
+    /**
+     * Removes the handler of the given path template from the mapping. Handshakes already matched to it still reach it,
+     * new ones don't.
+     *
+     * @param pathTemplate path template the handler was registered under
+     * @return removed handler or {@link Optional#empty()} if no handler has the path template
+     * @throws WebSocketMappingException if the handler wasn't added through {@link #register(Collection)}
+     * @since 1.0.0
+     */
+    public Optional<BaseWebSocketHandler> unregister(final String pathTemplate) {
+        synchronized (this.lock) {
+            final Optional<BaseWebSocketHandler> removed = this.handlers.stream()
+                    .filter(handler -> handler.getPathTemplate().equals(pathTemplate))
+                    .findFirst();
+
+            removed.ifPresent(handler -> {
+                if (!this.runtimeHandlers.remove(handler)) {
+                    throw new WebSocketMappingException("WebSocketHandler with path %s was not registered at runtime " +
+                            "and can't be unregistered", pathTemplate);
+                }
+
+                final List<BaseWebSocketHandler> updated = new ArrayList<>(this.handlers);
+                updated.remove(handler);
+
+                this.routes = build(updated);
+                this.handlers = List.copyOf(updated);
+            });
+
+            return removed;
+        }
+    }
+
+    /**
+     * Returns all registered handlers.
+     *
+     * @return handlers
+     * @since 1.0.0
+     */
+    public List<BaseWebSocketHandler> getHandlers() {
+        return this.handlers;
+    }
+
+    /**
+     * Returns match of the exchange path, computed on first call for the exchange.
+     *
+     * @param exchange current exchange
+     * @return matched handler with captured path variables
+     * @since 1.0.0
+     */
+    public Optional<WebSocketRouteTrie.Match<BaseWebSocketHandler>> getMatch(final ServerWebExchange exchange) {
+        final WebSocketRouteTrie.Match<BaseWebSocketHandler> cached = exchange.getAttribute(MATCH_ATTRIBUTE);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        final Optional<WebSocketRouteTrie.Match<BaseWebSocketHandler>> match = this.routes
+                .match(this.getSegments(exchange.getRequest().getPath().pathWithinApplication()));
+
+        match.ifPresent(found -> {
+            exchange.getAttributes().put(MATCH_ATTRIBUTE, found);
+            exchange.getAttributes().put(URI_TEMPLATE_VARIABLES_ATTRIBUTE, found.variables());
+        });
+
+        return match;
+    }
+
+    /**
+     * Returns path templates of all registered handlers.
+     *
+     * @return path templates
+     * @since 1.0.0
+     */
+    public List<String> getPathTemplates() {
+        return this.routes.getPathTemplates();
+    }
+
+    @Override
+    protected Mono<?> getHandlerInternal(final ServerWebExchange exchange) {
+        return Mono.justOrEmpty(this.getMatch(exchange).map(WebSocketRouteTrie.Match::handler));
+    }
+
+    private static WebSocketRouteTrie<BaseWebSocketHandler> build(final List<? extends BaseWebSocketHandler> handlers) {
+        final WebSocketRouteTrie<BaseWebSocketHandler> routes = new WebSocketRouteTrie<>();
+        handlers.forEach(handler -> routes.add(handler.getPathTemplate(), handler));
+
+        return routes;
+    }
+
+    private List<String> getSegments(final PathContainer path) {
+        final List<PathContainer.Element> elements = path.elements();
+        final List<String> segments = new ArrayList<>(elements.size() / 2 + 1);
+
+        for (int i = 0; i < elements.size(); i++) {
+            final PathContainer.Element element = elements.get(i);
+
+            if (element instanceof PathContainer.PathSegment segment) {
+                segments.add(segment.valueToMatch());
+            } else if (i == elements.size() - 1 && i > 0) {
+                // Trailing separator, the path ends with an empty segment
+                segments.add("");
+            }
+        }
+
+        return segments;
+    }
+}
@@ -1,6 +1,8 @@
 package org.elpis.reactive.websockets.handler.route;
 
 import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler;
+import org.elpis.reactive.websockets.codec.WebSocketCodecRegistry;
 import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
 import org.elpis.reactive.websockets.event.manager.WebSocketEventManagerFactory;
 
@@ -11,35 +13,53 @@ import java.util.Optional;
 public class WebSocketHandlerRouteResolver {
     private final WebSocketEventManagerFactory eventManagerFactory;
     private final WebSocketSessionRegistry sessionRegistry;
+    private final WebSocketHeartbeatScheduler heartbeatScheduler;
+    private final WebSocketCodecRegistry codecRegistry;
     private final List<WebSocketHandlerFunction> functions;
 
     public WebSocketHandlerRouteResolver(final WebSocketEventManagerFactory eventManagerFactory,
                                          final WebSocketSessionRegistry sessionRegistry,
+                                         final WebSocketHeartbeatScheduler heartbeatScheduler,
+                                         final WebSocketCodecRegistry codecRegistry,
                                          final List<WebSocketHandlerFunction> functions) {
 
         this.eventManagerFactory = eventManagerFactory;
         this.sessionRegistry = sessionRegistry;
+        this.heartbeatScheduler = heartbeatScheduler;
+        this.codecRegistry = codecRegistry;
         this.functions = functions;
     }
 
     public List<BaseWebSocketHandler> resolve() {
         final List<BaseWebSocketHandler> handlers = new ArrayList<>();
+        functions.forEach(webSocketHandlerFunction -> handlers.addAll(this.resolve(webSocketHandlerFunction)));
 
-        functions.forEach(webSocketHandlerFunction -> {
-            WebSocketHandlerFunctions.DefaultRouterFunction function = (WebSocketHandlerFunctions.DefaultRouterFunction) webSocketHandlerFunction;
-            while (function.getNext() != null) {
-                final BaseWebSocketHandler webSocketHandler = function.register(eventManagerFactory, sessionRegistry);
-                if (webSocketHandler == null) {
-                    break;
-                }
+        return handlers;
+    }
 
-                handlers.add(webSocketHandler);
-                function = (WebSocketHandlerFunctions.DefaultRouterFunction) function.getNext();
+    /**
+     * Creates handlers of every route of the given function, e.g. one registered at runtime.
+     *
+     * @param webSocketHandlerFunction routes to create handlers for
+     * @return handlers
+     * @since 1.0.0
+     */
+    public List<BaseWebSocketHandler> resolve(final WebSocketHandlerFunction webSocketHandlerFunction) {
+        final List<BaseWebSocketHandler> handlers = new ArrayList<>();
+
+        WebSocketHandlerFunctions.DefaultRouterFunction function = (WebSocketHandlerFunctions.DefaultRouterFunction) webSocketHandlerFunction;
+        while (function.getNext() != null) {
+            final BaseWebSocketHandler webSocketHandler = function.register(eventManagerFactory, sessionRegistry, heartbeatScheduler, codecRegistry);
+            if (webSocketHandler == null) {
+                break;
             }
 
-            Optional.ofNullable(function.register(eventManagerFactory, sessionRegistry))
-                    .ifPresent(handlers::add);
-        });
+            handlers.add(webSocketHandler);
+            function = (WebSocketHandlerFunctions.DefaultRouterFunction) function.getNext();
+        }
+
+        Optional.ofNullable(function.register(eventManagerFactory, sessionRegistry, heartbeatScheduler, codecRegistry))
+                .ifPresent(handlers::add);
 
         return handlers;
     }
@@ -0,0 +1,139 @@
+package org.elpis.reactive.websockets.handler.route;
+
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
+import org.elpis.reactive.websockets.handler.BaseWebSocketHandler;
+import org.elpis.reactive.websockets.session.ReactiveWebSocketSession;
+import org.elpis.reactive.websockets.session.WebSocketSessionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.socket.CloseStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Adds and removes {@link WebSocketHandlerFunction} routes while the application is running.
+ *
+ * <p>Routes are swapped into the {@link WebSocketHandlerMapping} copy-on-write, so handshakes in flight are never
+ * affected by a change. Removing a route stops new handshakes right away and then drains the sessions already open on
+ * it: they are given a grace period to finish on their own, after which the remaining ones are closed with
+ * {@link CloseStatus#GOING_AWAY}.
+ *
+ * @author Alex Zharkov
+ * @since 1.0.0
+ */
+public class WebSocketRouteRegistry {
+    public static final Duration DEFAULT_GRACE_PERIOD = Duration.ofSeconds(30);
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketRouteRegistry.class);
+    private static final Duration DRAIN_CHECK_INTERVAL = Duration.ofMillis(100);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WebSocketHandlerMapping handlerMapping;
+    private final WebSocketHandlerRouteResolver routeResolver;
+    private final WebSocketSessionRegistry sessionRegistry;
+
+    public WebSocketRouteRegistry(final WebSocketHandlerMapping handlerMapping,
+                                  final WebSocketHandlerRouteResolver routeResolver,
+                                  final WebSocketSessionRegistry sessionRegistry) {
+
+        this.handlerMapping = handlerMapping;
+        this.routeResolver = routeResolver;
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    /**
+     * Registers all routes of the given function. Either all of them are registered or, if any path template clashes,
+     * none.
+     *
+     * @param function routes to register
+     * @return registered path templates
+     * @throws WebSocketMappingException if a path template clashes with a registered one
+     * @since 1.0.0
+     */
+    public List<String> register(final WebSocketHandlerFunction function) {
+        final List<BaseWebSocketHandler> handlers = this.routeResolver.resolve(function);
+        this.handlerMapping.register(handlers);
+
+        final List<String> pathTemplates = handlers.stream()
+                .map(BaseWebSocketHandler::getPathTemplate)
+                .toList();
+
+        log.debug("Registered WebSocket routes {}", pathTemplates);
+
+        return pathTemplates;
+    }
+
+    /**
+     * Removes the route and drains its sessions within {@link #DEFAULT_GRACE_PERIOD}.
+     *
+     * @param pathTemplate path template of the route
+     * @return completes once every session of the route is closed
+     * @see #unregister(String, Duration)
+     * @since 1.0.0
+     */
+    public Mono<Void> unregister(final String pathTemplate) {
+        return this.unregister(pathTemplate, DEFAULT_GRACE_PERIOD);
+    }
+
+    /**
+     * Removes the route right away and returns the drain of its sessions, which starts once subscribed. New handshakes
+     * are rejected whether the drain is subscribed or not.
+     *
+     * @param pathTemplate path template of the route
+     * @param gracePeriod  time sessions are given to close on their own, {@link Duration#ZERO} to close them at once
+     * @return completes once every session of the route is closed, errors with {@link WebSocketMappingException} if
+     * no route has the given path template or the route wasn't registered through this registry
+     * @since 1.0.0
+     */
+    public Mono<Void> unregister(final String pathTemplate, final Duration gracePeriod) {
+        try {
+            if (this.handlerMapping.unregister(pathTemplate).isEmpty()) {
+                return Mono.error(new WebSocketMappingException("WebSocketHandler with path %s is not registered",
+                        pathTemplate));
+            }
+        } catch (WebSocketMappingException e) {
+            return Mono.error(e);
+        }
+
+        log.debug("Unregistered WebSocket route {}", pathTemplate);
+
+        return this.drain(pathTemplate, gracePeriod);
+    }
+
+    public List<String> getPathTemplates() {
+        return this.handlerMapping.getPathTemplates();
+    }
+
+    private Mono<Void> drain(final String pathTemplate, final Duration gracePeriod) {
+        // Sessions are looked up on every check: a handshake matched just before the route was removed may save its
+        // session only afterwards
+        final long graceTicks = (gracePeriod.toNanos() + DRAIN_CHECK_INTERVAL.toNanos() - 1) / DRAIN_CHECK_INTERVAL.toNanos();
+
+        return Flux.interval(Duration.ZERO, DRAIN_CHECK_INTERVAL)
+                .map(tick -> {
+                    final List<ReactiveWebSocketSession> open = this.sessionRegistry.getByPathTemplate(pathTemplate)
+                            .stream()
+                            .filter(this::isOpen)
+                            .toList();
+
+                    if (tick >= graceTicks) {
+                        open.forEach(session -> session.close(CloseStatus.GOING_AWAY));
+                    }
+
+                    return open;
+                })
+                .filter(List::isEmpty)
+                .next()
+                .then()
+                .timeout(gracePeriod.plus(CLOSE_TIMEOUT), Mono.fromRunnable(() ->
+                        log.warn("Some sessions of {} did not close within {} after being asked to", pathTemplate,
+                                CLOSE_TIMEOUT)));
+    }
+
+    private boolean isOpen(final ReactiveWebSocketSession session) {
+        return session.isOpen() && this.sessionRegistry.get(session.getSessionId()).isPresent();
+    }
+}
@@ -0,0 +1,397 @@
+package org.elpis.reactive.websockets.handler.route;
+
+import org.elpis.reactive.websockets.exception.WebSocketMappingException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Segment trie of WebSocket path templates.
+ *
+ * <p>Templates are split into {@code /}-separated segments, each of which is one of:
+ * <ul>
+ *     <li>a literal, e.g. {@code chat};</li>
+ *     <li>a variable capturing the whole segment, e.g. {@code {chatId}};</li>
+ *     <li>a pattern mixing literals, variables with optional regular expressions and {@code ?} or {@code *}
+ *     wildcards, e.g. {@code {id:\d+}} or {@code {name}.json};</li>
+ *     <li>a {@code *} wildcard matching any single segment;</li>
+ *     <li>a trailing {@code **} or {@code {*path}} matching the rest of the path, the latter capturing it.</li>
+ * </ul>
+ *
+ * <p>At every segment literals take precedence over patterns, patterns over variables, variables over {@code *} and
+ * {@code *} over the rest of the path, so matching backtracks only when a more specific branch dead-ends and stays
+ * linear in the path length for any sensible set of templates. Templates that differ only in the names of their
+ * variables are rejected as duplicates.
+ *
+ * <p>The trie is not thread-safe while being built and is meant to be read only once fully built.
+ *
+ * @param <T> handler type
+ * @author Alex Zharkov
+ * @since 1.0.0
+ */
+public final class WebSocketRouteTrie<T> {
+    private static final String CATCH_ALL = "**";
+    private static final String WILDCARD = "*";
+
+    private final Node<T> root = new Node<>();
+    private final List<String> pathTemplates = new ArrayList<>();
+
+    /**
+     * Adds the handler under the given path template.
+     *
+     * @param pathTemplate path template
+     * @param handler      handler
+     * @throws WebSocketMappingException if the template is malformed or another template matches the same paths
+     * @since 1.0.0
+     */
+    public void add(final String pathTemplate, final T handler) {
+        final List<String> segments = split(pathTemplate);
+        final List<String> variableNames = new ArrayList<>();
+
+        Node<T> node = this.root;
+        for (int i = 0; i < segments.size(); i++) {
+            final String segment = segments.get(i);
+            final boolean last = i == segments.size() - 1;
+
+            if (CATCH_ALL.equals(segment) || (segment.startsWith("{*") && segment.endsWith("}"))) {
+                if (!last) {
+                    throw new WebSocketMappingException("Path template %s can match the rest of the path only at its end",
+                            pathTemplate);
+                }
+
+                final String name = CATCH_ALL.equals(segment) ? null : segment.substring(2, segment.length() - 1);
+                if (name != null) {
+                    variableNames.add(name);
+                }
+
+                node.catchAll = this.route(node.catchAll, pathTemplate, handler, variableNames, name != null);
+                return;
+            }
+
+            node = this.child(node, segment, pathTemplate, variableNames);
+        }
+
+        node.route = this.route(node.route, pathTemplate, handler, variableNames, false);
+    }
+
+    /**
+     * Finds the handler of the most specific template matching the given path.
+     *
+     * @param path decoded path segments, without separators
+     * @return handler with captured path variables
+     * @since 1.0.0
+     */
+    public Optional<Match<T>> match(final List<String> path) {
+        final List<String> values = new ArrayList<>();
+        final Route<T> route = this.match(this.root, path, 0, values);
+
+        if (route == null) {
+            return Optional.empty();
+        }
+
+        if (route.variableNames.length == 0) {
+            return Optional.of(new Match<>(route.handler, route.pathTemplate, Collections.emptyMap()));
+        }
+
+        final Map<String, String> variables = new LinkedHashMap<>(route.variableNames.length * 2);
+        for (int i = 0; i < route.variableNames.length; i++) {
+            variables.put(route.variableNames[i], values.get(i));
+        }
+
+        return Optional.of(new Match<>(route.handler, route.pathTemplate, Collections.unmodifiableMap(variables)));
+    }
+
+    /**
+     * Finds the handler of the most specific template matching the given path.
+     *
+     * @param path decoded path
+     * @return handler with captured path variables
+     * @since 1.0.0
+     */
+    public Optional<Match<T>> match(final String path) {
+        return this.match(split(path));
+    }
+
+    /**
+     * Returns templates added so far, in order of addition.
+     *
+     * @return path templates
+     * @since 1.0.0
+     */
+    public List<String> getPathTemplates() {
+        return Collections.unmodifiableList(this.pathTemplates);
+    }
+
+    private Node<T> child(final Node<T> node, final String segment, final String pathTemplate,
+                          final List<String> variableNames) {
+
+        if (WILDCARD.equals(segment)) {
+            return node.wildcard != null ? node.wildcard : (node.wildcard = new Node<>());
+        }
+
+        if (isVariable(segment)) {
+            variableNames.add(segment.substring(1, segment.length() - 1));
+            return node.variable != null ? node.variable : (node.variable = new Node<>());
+        }
+
+        if (segment.indexOf('{') < 0 && segment.indexOf('*') < 0 && segment.indexOf('?') < 0) {
+            return node.literals.computeIfAbsent(segment, k -> new Node<>());
+        }
+
+        final SegmentPattern<T> compiled = SegmentPattern.compile(segment, pathTemplate, variableNames);
+        for (SegmentPattern<T> pattern : node.patterns) {
+            if (pattern.regex.pattern().equals(compiled.regex.pattern())) {
+                return pattern.node;
+            }
+        }
+
+        node.patterns.add(compiled);
+        node.patterns.sort(Comparator.comparingInt((SegmentPattern<T> pattern) -> pattern.literalLength).reversed());
+
+        return compiled.node;
+    }
+
+    private Route<T> route(final Route<T> current, final String pathTemplate, final T handler,
+                           final List<String> variableNames, final boolean capturesRest) {
+
+        if (current != null) {
+            throw new WebSocketMappingException("WebSocketHandler with path %s was already registered as %s",
+                    pathTemplate, current.pathTemplate);
+        }
+
+        if (variableNames.stream().distinct().count() != variableNames.size()) {
+            throw new WebSocketMappingException("Path template %s declares the same variable more than once", pathTemplate);
+        }
+
+        this.pathTemplates.add(pathTemplate);
+
+        return new Route<>(pathTemplate, handler, variableNames.toArray(String[]::new), capturesRest);
+    }
+
+    private Route<T> match(final Node<T> node, final List<String> path, final int index, final List<String> values) {
+        if (index == path.size()) {
+            if (node.route != null) {
+                return node.route;
+            }
+
+            return this.matchRest(node, path, index, values);
+        }
+
+        final String segment = path.get(index);
+        final int captured = values.size();
+
+        final Node<T> literal = node.literals.get(segment);
+        if (literal != null) {
+            final Route<T> route = this.match(literal, path, index + 1, values);
+            if (route != null) {
+                return route;
+            }
+        }
+
+        for (SegmentPattern<T> pattern : node.patterns) {
+            final Matcher matcher = pattern.regex.matcher(segment);
+            if (matcher.matches()) {
+                for (int group : pattern.groups) {
+                    values.add(matcher.group(group));
+                }
+
+                final Route<T> route = this.match(pattern.node, path, index + 1, values);
+                if (route != null) {
+                    return route;
+                }
+
+                truncate(values, captured);
+            }
+        }
+
+        if (node.variable != null && !segment.isEmpty()) {
+            values.add(segment);
+
+            final Route<T> route = this.match(node.variable, path, index + 1, values);
+            if (route != null) {
+                return route;
+            }
+
+            truncate(values, captured);
+        }
+
+        if (node.wildcard != null && !segment.isEmpty()) {
+            final Route<T> route = this.match(node.wildcard, path, index + 1, values);
+            if (route != null) {
+                return route;
+            }
+        }
+
+        return this.matchRest(node, path, index, values);
+    }
+
+    private Route<T> matchRest(final Node<T> node, final List<String> path, final int index, final List<String> values) {
+        if (node.catchAll == null) {
+            return null;
+        }
+
+        if (node.catchAll.capturesRest) {
+            final StringBuilder rest = new StringBuilder();
+            for (int i = index; i < path.size(); i++) {
+                rest.append('/').append(path.get(i));
+            }
+
+            values.add(rest.toString());
+        }
+
+        return node.catchAll;
+    }
+
+    private static boolean isVariable(final String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'
+                && segment.indexOf('{', 1) < 0 && segment.indexOf(':') < 0 && segment.charAt(1) != '*';
+    }
+
+    private static void truncate(final List<String> values, final int size) {
+        while (values.size() > size) {
+            values.remove(values.size() - 1);
+        }
+    }
+
+    private static List<String> split(final String path) {
+        final List<String> segments = new ArrayList<>();
+
+        int start = path.startsWith("/") ? 1 : 0;
+        if (start == path.length()) {
+            return segments;
+        }
+
+        for (int i = start; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+
+        return segments;
+    }
+
+    /**
+     * Handler matched by a path.
+     *
+     * @param handler      handler
+     * @param pathTemplate template the handler was added under
+     * @param variables    values of the variables of the template, decoded
+     * @param <T>          handler type
+     * @since 1.0.0
+     */
+    public record Match<T>(T handler, String pathTemplate, Map<String, String> variables) {
+    }
+
+    private record Route<T>(String pathTemplate, T handler, String[] variableNames, boolean capturesRest) {
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private final List<SegmentPattern<T>> patterns = new ArrayList<>();
+
+        private Node<T> variable;
+        private Node<T> wildcard;
+
+        private Route<T> route;
+        private Route<T> catchAll;
+    }
+
+    private static final class SegmentPattern<T> {
+        private final Pattern regex;
+        private final int[] groups;
+        private final int literalLength;
+        private final Node<T> node = new Node<>();
+
+        private SegmentPattern(final Pattern regex, final int[] groups, final int literalLength) {
+            this.regex = regex;
+            this.groups = groups;
+            this.literalLength = literalLength;
+        }
+
+        private static <T> SegmentPattern<T> compile(final String segment, final String pathTemplate,
+                                                     final List<String> variableNames) {
+
+            final StringBuilder regex = new StringBuilder();
+            final List<Integer> groups = new ArrayList<>();
+            int literalLength = 0;
+            int groupCount = 0;
+
+            try {
+                for (int i = 0; i < segment.length(); i++) {
+                    final char c = segment.charAt(i);
+
+                    if (c == '{') {
+                        final int end = closingBrace(segment, i, pathTemplate);
+                        final String variable = segment.substring(i + 1, end);
+                        final int colon = variable.indexOf(':');
+
+                        final String name = colon < 0 ? variable : variable.substring(0, colon);
+                        final String expression = colon < 0 ? ".*?" : variable.substring(colon + 1);
+
+                        if (name.isEmpty() || name.startsWith("*")) {
+                            throw new WebSocketMappingException("Path template %s has malformed variable `{%s}`",
+                                    pathTemplate, variable);
+                        }
+
+                        variableNames.add(name);
+                        groups.add(++groupCount);
+                        regex.append('(').append(expression).append(')');
+                        groupCount += Pattern.compile(expression).matcher("").groupCount();
+
+                        i = end;
+                    } else if (c == '*') {
+                        regex.append(".*");
+                    } else if (c == '?') {
+                        regex.append('.');
+                    } else {
+                        final int next = nextSpecial(segment, i);
+                        regex.append(Pattern.quote(segment.substring(i, next)));
+                        literalLength += next - i;
+                        i = next - 1;
+                    }
+                }
+
+                return new SegmentPattern<>(Pattern.compile(regex.toString()),
+                        groups.stream().mapToInt(Integer::intValue).toArray(), literalLength);
+            } catch (PatternSyntaxException e) {
+                throw new WebSocketMappingException("Path template %s has malformed segment %s: %s", pathTemplate,
+                        segment, e.getDescription());
+            }
+        }
+
+        private static int closingBrace(final String segment, final int start, final String pathTemplate) {
+            int depth = 0;
+            for (int i = start; i < segment.length(); i++) {
+                if (segment.charAt(i) == '{') {
+                    depth++;
+                } else if (segment.charAt(i) == '}' && --depth == 0) {
+                    return i;
+                }
+            }
+
+            throw new WebSocketMappingException("Path template %s has unclosed variable in segment %s", pathTemplate,
+                    segment);
+        }
+
+        private static int nextSpecial(final String segment, final int start) {
+            for (int i = start; i < segment.length(); i++) {
+                final char c = segment.charAt(i);
+                if (c == '{' || c == '*' || c == '?') {
+                    return i;
+                }
+            }
+
+            return segment.length();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.elpis.reactive.websockets.heartbeat;
+
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * Heartbeat of a single session scheduled by {@link WebSocketHeartbeatScheduler}.
+ *
+ * <p>Each ping carries its send time as payload. The payloads of the last {@code maxMissedPongs} pings are kept in a
+ * ring, and a pong is accepted if it echoes any of them, so that a peer whose round-trip time exceeds the ping interval
+ * isn't mistaken for a dead one. An accepted pong gives the round-trip time of the ping it answers and resets the
+ * missed pongs counter.
+ *
+ * @author Alex Zharkov
+ * @see WebSocketHeartbeatScheduler#schedule(Duration, LongConsumer, Runnable)
+ * @since 1.0.0
+ */
+public final class WebSocketHeartbeat implements Disposable {
+    private final WebSocketHeartbeatScheduler scheduler;
+    private final AtomicBoolean disposed = new AtomicBoolean();
+
+    final long ticks;
+    final LongConsumer ping;
+    final Runnable onDeadPeer;
+
+    private final AtomicLongArray outstandingPings;
+    private int lastPing = -1;
+
+    long rounds;
+
+    volatile int missedPongs;
+    private volatile long roundTripNanos;
+
+    WebSocketHeartbeat(final WebSocketHeartbeatScheduler scheduler, final long ticks, final LongConsumer ping,
+                       final Runnable onDeadPeer, final int outstandingPings) {
+
+        this.scheduler = scheduler;
+        this.ticks = ticks;
+        this.ping = ping;
+        this.onDeadPeer = onDeadPeer;
+        this.outstandingPings = new AtomicLongArray(Math.max(1, outstandingPings));
+    }
+
+    /**
+     * Accepts the payload of a pong received from the peer.
+     *
+     * @param payload pong payload
+     * @return {@code true} if the pong answers one of the outstanding pings
+     * @since 1.0.0
+     */
+    public boolean pong(final long payload) {
+        if (payload == 0L) {
+            return false;
+        }
+
+        for (int i = 0; i < this.outstandingPings.length(); i++) {
+            if (this.outstandingPings.get(i) == payload && this.outstandingPings.compareAndSet(i, payload, 0L)) {
+                this.roundTripNanos = System.nanoTime() - payload;
+                this.missedPongs = 0;
+                this.scheduler.getRoundTripTimes().record(this.roundTripNanos);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the round-trip time of the last answered ping.
+     *
+     * @return round-trip time or {@link Duration#ZERO} if no ping was answered yet
+     * @since 1.0.0
+     */
+    public Duration getRoundTripTime() {
+        return Duration.ofNanos(this.roundTripNanos);
+    }
+
+    /**
+     * Returns the number of consecutive pings left without a pong.
+     *
+     * @return missed pongs count
+     * @since 1.0.0
+     */
+    public int getMissedPongs() {
+        return this.missedPongs;
+    }
+
+    /**
+     * Checks whether the last ping is still left without a pong. Called on the wheel thread only.
+     */
+    boolean isAwaitingPong() {
+        return this.lastPing >= 0 && this.outstandingPings.get(this.lastPing) != 0L;
+    }
+
+    /**
+     * Records a new outstanding ping in place of the oldest one. Called on the wheel thread only.
+     *
+     * @return ping payload
+     */
+    long nextPing() {
+        final long payload = System.nanoTime();
+
+        this.lastPing = (this.lastPing + 1) % this.outstandingPings.length();
+        this.outstandingPings.set(this.lastPing, payload);
+
+        return payload;
+    }
+
+    @Override
+    public void dispose() {
+        if (this.disposed.compareAndSet(false, true)) {
+            this.scheduler.onDispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.disposed.get();
+    }
+}
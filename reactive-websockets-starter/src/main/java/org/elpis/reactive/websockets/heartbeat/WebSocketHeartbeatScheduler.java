@@ -0,0 +1,251 @@
+package org.elpis.reactive.websockets.heartbeat;
+
+import org.elpis.reactive.websockets.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed-wheel timer that drives server pings of all open sessions.
+ *
+ * <p>A single thread advances the wheel once per tick and fires every heartbeat due in the current bucket, so the
+ * cost of keeping sessions alive is one timer in total rather than one timer per session. Heartbeats with intervals
+ * longer than a full wheel turn wait for the required number of rounds in their bucket. New and cancelled heartbeats
+ * are picked up lazily by the wheel thread, which keeps scheduling and {@link Disposable#dispose()} lock-free.
+ *
+ * <p>A heartbeat whose last {@code maxMissedPongs} pings were left unanswered is treated as a dead peer: it is
+ * cancelled and its dead peer callback is invoked.
+ *
+ * @author Alex Zharkov
+ * @see WebSocketHeartbeat
+ * @since 1.0.0
+ */
+public final class WebSocketHeartbeatScheduler implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(WebSocketHeartbeatScheduler.class);
+
+    private static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private static final int DEFAULT_MAX_MISSED_PONGS = 3;
+
+    private final long tickNanos;
+    private final Queue<WebSocketHeartbeat>[] wheel;
+    private final int mask;
+    private final int maxMissedPongs;
+
+    private final Queue<WebSocketHeartbeat> registrations = Queues.<WebSocketHeartbeat>unboundedMultiproducer().get();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder deadPeers = new LongAdder();
+    private final LatencyHistogram roundTripTimes = new LatencyHistogram();
+
+    private final Scheduler scheduler = Schedulers.newSingle("websocket-heartbeat", true);
+    private final Disposable ticker;
+    private final long startNanos;
+
+    private long tick;
+    private volatile long tickLagNanos;
+
+    public WebSocketHeartbeatScheduler() {
+        this(DEFAULT_TICK, DEFAULT_WHEEL_SIZE, DEFAULT_MAX_MISSED_PONGS);
+    }
+
+    /**
+     * Creates a scheduler with the given tick and number of buckets, rounded up to a power of two.
+     *
+     * @param tick           wheel resolution
+     * @param wheelSize      desired number of buckets
+     * @param maxMissedPongs number of unanswered pings after which the peer is considered dead, {@code 0} to disable
+     * @since 1.0.0
+     */
+    @SuppressWarnings("unchecked")
+    public WebSocketHeartbeatScheduler(final Duration tick, final int wheelSize, final int maxMissedPongs) {
+        final int size = wheelSize > 1 ? Integer.highestOneBit(wheelSize - 1) << 1 : 1;
+
+        this.tickNanos = tick.toNanos();
+        this.wheel = new Queue[size];
+        this.mask = size - 1;
+        this.maxMissedPongs = maxMissedPongs;
+
+        for (int i = 0; i < size; i++) {
+            this.wheel[i] = new ArrayDeque<>();
+        }
+
+        this.startNanos = System.nanoTime();
+        this.ticker = this.scheduler.schedulePeriodically(this::tick, this.tickNanos, this.tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Schedules a task that runs once per interval until disposed. Missed pongs are not tracked.
+     *
+     * @param interval task interval, rounded to the wheel tick
+     * @param task     action called on the wheel thread and therefore expected not to block
+     * @return {@link WebSocketHeartbeat} that cancels the task
+     * @since 1.0.0
+     */
+    public WebSocketHeartbeat schedule(final Duration interval, final Runnable task) {
+        return this.register(interval, payload -> task.run(), null);
+    }
+
+    /**
+     * Schedules pings of a session until disposed.
+     *
+     * @param interval   ping interval, rounded to the wheel tick
+     * @param ping       sends a ping with the given payload, called on the wheel thread and therefore expected not to block
+     * @param onDeadPeer called once if the peer stops answering pings
+     * @return {@link WebSocketHeartbeat} that accepts pongs and cancels the pings
+     * @since 1.0.0
+     */
+    public WebSocketHeartbeat schedule(final Duration interval, final LongConsumer ping, final Runnable onDeadPeer) {
+        return this.register(interval, ping, onDeadPeer);
+    }
+
+    /**
+     * Returns the number of heartbeats waiting for their next ping.
+     *
+     * @return pending pings count
+     * @since 1.0.0
+     */
+    public int getPendingPings() {
+        return this.pending.get();
+    }
+
+    /**
+     * Returns the number of pings sent since start.
+     *
+     * @return sent pings count
+     * @since 1.0.0
+     */
+    public long getSentPings() {
+        return this.sent.sum();
+    }
+
+    /**
+     * Returns the number of heartbeats cancelled because the peer stopped answering pings.
+     *
+     * @return dead peers count
+     * @since 1.0.0
+     */
+    public long getDeadPeers() {
+        return this.deadPeers.sum();
+    }
+
+    /**
+     * Returns the histogram of round-trip times of all answered pings.
+     *
+     * @return round-trip times histogram
+     * @since 1.0.0
+     */
+    public LatencyHistogram getRoundTripTimes() {
+        return this.roundTripTimes;
+    }
+
+    /**
+     * Returns how late the last tick started compared to its schedule.
+     *
+     * @return tick lag
+     * @since 1.0.0
+     */
+    public Duration getTickLag() {
+        return Duration.ofNanos(this.tickLagNanos);
+    }
+
+    @Override
+    public void dispose() {
+        this.ticker.dispose();
+        this.scheduler.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.ticker.isDisposed();
+    }
+
+    void onDispose() {
+        this.pending.decrementAndGet();
+    }
+
+    private WebSocketHeartbeat register(final Duration interval, final LongConsumer ping, final Runnable onDeadPeer) {
+        final long ticks = Math.max(1L, Math.round((double) interval.toNanos() / this.tickNanos));
+        final WebSocketHeartbeat heartbeat = new WebSocketHeartbeat(this, ticks, ping, onDeadPeer,
+                onDeadPeer != null ? this.maxMissedPongs : 0);
+
+        this.pending.incrementAndGet();
+        this.registrations.offer(heartbeat);
+
+        return heartbeat;
+    }
+
+    private void tick() {
+        final long scheduledNanos = this.startNanos + (this.tick + 1) * this.tickNanos;
+        this.tickLagNanos = Math.max(0L, System.nanoTime() - scheduledNanos);
+
+        WebSocketHeartbeat heartbeat;
+        final Queue<WebSocketHeartbeat> bucket = this.wheel[(int) (this.tick & this.mask)];
+        for (int i = bucket.size(); i > 0; i--) {
+            heartbeat = bucket.poll();
+
+            if (heartbeat.isDisposed()) {
+                continue;
+            }
+
+            if (heartbeat.rounds > 0) {
+                heartbeat.rounds--;
+                bucket.offer(heartbeat);
+                continue;
+            }
+
+            if (this.fire(heartbeat)) {
+                this.place(heartbeat);
+            }
+        }
+
+        while ((heartbeat = this.registrations.poll()) != null) {
+            this.place(heartbeat);
+        }
+
+        this.tick++;
+    }
+
+    private void place(final WebSocketHeartbeat heartbeat) {
+        heartbeat.rounds = (heartbeat.ticks - 1) / this.wheel.length;
+        this.wheel[(int) ((this.tick + heartbeat.ticks) & this.mask)].offer(heartbeat);
+    }
+
+    private boolean fire(final WebSocketHeartbeat heartbeat) {
+        try {
+            long payload = 0L;
+
+            if (heartbeat.onDeadPeer != null) {
+                if (heartbeat.isAwaitingPong() && this.maxMissedPongs > 0
+                        && ++heartbeat.missedPongs >= this.maxMissedPongs) {
+
+                    heartbeat.dispose();
+                    this.deadPeers.increment();
+                    heartbeat.onDeadPeer.run();
+
+                    return false;
+                }
+
+                payload = heartbeat.nextPing();
+            }
+
+            heartbeat.ping.accept(payload);
+            this.sent.increment();
+        } catch (Exception e) {
+            log.error("Unable to send ping: {}", e.getMessage());
+        }
+
+        return true;
+    }
+}
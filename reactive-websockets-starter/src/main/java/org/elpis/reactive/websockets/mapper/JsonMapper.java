@@ -2,10 +2,29 @@ package org.elpis.reactive.websockets.mapper;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Utility class that combines Jackson mapper features with reactive stack.
  *
@@ -14,11 +33,108 @@ import reactor.core.publisher.Mono;
  * @since 0.1.0
  */
 public class JsonMapper {
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private static final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private static final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     private JsonMapper() {
     }
 
+    /**
+     * Writes object as JSON straight into a {@link DataBuffer} allocated by the given factory, without intermediate
+     * {@link String} or byte array. If not possible to convert - throws {@link RuntimeJsonMappingException}.
+     * {@link String} type parameters are written as they are, UTF-8 encoded.
+     *
+     * @since 1.0.0
+     */
+    public static DataBuffer applyWithFallback(final Object object, final DataBufferFactory bufferFactory) {
+        final DataBuffer dataBuffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        boolean release = true;
+
+        try {
+            if (object instanceof String value) {
+                dataBuffer.write(value, StandardCharsets.UTF_8);
+            } else {
+                try (OutputStream outputStream = dataBuffer.asOutputStream()) {
+                    getWriter(object.getClass()).writeValue(outputStream, object);
+                }
+            }
+
+            release = false;
+            return dataBuffer;
+        } catch (IOException e) {
+            throw new RuntimeJsonMappingException("Unable to translate " + object.getClass() + " instance to DataBuffer.class");
+        } finally {
+            if (release) {
+                DataBufferUtils.release(dataBuffer);
+            }
+        }
+    }
+
+    /**
+     * Writes object as JSON straight into a {@link DataBuffer} allocated by the given factory and returns a
+     * {@link Mono} instance with the buffer. If not possible to convert - returns {@link Mono#empty()}.
+     * {@link String} type parameters are written as they are, UTF-8 encoded.
+     *
+     * @since 1.0.0
+     */
+    public static Mono<DataBuffer> applyWithDataBuffer(final Object object, final DataBufferFactory bufferFactory) {
+        try {
+            return Mono.just(applyWithFallback(object, bufferFactory));
+        } catch (RuntimeJsonMappingException e) {
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * Reads JSON straight from a {@link DataBuffer} with a cached reader of the given type, without intermediate
+     * {@link String}. The read position of the buffer is left untouched. If not possible to convert - throws
+     * {@link RuntimeJsonMappingException}.
+     *
+     * @since 1.0.0
+     */
+    public static <T> T readWithFallback(final DataBuffer dataBuffer, final Type type) {
+        try {
+            return readValue(readers.computeIfAbsent(type, key -> objectMapper.readerFor(objectMapper.constructType(key))),
+                    dataBuffer);
+        } catch (IOException e) {
+            throw new RuntimeJsonMappingException("Unable to translate DataBuffer.class to " + type.getTypeName());
+        }
+    }
+
+    /**
+     * Reads a value from the readable bytes of a {@link DataBuffer}, without copying them and without moving its read
+     * position, so that the same message can be read by several subscribers.
+     *
+     * @since 1.0.0
+     */
+    public static <T> T readValue(final ObjectReader reader, final DataBuffer dataBuffer) throws IOException {
+        try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+            final ByteBuffer first = iterator.hasNext() ? iterator.next() : ByteBuffer.allocate(0);
+
+            if (!iterator.hasNext()) {
+                return first.hasArray()
+                        ? reader.readValue(first.array(), first.arrayOffset() + first.position(), first.remaining())
+                        : reader.readValue(new ByteBufferBackedInputStream(first));
+            }
+
+            final List<InputStream> inputStreams = new ArrayList<>();
+            inputStreams.add(new ByteBufferBackedInputStream(first));
+            while (iterator.hasNext()) {
+                inputStreams.add(new ByteBufferBackedInputStream(iterator.next()));
+            }
+
+            return reader.readValue(new SequenceInputStream(Collections.enumeration(inputStreams)));
+        }
+    }
+
+    private static ObjectWriter getWriter(final Class<?> type) {
+        return writers.computeIfAbsent(type, key -> objectMapper.writerFor(key));
+    }
+
     /**
      * Converts object to JSON string. If not possible to convert - throws {@link RuntimeJsonMappingException}.
      * {@link String} type parameters are returned as they are.
@@ -29,7 +145,7 @@ public class JsonMapper {
         try {
             return String.class.isAssignableFrom(object.getClass())
                     ? (String) object
-                    : objectMapper.writeValueAsString(object);
+                    : getWriter(object.getClass()).writeValueAsString(object);
         } catch (JsonProcessingException e) {
             throw new RuntimeJsonMappingException("Unable to translate " + object.getClass() + " instance to String.class");
         }
@@ -45,7 +161,7 @@ public class JsonMapper {
         try {
             return String.class.isAssignableFrom(object.getClass())
                     ? (String) object
-                    : objectMapper.writeValueAsString(object);
+                    : getWriter(object.getClass()).writeValueAsString(object);
         } catch (JsonProcessingException e) {
             return defaultValue;
         }
@@ -61,7 +177,7 @@ public class JsonMapper {
         try {
             final String value = String.class.isAssignableFrom(object.getClass())
                     ? (String) object
-                    : objectMapper.writeValueAsString(object);
+                    : getWriter(object.getClass()).writeValueAsString(object);
 
             return Mono.just(value);
         } catch (JsonProcessingException e) {
@@ -80,7 +196,7 @@ public class JsonMapper {
         try {
             final String value = String.class.isAssignableFrom(object.getClass())
                     ? (String) object
-                    : objectMapper.writeValueAsString(object);
+                    : getWriter(object.getClass()).writeValueAsString(object);
 
             return Flux.just(value);
         } catch (JsonProcessingException e) {
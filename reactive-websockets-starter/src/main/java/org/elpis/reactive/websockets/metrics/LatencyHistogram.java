@@ -0,0 +1,109 @@
+package org.elpis.reactive.websockets.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies.
+ *
+ * <p>Samples are counted in power-of-two buckets of microseconds, so recording is a single counter increment and
+ * percentiles are reported as the upper bound of the bucket they fall into.
+ *
+ * @author Alex Zharkov
+ * @see org.elpis.reactive.websockets.heartbeat.WebSocketHeartbeatScheduler#getRoundTripTimes()
+ * @see org.elpis.reactive.websockets.event.executor.CloseStatusHandlerExecutor#getQueueTimes()
+ * @see org.elpis.reactive.websockets.event.executor.CloseStatusHandlerExecutor#getExecutionTimes()
+ * @since 1.0.0
+ */
+public final class LatencyHistogram {
+    private static final int BUCKETS = Long.SIZE;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency sample.
+     *
+     * @param nanos latency in nanoseconds
+     * @since 1.0.0
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        final long micros = value / 1_000L;
+
+        this.buckets[BUCKETS - Long.numberOfLeadingZeros(micros)].increment();
+        this.count.increment();
+        this.totalNanos.add(value);
+        this.maxNanos.accumulate(value);
+    }
+
+    /**
+     * Returns the number of recorded samples.
+     *
+     * @return samples count
+     * @since 1.0.0
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return mean or {@link Duration#ZERO} if nothing was recorded
+     * @since 1.0.0
+     */
+    public Duration getMean() {
+        final long samples = this.count.sum();
+
+        return samples > 0 ? Duration.ofNanos(this.totalNanos.sum() / samples) : Duration.ZERO;
+    }
+
+    /**
+     * Returns the longest recorded latency.
+     *
+     * @return max or {@link Duration#ZERO} if nothing was recorded
+     * @since 1.0.0
+     */
+    public Duration getMax() {
+        return Duration.ofNanos(this.maxNanos.get());
+    }
+
+    /**
+     * Returns the upper bound of the bucket that holds the given percentile.
+     *
+     * @param percentile value between {@code 0.0} and {@code 1.0}
+     * @return approximate percentile or {@link Duration#ZERO} if nothing was recorded
+     * @since 1.0.0
+     */
+    public Duration getPercentile(final double percentile) {
+        final long[] snapshot = new long[BUCKETS];
+        long samples = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.buckets[i].sum();
+            samples += snapshot[i];
+        }
+
+        final long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, percentile)) * samples);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && seen > 0) {
+                final long upperBoundMicros = (1L << Math.min(i, 42)) - 1;
+
+                return Duration.ofNanos(Math.min(this.maxNanos.get(), upperBoundMicros * 1_000L));
+            }
+        }
+
+        return Duration.ZERO;
+    }
+}
@@ -0,0 +1,86 @@
+package org.elpis.reactive.websockets.session;
+
+import org.springframework.web.reactive.socket.CloseStatus;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes server-initiated close requests straight to the connection they target.
+ *
+ * <p>Every open connection registers a one-shot close signal under its session id. A close request is a single map
+ * lookup that completes only the target signal, so closing one session costs the same with 10 or 100 000 sessions open.
+ *
+ * <p>A signal belongs to the connection that registered it. When another connection registers under the same session
+ * id, e.g. a resumed one, the previous signal is completed empty and replaced, and only the owner of the current signal
+ * can {@link #unregister(String, Sinks.One) unregister} it.
+ *
+ * @author Alex Zharkov
+ * @see ReactiveWebSocketSession#close(CloseStatus)
+ * @since 1.0.0
+ */
+public final class WebSocketCloseDispatcher {
+    private final Map<String, Sinks.One<CloseStatus>> closeSignals = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a new close signal for the session, replacing the one registered under the same id before.
+     *
+     * @param sessionId the session id
+     * @return signal that emits the requested {@link CloseStatus} once {@link #dispatch(String, CloseStatus)} is
+     * called for the session, or completes empty when it is unregistered or replaced
+     * @since 1.0.0
+     */
+    public Sinks.One<CloseStatus> register(final String sessionId) {
+        final Sinks.One<CloseStatus> closeSignal = Sinks.one();
+
+        Optional.ofNullable(this.closeSignals.put(sessionId, closeSignal))
+                .ifPresent(Sinks.One::tryEmitEmpty);
+
+        return closeSignal;
+    }
+
+    /**
+     * Delivers a close request to the session. Each registered signal is completed at most once.
+     *
+     * @param sessionId   the session id
+     * @param closeStatus the status to close the session with
+     * @return {@code true} if the session was registered and received the signal
+     * @since 1.0.0
+     */
+    public boolean dispatch(final String sessionId, final CloseStatus closeStatus) {
+        final Sinks.One<CloseStatus> closeSignal = this.closeSignals.remove(sessionId);
+
+        return closeSignal != null && closeSignal.tryEmitValue(closeStatus).isSuccess();
+    }
+
+    /**
+     * Drops the close signal of a session that was closed by the client, only if it is still the given one, so that a
+     * connection can't drop the signal of a newer connection registered under the same session id.
+     *
+     * @param sessionId   the session id
+     * @param closeSignal the signal returned by {@link #register(String)}
+     * @return {@code true} if the signal was registered and has been dropped
+     * @since 1.0.0
+     */
+    public boolean unregister(final String sessionId, final Sinks.One<CloseStatus> closeSignal) {
+        if (!this.closeSignals.remove(sessionId, closeSignal)) {
+            return false;
+        }
+
+        closeSignal.tryEmitEmpty();
+
+        return true;
+    }
+
+    /**
+     * Returns the number of sessions waiting for a close signal.
+     *
+     * @return registered sessions count
+     * @since 1.0.0
+     */
+    public int size() {
+        return this.closeSignals.size();
+    }
+}
@@ -0,0 +1,114 @@
+package org.elpis.reactive.websockets.session;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of WebSocket session ids that needs no {@link org.springframework.web.server.WebSession WebSession}.
+ *
+ * <p>An id is a 64-bit number made of a 16-bit node prefix and a 48-bit sequence, written as 13 characters of
+ * Crockford's base 32. The sequence starts from the milliseconds elapsed since {@link #EPOCH} times 256, which fits
+ * in 48 bits until 2058, so ids of a node keep growing across restarts as long as it hands out less than 256 ids per
+ * millisecond on average. The node prefix is random unless set explicitly. Generating an id costs one atomic
+ * increment and the allocation of its string.
+ *
+ * @author Alex Zharkov
+ * @since 1.0.0
+ */
+public final class WebSocketSessionIdGenerator {
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ID_LENGTH = 13;
+
+    private static final int NODE_BITS = 16;
+    private static final long SEQUENCE_MASK = (1L << (Long.SIZE - NODE_BITS)) - 1;
+    private static final int IDS_PER_MILLI_BITS = 8;
+
+    private final long node;
+    private final AtomicLong sequence;
+
+    public WebSocketSessionIdGenerator() {
+        this(new SecureRandom().nextInt(1 << NODE_BITS));
+    }
+
+    /**
+     * Creates a generator with the given node prefix, e.g. to keep ids of a cluster apart.
+     *
+     * @param node node prefix, from {@code 0} to {@code 65535}
+     * @since 1.0.0
+     */
+    public WebSocketSessionIdGenerator(final int node) {
+        this(node, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a generator with the given node prefix whose sequence starts from the current time of the given clock.
+     *
+     * @param node  node prefix, from {@code 0} to {@code 65535}
+     * @param clock clock to seed the sequence from
+     * @throws IllegalArgumentException if the node is out of range or the clock is before {@link #EPOCH} or too far
+     *                                  after it for the sequence to fit in 48 bits
+     * @since 1.0.0
+     */
+    public WebSocketSessionIdGenerator(final int node, final Clock clock) {
+        if (node < 0 || node >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("Node should be between 0 and 65535, got " + node);
+        }
+
+        final long millis = clock.millis() - EPOCH.toEpochMilli();
+        if (millis < 0 || millis > SEQUENCE_MASK >>> IDS_PER_MILLI_BITS) {
+            throw new IllegalArgumentException("Clock should be between " + EPOCH + " and "
+                    + EPOCH.plusMillis(SEQUENCE_MASK >>> IDS_PER_MILLI_BITS) + ", got " + clock.instant());
+        }
+
+        this.node = (long) node << (Long.SIZE - NODE_BITS);
+        this.sequence = new AtomicLong(millis << IDS_PER_MILLI_BITS);
+    }
+
+    /**
+     * Returns the next id as a number.
+     *
+     * @return session id
+     * @since 1.0.0
+     */
+    public long nextLong() {
+        return this.node | (this.sequence.incrementAndGet() & SEQUENCE_MASK);
+    }
+
+    /**
+     * Returns the next id in its string form.
+     *
+     * @return session id
+     * @since 1.0.0
+     */
+    public String next() {
+        return toString(this.nextLong());
+    }
+
+    /**
+     * Writes an id as 13 characters of Crockford's base 32. The strings sort in the same order as the ids compared
+     * unsigned.
+     *
+     * @param id session id
+     * @return string form
+     * @since 1.0.0
+     */
+    public static String toString(final long id) {
+        final char[] chars = new char[ID_LENGTH];
+
+        long value = id;
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+
+        return new String(chars);
+    }
+
+    public int getNode() {
+        return (int) (this.node >>> (Long.SIZE - NODE_BITS));
+    }
+}
@@ -1,23 +1,286 @@
 package org.elpis.reactive.websockets.session;
 
+import org.springframework.web.reactive.socket.CloseStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * Registry of all open {@link ReactiveWebSocketSession}.
+ *
+ * <p>Sessions are spread over a power-of-two number of shards by session id, so connect/disconnect storms are
+ * spread over independent maps. Every shard also keeps secondary indexes for the sessions it owns: by principal
+ * name, by path template and by custom tag. Index lookups touch one bucket per shard instead of scanning every
+ * open session.
+ *
+ * <p>Several connections may share a session id, e.g. when a resumed connection takes over the logical session of a
+ * dropped one. The last one saved owns the id: removals and close signals of the older ones are scoped to their own
+ * connection and never touch the entry of the newer one.
+ *
+ * @author Alex Zharkov
+ * @see ReactiveWebSocketSession
+ * @since 0.1.0
+ */
 public final class WebSocketSessionRegistry {
+    private static final int DEFAULT_SHARDS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final Shard[] shards;
+    private final int shardMask;
+
+    private final WebSocketCloseDispatcher closeDispatcher = new WebSocketCloseDispatcher();
+
+    public WebSocketSessionRegistry() {
+        this(DEFAULT_SHARDS);
+    }
 
-    private final Map<String, ReactiveWebSocketSession> sessionRegistry = new ConcurrentHashMap<>();
+    /**
+     * Creates a registry with the given number of shards, rounded up to a power of two.
+     *
+     * @param shards desired number of shards
+     * @since 1.0.0
+     */
+    public WebSocketSessionRegistry(final int shards) {
+        final int size = shards > 1 ? Integer.highestOneBit(shards - 1) << 1 : 1;
+
+        this.shards = new Shard[size];
+        this.shardMask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new Shard();
+        }
+    }
 
     public ReactiveWebSocketSession save(final ReactiveWebSocketSession session) {
-        return this.sessionRegistry.put(session.getSessionId(), session);
+        final Shard shard = this.shard(session.getSessionId());
+        final Entry previous = shard.sessions.put(session.getSessionId(),
+                new Entry(session, this.closeDispatcher.register(session.getSessionId())));
+
+        if (previous != null) {
+            shard.unindex(previous);
+        }
+
+        shard.index(shard.byPrincipal, principalName(session), session);
+        shard.index(shard.byPathTemplate, session.getPathTemplate(), session);
+
+        return previous != null ? previous.session : null;
     }
 
     public Optional<ReactiveWebSocketSession> get(final String sessionId) {
-        return Optional.ofNullable(this.sessionRegistry.get(sessionId));
+        return Optional.ofNullable(this.shard(sessionId).sessions.get(sessionId))
+                .map(entry -> entry.session);
+    }
+
+    public Optional<ReactiveWebSocketSession> remove(final String sessionId) {
+        final Shard shard = this.shard(sessionId);
+        final Entry entry = shard.sessions.remove(sessionId);
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        this.closeDispatcher.unregister(sessionId, entry.closeSignal);
+        shard.unindex(entry);
+
+        return Optional.of(entry.session);
+    }
+
+    /**
+     * Removes the session only if it is still the one registered under its id. A connection closing after another one
+     * has taken its session id over leaves the newer one registered.
+     *
+     * @param sessionId the session id
+     * @param session   the session saved by the closing connection
+     * @return {@code true} if the session was registered and has been removed
+     * @since 1.0.0
+     */
+    public boolean remove(final String sessionId, final ReactiveWebSocketSession session) {
+        final Shard shard = this.shard(sessionId);
+        final Entry entry = shard.sessions.get(sessionId);
+
+        if (entry == null || entry.session != session || !shard.sessions.remove(sessionId, entry)) {
+            return false;
+        }
+
+        this.closeDispatcher.unregister(sessionId, entry.closeSignal);
+        shard.unindex(entry);
+
+        return true;
+    }
+
+    /**
+     * Adds a custom tag to an open session, e.g. a room or a tenant id.
+     *
+     * @param sessionId the session id
+     * @param tag       any tag
+     * @return {@code true} if the session is registered
+     * @since 1.0.0
+     */
+    public boolean tag(final String sessionId, final String tag) {
+        final Shard shard = this.shard(sessionId);
+        final Entry entry = shard.sessions.get(sessionId);
+
+        if (entry == null) {
+            return false;
+        }
+
+        if (entry.tags.add(tag)) {
+            shard.index(shard.byTag, tag, entry.session);
+
+            if (shard.sessions.get(sessionId) != entry) {
+                shard.unindex(shard.byTag, tag, entry.session);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes a custom tag from an open session.
+     *
+     * @param sessionId the session id
+     * @param tag       the tag to remove
+     * @return {@code true} if the session was tagged
+     * @since 1.0.0
+     */
+    public boolean untag(final String sessionId, final String tag) {
+        final Shard shard = this.shard(sessionId);
+        final Entry entry = shard.sessions.get(sessionId);
+
+        if (entry == null || !entry.tags.remove(tag)) {
+            return false;
+        }
+
+        shard.unindex(shard.byTag, tag, entry.session);
+
+        return true;
+    }
+
+    public List<ReactiveWebSocketSession> getByPrincipal(final String principalName) {
+        return this.lookup(shard -> shard.byPrincipal, principalName);
     }
 
-    public Optional<ReactiveWebSocketSession> remove(String sessionId) {
-        return Optional.ofNullable(this.sessionRegistry.get(sessionId));
+    public List<ReactiveWebSocketSession> getByPathTemplate(final String pathTemplate) {
+        return this.lookup(shard -> shard.byPathTemplate, pathTemplate);
+    }
+
+    public List<ReactiveWebSocketSession> getByTag(final String tag) {
+        return this.lookup(shard -> shard.byTag, tag);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : this.shards) {
+            size += shard.sessions.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the close signal of the given session, registered when it was saved.
+     *
+     * @param session saved session
+     * @return {@link Mono} that emits the {@link CloseStatus} requested through {@link #close(String, CloseStatus)},
+     * or completes empty once the session is removed or another one is saved under its id
+     * @since 1.0.0
+     */
+    public Mono<CloseStatus> closeSignal(final ReactiveWebSocketSession session) {
+        final Entry entry = this.shard(session.getSessionId()).sessions.get(session.getSessionId());
+
+        return entry != null && entry.session == session ? entry.closeSignal.asMono() : Mono.empty();
+    }
+
+    public boolean close(final String sessionId, final CloseStatus closeStatus) {
+        return this.closeDispatcher.dispatch(sessionId, closeStatus);
+    }
+
+    private List<ReactiveWebSocketSession> lookup(final Function<Shard, Map<String, Set<ReactiveWebSocketSession>>> index,
+                                                  final String key) {
+
+        final List<ReactiveWebSocketSession> sessions = new ArrayList<>();
+        if (key == null) {
+            return sessions;
+        }
+
+        for (Shard shard : this.shards) {
+            final Set<ReactiveWebSocketSession> bucket = index.apply(shard).get(key);
+            if (bucket != null) {
+                sessions.addAll(bucket);
+            }
+        }
+
+        return sessions;
+    }
+
+    private Shard shard(final String sessionId) {
+        final int hash = sessionId.hashCode();
+
+        return this.shards[(hash ^ (hash >>> 16)) & this.shardMask];
+    }
+
+    private static String principalName(final ReactiveWebSocketSession session) {
+        final Principal principal = session.getPrincipal();
+
+        return principal != null ? principal.getName() : null;
+    }
+
+    private static final class Entry {
+        private final ReactiveWebSocketSession session;
+        private final Sinks.One<CloseStatus> closeSignal;
+        private final Set<String> tags = ConcurrentHashMap.newKeySet();
+
+        private Entry(final ReactiveWebSocketSession session, final Sinks.One<CloseStatus> closeSignal) {
+            this.session = session;
+            this.closeSignal = closeSignal;
+        }
+    }
+
+    private static final class Shard {
+        private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<ReactiveWebSocketSession>> byPrincipal = new ConcurrentHashMap<>();
+        private final Map<String, Set<ReactiveWebSocketSession>> byPathTemplate = new ConcurrentHashMap<>();
+        private final Map<String, Set<ReactiveWebSocketSession>> byTag = new ConcurrentHashMap<>();
+
+        private void index(final Map<String, Set<ReactiveWebSocketSession>> index, final String key,
+                           final ReactiveWebSocketSession session) {
+
+            if (key != null) {
+                index.compute(key, (k, bucket) -> {
+                    final Set<ReactiveWebSocketSession> sessions = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+                    sessions.add(session);
+
+                    return sessions;
+                });
+            }
+        }
+
+        private void unindex(final Map<String, Set<ReactiveWebSocketSession>> index, final String key,
+                             final ReactiveWebSocketSession session) {
+
+            if (key != null) {
+                index.computeIfPresent(key, (k, bucket) -> {
+                    bucket.remove(session);
+
+                    return bucket.isEmpty() ? null : bucket;
+                });
+            }
+        }
+
+        private void unindex(final Entry entry) {
+            this.unindex(this.byPrincipal, principalName(entry.session), entry.session);
+            this.unindex(this.byPathTemplate, entry.session.getPathTemplate(), entry.session);
+            entry.tags.forEach(tag -> this.unindex(this.byTag, tag, entry.session));
+        }
     }
 
 }